@@ -0,0 +1,12 @@
+#!/bin/sh
+
+# 记录调用时所在的目录，参数中的相对路径相对于该目录解析。
+WORKING_DIR=$(pwd)
+cd "$(dirname "$0")/.." || exit 2
+exec java -classpath "lib/*:libext/*" \
+-Djava.awt.headless=true \
+-Dbatch.working_dir="$WORKING_DIR" \
+-Dlog.dir="./logs" \
+-Dlog.consoleEncoding=UTF-8 \
+-Dlog.fileEncoding=UTF-8 \
+${batchMainClass} "$@"
@@ -0,0 +1,53 @@
+package com.jneagle.xlstool.dpxhtj.bean.dto;
+
+import com.dwarfeng.subgrade.stack.bean.dto.Dto;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+
+import java.util.List;
+
+/**
+ * 导入缓存数据。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public class ImportCacheData implements Dto {
+
+    private static final long serialVersionUID = -2581709536428161045L;
+
+    private List<ConsumingDetail> consumingDetails;
+    private List<ImportErrorInfo> importErrorInfos;
+
+    public ImportCacheData() {
+    }
+
+    public ImportCacheData(List<ConsumingDetail> consumingDetails, List<ImportErrorInfo> importErrorInfos) {
+        this.consumingDetails = consumingDetails;
+        this.importErrorInfos = importErrorInfos;
+    }
+
+    public List<ConsumingDetail> getConsumingDetails() {
+        return consumingDetails;
+    }
+
+    public void setConsumingDetails(List<ConsumingDetail> consumingDetails) {
+        this.consumingDetails = consumingDetails;
+    }
+
+    public List<ImportErrorInfo> getImportErrorInfos() {
+        return importErrorInfos;
+    }
+
+    public void setImportErrorInfos(List<ImportErrorInfo> importErrorInfos) {
+        this.importErrorInfos = importErrorInfos;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportCacheData{" +
+                "consumingDetails=" + consumingDetails +
+                ", importErrorInfos=" + importErrorInfos +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.jneagle.xlstool.dpxhtj.bean.dto;
+
+import com.dwarfeng.subgrade.stack.bean.dto.Dto;
+
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * 导入文件信息。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public class ImportFileInfo implements Dto {
+
+    private static final long serialVersionUID = 4163250876319357462L;
+
+    private File file;
+    private String password;
+
+    public ImportFileInfo() {
+    }
+
+    public ImportFileInfo(File file, String password) {
+        this.file = file;
+        this.password = password;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    // 密码不输出明文，只标识是否设置了密码。
+    @Override
+    public String toString() {
+        return "ImportFileInfo{" +
+                "file=" + file +
+                ", password=" + (Objects.isNull(password) ? "null" : "'******'") +
+                '}';
+    }
+}
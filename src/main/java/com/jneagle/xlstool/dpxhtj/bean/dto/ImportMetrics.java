@@ -0,0 +1,99 @@
+package com.jneagle.xlstool.dpxhtj.bean.dto;
+
+import com.dwarfeng.subgrade.stack.bean.dto.Dto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导入指标。
+ *
+ * <p>
+ * 一次导入（单个文件或者批量导入）的吞吐量以及各工作簿的耗时分布。
+ * 导入进行期间通过进度状态发布截至当时的指标，导入结束时发布最终的指标。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public class ImportMetrics implements Dto {
+
+    private static final long serialVersionUID = 6601529546414968180L;
+
+    private long elapsedNanos;
+
+    /**
+     * 将导入的数据插入到维护服务中的耗时；启用流水线时，为插入线程的耗时。
+     */
+    private long insertNanos;
+
+    private List<SheetImportMetrics> sheetImportMetrics;
+
+    public ImportMetrics() {
+    }
+
+    public ImportMetrics(long elapsedNanos, long insertNanos, List<SheetImportMetrics> sheetImportMetrics) {
+        this.elapsedNanos = elapsedNanos;
+        this.insertNanos = insertNanos;
+        this.sheetImportMetrics = sheetImportMetrics;
+    }
+
+    /**
+     * 获取读取的数据行数。
+     *
+     * @return 各工作簿读取的数据行数之和。
+     */
+    public long getRowCount() {
+        return sheetImportMetrics.stream().mapToLong(SheetImportMetrics::getRowCount).sum();
+    }
+
+    /**
+     * 获取读取的字节数。
+     *
+     * @return 各工作簿读取的字节数之和。
+     */
+    public long getByteCount() {
+        return sheetImportMetrics.stream().mapToLong(SheetImportMetrics::getByteCount).sum();
+    }
+
+    /**
+     * 获取每秒读取的行数。
+     *
+     * @return 每秒读取的行数，经过的时间为 0 时返回 0。
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos <= 0 ? 0 : getRowCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getInsertNanos() {
+        return insertNanos;
+    }
+
+    public void setInsertNanos(long insertNanos) {
+        this.insertNanos = insertNanos;
+    }
+
+    public List<SheetImportMetrics> getSheetImportMetrics() {
+        return sheetImportMetrics;
+    }
+
+    public void setSheetImportMetrics(List<SheetImportMetrics> sheetImportMetrics) {
+        this.sheetImportMetrics = sheetImportMetrics;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportMetrics{" +
+                "elapsedNanos=" + elapsedNanos +
+                ", insertNanos=" + insertNanos +
+                ", sheetImportMetrics=" + sheetImportMetrics +
+                '}';
+    }
+}
@@ -0,0 +1,88 @@
+package com.jneagle.xlstool.dpxhtj.bean.dto;
+
+import com.dwarfeng.subgrade.stack.bean.dto.Dto;
+
+/**
+ * 锁等待指标。
+ *
+ * <p>
+ * 记录内存数据访问层写锁的获取次数以及等待时间。读取数据时不获取锁，因此指标中只包含写入操作。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public class LockWaitMetrics implements Dto {
+
+    private static final long serialVersionUID = 2950186641453805147L;
+
+    private long acquireCount;
+
+    /**
+     * 获取锁时需要等待的次数，即锁已经被其它写入操作持有的次数。
+     */
+    private long contendedCount;
+
+    private long waitNanos;
+    private long maxWaitNanos;
+
+    public LockWaitMetrics() {
+    }
+
+    public LockWaitMetrics(long acquireCount, long contendedCount, long waitNanos, long maxWaitNanos) {
+        this.acquireCount = acquireCount;
+        this.contendedCount = contendedCount;
+        this.waitNanos = waitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /**
+     * 获取平均每次获取锁的等待时间。
+     *
+     * @return 平均每次获取锁的等待时间，没有获取过锁时返回 0。
+     */
+    public double getAverageWaitNanos() {
+        return acquireCount <= 0 ? 0 : (double) waitNanos / acquireCount;
+    }
+
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    public void setAcquireCount(long acquireCount) {
+        this.acquireCount = acquireCount;
+    }
+
+    public long getContendedCount() {
+        return contendedCount;
+    }
+
+    public void setContendedCount(long contendedCount) {
+        this.contendedCount = contendedCount;
+    }
+
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    public void setWaitNanos(long waitNanos) {
+        this.waitNanos = waitNanos;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    public void setMaxWaitNanos(long maxWaitNanos) {
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LockWaitMetrics{" +
+                "acquireCount=" + acquireCount +
+                ", contendedCount=" + contendedCount +
+                ", waitNanos=" + waitNanos +
+                ", maxWaitNanos=" + maxWaitNanos +
+                '}';
+    }
+}
@@ -0,0 +1,170 @@
+package com.jneagle.xlstool.dpxhtj.bean.dto;
+
+import com.dwarfeng.subgrade.stack.bean.dto.Dto;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作簿导入指标。
+ *
+ * <p>
+ * 记录单个工作簿的导入耗时及其在各阶段之间的分布。工作簿名称为 <code>null</code> 时，
+ * 表示无法归属于某个工作簿的文件级别的开销，如打开加密文件、加载整个工作簿、读取导入缓存，
+ * 以及 CSV 文件的导入（CSV 文件的各分块合并为一条记录）。
+ *
+ * <p>
+ * 各阶段的耗时是在各线程中实际花费的时间之和，并行解析时可能大于经过的时间。
+ * 无法单独测量的阶段计入解析耗时，如 xls 文件的记录流在读取时即时解密。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public class SheetImportMetrics implements Dto {
+
+    private static final long serialVersionUID = -3017470936436406498L;
+
+    private String fileName;
+    private String sheetName;
+
+    /**
+     * 读取的数据行数，包括成功读取的行与出错的行，不包括空白行。
+     */
+    private int rowCount;
+
+    /**
+     * 读取的字节数。
+     *
+     * <p>
+     * xlsx 文件的工作簿为解压后的字节数，文件级别的记录为文件的大小，无法测量时为 0。
+     */
+    private long byteCount;
+
+    private long elapsedNanos;
+    private long decryptNanos;
+
+    /**
+     * 读取耗时，包括磁盘读取、zip 解压以及 xlsx 文件条目的按需解密。
+     */
+    private long readNanos;
+
+    /**
+     * 解析耗时，包括 XML 或记录的解析以及数据行的解码。
+     */
+    private long parseNanos;
+
+    private long formulaNanos;
+
+    public SheetImportMetrics() {
+    }
+
+    public SheetImportMetrics(
+            String fileName, String sheetName, int rowCount, long byteCount, long elapsedNanos, long decryptNanos,
+            long readNanos, long parseNanos, long formulaNanos
+    ) {
+        this.fileName = fileName;
+        this.sheetName = sheetName;
+        this.rowCount = rowCount;
+        this.byteCount = byteCount;
+        this.elapsedNanos = elapsedNanos;
+        this.decryptNanos = decryptNanos;
+        this.readNanos = readNanos;
+        this.parseNanos = parseNanos;
+        this.formulaNanos = formulaNanos;
+    }
+
+    /**
+     * 获取每秒读取的行数。
+     *
+     * @return 每秒读取的行数，经过的时间为 0 时返回 0。
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos <= 0 ? 0 : rowCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public void setSheetName(String sheetName) {
+        this.sheetName = sheetName;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public void setByteCount(long byteCount) {
+        this.byteCount = byteCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getDecryptNanos() {
+        return decryptNanos;
+    }
+
+    public void setDecryptNanos(long decryptNanos) {
+        this.decryptNanos = decryptNanos;
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public void setReadNanos(long readNanos) {
+        this.readNanos = readNanos;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    public void setParseNanos(long parseNanos) {
+        this.parseNanos = parseNanos;
+    }
+
+    public long getFormulaNanos() {
+        return formulaNanos;
+    }
+
+    public void setFormulaNanos(long formulaNanos) {
+        this.formulaNanos = formulaNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SheetImportMetrics{" +
+                "fileName='" + fileName + '\'' +
+                ", sheetName='" + sheetName + '\'' +
+                ", rowCount=" + rowCount +
+                ", byteCount=" + byteCount +
+                ", elapsedNanos=" + elapsedNanos +
+                ", decryptNanos=" + decryptNanos +
+                ", readNanos=" + readNanos +
+                ", parseNanos=" + parseNanos +
+                ", formulaNanos=" + formulaNanos +
+                '}';
+    }
+}
@@ -74,13 +74,23 @@ public class ConsumingDetail implements Entity<UuidKey> {
      */
     private String returningUsageInfo;
 
+    /**
+     * 领用日期对应的日序号，即自 1970-01-01 起的天数。
+     *
+     * <p>
+     * 与领用日期表示同一天，供统计等环节直接按日期分组，无需再通过 {@link java.util.Calendar} 解析领用日期。
+     *
+     * @since 1.2.0
+     */
+    private Integer consumingDay;
+
     public ConsumingDetail() {
     }
 
     public ConsumingDetail(
             UuidKey key, String toolCutterType, String device, Integer consumingQuantity, BigDecimal worth,
             String consumingPerson, Date consumingDate, String remark, String toolCutterCode, Integer returningQuantity,
-            String returningUsageInfo
+            String returningUsageInfo, Integer consumingDay
     ) {
         this.key = key;
         this.toolCutterType = toolCutterType;
@@ -93,6 +103,7 @@ public class ConsumingDetail implements Entity<UuidKey> {
         this.toolCutterCode = toolCutterCode;
         this.returningQuantity = returningQuantity;
         this.returningUsageInfo = returningUsageInfo;
+        this.consumingDay = consumingDay;
     }
 
     @Override
@@ -185,6 +196,14 @@ public class ConsumingDetail implements Entity<UuidKey> {
         this.returningUsageInfo = returningUsageInfo;
     }
 
+    public Integer getConsumingDay() {
+        return consumingDay;
+    }
+
+    public void setConsumingDay(Integer consumingDay) {
+        this.consumingDay = consumingDay;
+    }
+
     @Override
     public String toString() {
         return "ConsumingDetail{" +
@@ -199,6 +218,7 @@ public class ConsumingDetail implements Entity<UuidKey> {
                 ", toolCutterCode='" + toolCutterCode + '\'' +
                 ", returningQuantity=" + returningQuantity +
                 ", returningUsageInfo='" + returningUsageInfo + '\'' +
+                ", consumingDay=" + consumingDay +
                 '}';
     }
 }
@@ -16,15 +16,53 @@ public class ImportErrorInfo implements Entity<UuidKey> {
     private UuidKey key;
     private String sheetName;
     private Integer rowIndex;
+
+    /**
+     * 结束行索引。
+     *
+     * <p>
+     * 连续出错且原因相同的行合并为一条错误信息，行索引为其中的第一行，结束行索引为其中的最后一行。
+     *
+     * @since 1.2.0
+     */
+    private Integer endRowIndex;
+
+    /**
+     * 出错的行数。
+     *
+     * <p>
+     * 缺失的行不会被读取，因此出错的行数可能小于行索引与结束行索引之间的行数。
+     *
+     * @since 1.2.0
+     */
+    private Integer rowCount;
+
     private String errorMessage;
 
     public ImportErrorInfo() {
     }
 
+    /**
+     * 创建单行的导入错误信息，结束行索引与行索引相同，出错的行数为 1。
+     */
     public ImportErrorInfo(UuidKey key, String sheetName, Integer rowIndex, String errorMessage) {
+        this(key, sheetName, rowIndex, rowIndex, 1, errorMessage);
+    }
+
+    /**
+     * 创建导入错误信息，可以表示连续多行的相同错误。
+     *
+     * @since 1.2.0
+     */
+    public ImportErrorInfo(
+            UuidKey key, String sheetName, Integer rowIndex, Integer endRowIndex, Integer rowCount,
+            String errorMessage
+    ) {
         this.key = key;
         this.sheetName = sheetName;
         this.rowIndex = rowIndex;
+        this.endRowIndex = endRowIndex;
+        this.rowCount = rowCount;
         this.errorMessage = errorMessage;
     }
 
@@ -54,6 +92,22 @@ public class ImportErrorInfo implements Entity<UuidKey> {
         this.rowIndex = rowIndex;
     }
 
+    public Integer getEndRowIndex() {
+        return endRowIndex;
+    }
+
+    public void setEndRowIndex(Integer endRowIndex) {
+        this.endRowIndex = endRowIndex;
+    }
+
+    public Integer getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(Integer rowCount) {
+        this.rowCount = rowCount;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -68,6 +122,8 @@ public class ImportErrorInfo implements Entity<UuidKey> {
                 "key=" + key +
                 ", sheetName=" + sheetName +
                 ", rowIndex=" + rowIndex +
+                ", endRowIndex=" + endRowIndex +
+                ", rowCount=" + rowCount +
                 ", errorMessage='" + errorMessage + '\'' +
                 '}';
     }
@@ -138,6 +138,12 @@ public class ViewConfiguration {
     @MappingTableModel.TableColumn(
             columnName = "行索引", columnValueGetterName = "getRowIndex", columnClass = Integer.class
     )
+    @MappingTableModel.TableColumn(
+            columnName = "结束行索引", columnValueGetterName = "getEndRowIndex", columnClass = Integer.class
+    )
+    @MappingTableModel.TableColumn(
+            columnName = "行数", columnValueGetterName = "getRowCount", columnClass = Integer.class
+    )
     @MappingTableModel.TableColumn(
             columnName = "错误信息", columnValueGetterName = "getErrorMessage", columnClass = String.class
     )
@@ -0,0 +1,1196 @@
+package com.jneagle.xlstool.dpxhtj.dao;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.structure.ConsumingDetailCursor;
+import com.jneagle.xlstool.dpxhtj.structure.StringDictionary;
+import com.jneagle.xlstool.dpxhtj.util.EpochDayUtil;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 消耗详细信息的列式存储。
+ *
+ * <p>
+ * 每个字段保存在独立的基本类型数组中，数据按照插入的顺序排列，不为每条数据保存实体对象：
+ * <ul>
+ *     <li>主键为规范格式的 UUID 时，以两个 <code>long</code> 保存，否则保存在单独的数组中。</li>
+ *     <li>取值种类较少的字符串字段以字典编码保存，备注以字符串数组保存。</li>
+ *     <li>领用数量、退回数量、日序号以 <code>int</code> 保存，领用日期以毫秒数保存，
+ *     取值是否为 <code>null</code> 记录在每行一个字节的标记中。</li>
+ *     <li>价值以分为单位的 <code>long</code> 及其原本的小数位数保存，无法无损转换的价值保存在单独的数组中。</li>
+ * </ul>
+ *
+ * <p>
+ * 主键通过开放寻址的散列表定位到行，散列表只保存行号。删除数据时只将行记录到 {@link DeletedRowSet} 中，
+ * 读取时跳过这些行，分页时通过其中的树状数组直接定位起始的行；
+ * 已删除的行超过总行数的四分之一时，压缩各列（包括不规范主键与溢出价值的数组）并重建散列表，以保持插入的顺序。
+ *
+ * <p>
+ * 领用人、设备、刀具类型、刀具编号以及领用年月上维护二级索引，索引将字段的取值映射到按顺序排列的行号，
+ * 按照这些字段查询时只访问命中的行。写入与更新数据时增量维护索引，压缩之后与主键散列表一起重建。
+ *
+ * <p>
+ * 数据以版本的形式发布：每次写入结束后发布新的版本，读取时通过 {@link #current()} 获取当前的版本，
+ * 无需获取锁，也不会被写入阻塞。已经发布的版本与写入者共享各列的数组，为了不影响已经发布的版本，写入遵循以下约定：
+ * <ul>
+ *     <li>追加的数据只写入版本的数据总数之后的位置，版本只读取数据总数之内的行，因此追加时无需复制。</li>
+ *     <li>覆盖数据会修改已有的行，修改之前复制各列的数组，每次写入最多复制一次。</li>
+ *     <li>删除数据只修改已删除的行的集合，修改之前只复制该集合；需要压缩时与覆盖数据一样复制各列的数组。</li>
+ *     <li>主键散列表与二级索引在追加时原地更新，版本在读取时忽略超出数据总数的行。</li>
+ * </ul>
+ * 因此批量追加数据的耗时只与追加的数据量有关，覆盖数据以及触发压缩的删除的耗时与数据的总量成正比，
+ * 其余的删除只需要复制每行一位的已删除的行的集合。
+ *
+ * <p>
+ * 写入之间需要互斥，读取之间以及读取与写入之间可以并发进行。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class ConsumingDetailColumnarStore {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final byte FLAG_NULL_CONSUMING_QUANTITY = 1;
+    private static final byte FLAG_NULL_RETURNING_QUANTITY = 1 << 1;
+    private static final byte FLAG_NULL_CONSUMING_DAY = 1 << 2;
+    private static final byte FLAG_NULL_CONSUMING_DATE = 1 << 3;
+    private static final byte FLAG_IRREGULAR_KEY = 1 << 4;
+
+    /**
+     * 已删除的行超过总行数的 1 / COMPACTION_DIVISOR 时压缩各列。
+     */
+    private static final int COMPACTION_DIVISOR = 4;
+
+    private static final byte WORTH_SCALE_NULL = -1;
+    private static final byte WORTH_SCALE_OVERFLOW = -2;
+    private static final int WORTH_SCALE_CENTS = 2;
+    private static final long[] WORTH_SCALE_FACTORS = {100, 10, 1};
+
+    /**
+     * 以分为单位时不会超出 <code>long</code> 范围的未缩放值的最大位数，乘以 100 之后仍小于 2<sup>63</sup>。
+     */
+    private static final int WORTH_MAX_UNSCALED_BIT_LENGTH = 56;
+
+    /**
+     * 领用日期与日序号均为 <code>null</code> 时的领用年月。
+     */
+    private static final int NO_YEAR_MONTH = Integer.MIN_VALUE;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Calendar calendar = Calendar.getInstance();
+
+    /**
+     * 写入者维护的版本，只有写入者访问。
+     */
+    private Version working = new Version();
+
+    /**
+     * 已经发布的版本，读取者访问。
+     */
+    private volatile Version published = new Version(working);
+
+    /**
+     * 写入者维护的版本中的数组是否与已经发布的版本共享。
+     */
+    private boolean shared = true;
+
+    /**
+     * 写入者维护的版本中的已删除的行的集合是否与已经发布的版本共享。
+     */
+    private boolean deletedRowsShared = true;
+
+    /**
+     * 获取当前的版本。
+     *
+     * <p>
+     * 需要多次读取时，应获取一次版本之后在该版本上读取，以保证读取的结果相互一致。
+     *
+     * @return 当前的版本。
+     */
+    public Version current() {
+        return published;
+    }
+
+    public void clear() {
+        working = new Version();
+        publish();
+    }
+
+    /**
+     * 保存消耗详细信息。
+     *
+     * <p>
+     * 主键已经存在时覆盖原有的数据，并保持其原有的位置，否则追加到末尾。
+     *
+     * @param consumingDetail 消耗详细信息。
+     * @return 消耗详细信息的主键。
+     */
+    public UuidKey put(ConsumingDetail consumingDetail) {
+        UuidKey key = write(consumingDetail);
+        publish();
+        return key;
+    }
+
+    /**
+     * 保存多个消耗详细信息，全部保存之后才发布新的版本。
+     *
+     * @param consumingDetails 消耗详细信息。
+     * @return 消耗详细信息的主键，顺序与消耗详细信息的顺序一致。
+     * @see #put(ConsumingDetail)
+     */
+    public List<UuidKey> putAll(Collection<ConsumingDetail> consumingDetails) {
+        List<UuidKey> result = new ArrayList<>(consumingDetails.size());
+        for (ConsumingDetail consumingDetail : consumingDetails) {
+            result.add(write(consumingDetail));
+        }
+        publish();
+        return result;
+    }
+
+    /**
+     * 删除指定主键对应的数据，不存在的主键将被忽略。
+     *
+     * <p>
+     * 数据所在的行被标记为已删除，已删除的行过多时压缩各列，全部删除之后才发布新的版本。
+     *
+     * @param keys 指定的主键。
+     */
+    public void removeAll(Collection<UuidKey> keys) {
+        boolean removed = false;
+        for (UuidKey key : keys) {
+            int row = working.indexOf(new KeyProbe(key));
+            if (row < 0) {
+                continue;
+            }
+            unshareDeletedRows();
+            working.markDeleted(row);
+            removed = true;
+        }
+        if (!removed) {
+            return;
+        }
+        if (working.deletedCount > working.rowCount / COMPACTION_DIVISOR) {
+            unshare();
+            working.compact();
+        }
+        publish();
+    }
+
+    private UuidKey write(ConsumingDetail consumingDetail) {
+        KeyProbe probe = new KeyProbe(consumingDetail.getKey());
+        int row = working.indexOf(probe);
+        if (row < 0) {
+            return working.append(probe, consumingDetail);
+        }
+        unshare();
+        return working.overwrite(row, consumingDetail);
+    }
+
+    private void unshare() {
+        if (shared) {
+            working.unshare();
+            shared = false;
+        }
+    }
+
+    private void unshareDeletedRows() {
+        if (deletedRowsShared) {
+            working.unshareDeletedRows();
+            deletedRowsShared = false;
+        }
+    }
+
+    private void publish() {
+        published = new Version(working);
+        shared = true;
+        deletedRowsShared = true;
+    }
+
+    private int yearMonthOf(Integer consumingDay, Date consumingDate) {
+        // 与统计时的处理一致，优先使用日序号计算年月。
+        if (Objects.nonNull(consumingDay)) {
+            return EpochDayUtil.yearOf(consumingDay) * 12 + EpochDayUtil.monthOf(consumingDay) - 1;
+        }
+        if (Objects.nonNull(consumingDate)) {
+            calendar.setTime(consumingDate);
+            return calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+        }
+        return NO_YEAR_MONTH;
+    }
+
+    private static int grownCapacity(int capacity, int minCapacity) {
+        return Math.max(Math.max(minCapacity, capacity + (capacity >> 1)), MIN_CAPACITY);
+    }
+
+    private static int regularHash(long mostSigBits, long leastSigBits) {
+        return spread(Long.hashCode(mostSigBits ^ leastSigBits));
+    }
+
+    private static int irregularHash(String uuid) {
+        return spread(Objects.hashCode(uuid));
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static String toUuidString(long mostSigBits, long leastSigBits) {
+        char[] chars = new char[36];
+        writeHex(chars, 0, mostSigBits >>> 32, 8);
+        chars[8] = '-';
+        writeHex(chars, 9, mostSigBits >>> 16, 4);
+        chars[13] = '-';
+        writeHex(chars, 14, mostSigBits, 4);
+        chars[18] = '-';
+        writeHex(chars, 19, leastSigBits >>> 48, 4);
+        chars[23] = '-';
+        writeHex(chars, 24, leastSigBits, 12);
+        return new String(chars);
+    }
+
+    private static void writeHex(char[] chars, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * 存储的版本。
+     *
+     * <p>
+     * 版本通过 volatile 字段发布，发布之后其字段不再改变；版本只读取数据总数之内的行，
+     * 这些行在版本发布之后不会被修改。
+     *
+     * @author DwArFeng
+     * @since 1.2.0
+     */
+    final class Version {
+
+        private StringDictionary dictionary;
+
+        /**
+         * 行数，包括已删除的行。
+         */
+        private int rowCount;
+
+        /**
+         * 已删除的行数。
+         */
+        private int deletedCount;
+
+        private byte[] flags;
+        private DeletedRowSet deletedRows;
+
+        /**
+         * 主键的高 64 位，主键不是规范格式的 UUID 时，为其在不规范主键数组中的序号。
+         */
+        private long[] keyMostSigBits;
+        private long[] keyLeastSigBits;
+
+        private String[] irregularKeys;
+        private int irregularKeyCount;
+
+        private int[] toolCutterTypes;
+        private int[] devices;
+        private int[] consumingQuantities;
+
+        /**
+         * 以分为单位的价值，价值无法无损转换时，为其在溢出价值数组中的序号。
+         */
+        private long[] worthCents;
+        private byte[] worthScales;
+
+        private BigDecimal[] overflowWorths;
+        private int overflowWorthCount;
+
+        private int[] consumingPersons;
+        private long[] consumingDateMillis;
+        private String[] remarks;
+        private int[] toolCutterCodes;
+        private int[] returningQuantities;
+        private int[] returningUsageInfos;
+        private int[] consumingDays;
+
+        /**
+         * 领用年月，取值为年份乘以 12 再加上从 0 开始的月份，与统计结果中的年月一致。
+         */
+        private int[] yearMonths;
+
+        /**
+         * 主键散列表，开放寻址，线性探测，保存行号加 1，0 表示空槽。
+         */
+        private int[] keyTable;
+
+        private RowIndex toolCutterTypeIndex;
+        private RowIndex deviceIndex;
+        private RowIndex consumingPersonIndex;
+        private RowIndex toolCutterCodeIndex;
+        private RowIndex yearMonthIndex;
+
+        private Version() {
+            dictionary = new StringDictionary();
+            rowCount = 0;
+            deletedCount = 0;
+            flags = new byte[0];
+            deletedRows = new DeletedRowSet(0);
+            keyMostSigBits = new long[0];
+            keyLeastSigBits = new long[0];
+            irregularKeys = new String[0];
+            irregularKeyCount = 0;
+            toolCutterTypes = new int[0];
+            devices = new int[0];
+            consumingQuantities = new int[0];
+            worthCents = new long[0];
+            worthScales = new byte[0];
+            overflowWorths = new BigDecimal[0];
+            overflowWorthCount = 0;
+            consumingPersons = new int[0];
+            consumingDateMillis = new long[0];
+            remarks = new String[0];
+            toolCutterCodes = new int[0];
+            returningQuantities = new int[0];
+            returningUsageInfos = new int[0];
+            consumingDays = new int[0];
+            yearMonths = new int[0];
+            keyTable = new int[MIN_CAPACITY];
+            toolCutterTypeIndex = new RowIndex();
+            deviceIndex = new RowIndex();
+            consumingPersonIndex = new RowIndex();
+            toolCutterCodeIndex = new RowIndex();
+            yearMonthIndex = new RowIndex();
+        }
+
+        /**
+         * 创建与指定版本共享数组的版本。
+         */
+        private Version(Version version) {
+            dictionary = version.dictionary;
+            rowCount = version.rowCount;
+            deletedCount = version.deletedCount;
+            flags = version.flags;
+            deletedRows = version.deletedRows;
+            keyMostSigBits = version.keyMostSigBits;
+            keyLeastSigBits = version.keyLeastSigBits;
+            irregularKeys = version.irregularKeys;
+            irregularKeyCount = version.irregularKeyCount;
+            toolCutterTypes = version.toolCutterTypes;
+            devices = version.devices;
+            consumingQuantities = version.consumingQuantities;
+            worthCents = version.worthCents;
+            worthScales = version.worthScales;
+            overflowWorths = version.overflowWorths;
+            overflowWorthCount = version.overflowWorthCount;
+            consumingPersons = version.consumingPersons;
+            consumingDateMillis = version.consumingDateMillis;
+            remarks = version.remarks;
+            toolCutterCodes = version.toolCutterCodes;
+            returningQuantities = version.returningQuantities;
+            returningUsageInfos = version.returningUsageInfos;
+            consumingDays = version.consumingDays;
+            yearMonths = version.yearMonths;
+            keyTable = version.keyTable;
+            toolCutterTypeIndex = version.toolCutterTypeIndex;
+            deviceIndex = version.deviceIndex;
+            consumingPersonIndex = version.consumingPersonIndex;
+            toolCutterCodeIndex = version.toolCutterCodeIndex;
+            yearMonthIndex = version.yearMonthIndex;
+        }
+
+        public int size() {
+            return rowCount - deletedCount;
+        }
+
+        public boolean contains(UuidKey key) {
+            return indexOf(new KeyProbe(key)) >= 0;
+        }
+
+        /**
+         * 获取指定主键对应的消耗详细信息。
+         *
+         * @param key 指定的主键。
+         * @return 新创建的消耗详细信息，不存在时返回 <code>null</code>。
+         */
+        public ConsumingDetail get(UuidKey key) {
+            int row = indexOf(new KeyProbe(key));
+            return row < 0 ? null : toConsumingDetail(row);
+        }
+
+        public List<ConsumingDetail> toList() {
+            return toList(0, size());
+        }
+
+        /**
+         * 获取指定范围内的数据。
+         *
+         * <p>
+         * 没有已删除的行时，行号即为数据在插入顺序中的位置，否则通过已删除的行的集合在 O(log n) 的时间内定位起始的行，
+         * 之后只访问指定范围内的行以及其间已删除的行。
+         *
+         * @param fromIndex 起始位置（包含），超出范围时取最接近的边界。
+         * @param toIndex   结束位置（不包含），超出范围时取最接近的边界。
+         * @return 指定范围内新创建的消耗详细信息，按照插入的顺序排列。
+         */
+        public List<ConsumingDetail> toList(long fromIndex, long toIndex) {
+            int size = size();
+            int beginIndex = (int) Math.max(0, Math.min(fromIndex, size));
+            int endIndex = (int) Math.max(beginIndex, Math.min(toIndex, size));
+            List<ConsumingDetail> result = new ArrayList<>(endIndex - beginIndex);
+            int row = rowOf(beginIndex);
+            for (int index = beginIndex; index < endIndex; row++) {
+                if (isDeleted(row)) {
+                    continue;
+                }
+                result.add(toConsumingDetail(row));
+                index++;
+            }
+            return result;
+        }
+
+        public List<ConsumingDetail> lookupByToolCutterType(String toolCutterType) {
+            return lookup(toolCutterTypeIndex, dictionary.codeOf(toolCutterType));
+        }
+
+        public List<ConsumingDetail> lookupByDevice(String device) {
+            return lookup(deviceIndex, dictionary.codeOf(device));
+        }
+
+        public List<ConsumingDetail> lookupByConsumingPerson(String consumingPerson) {
+            return lookup(consumingPersonIndex, dictionary.codeOf(consumingPerson));
+        }
+
+        public List<ConsumingDetail> lookupByToolCutterCode(String toolCutterCode) {
+            return lookup(toolCutterCodeIndex, dictionary.codeOf(toolCutterCode));
+        }
+
+        /**
+         * 查询指定年月领用的数据。
+         *
+         * @param year  年份。
+         * @param month 月份，从 0 开始，与统计结果中的月份一致。
+         * @return 指定年月领用的数据，按照插入的顺序排列。
+         */
+        public List<ConsumingDetail> lookupByYearMonth(int year, int month) {
+            return lookup(yearMonthIndex, year * 12 + month);
+        }
+
+        /**
+         * 按照插入的顺序扫描所有的数据。
+         *
+         * @param consumer 数据的消费者，游标依次指向每一条数据。
+         */
+        public void scan(Consumer<? super ConsumingDetailCursor> consumer) {
+            Cursor cursor = new Cursor();
+            int index = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (isDeleted(row)) {
+                    continue;
+                }
+                cursor.index = index++;
+                cursor.row = row;
+                consumer.accept(cursor);
+            }
+        }
+
+        private boolean isDeleted(int row) {
+            return deletedRows.contains(row);
+        }
+
+        private int rowOf(int index) {
+            if (deletedCount == 0) {
+                return index;
+            }
+            if (index >= size()) {
+                return rowCount;
+            }
+            return deletedRows.select(index);
+        }
+
+        private List<ConsumingDetail> lookup(RowIndex index, int value) {
+            RowList rowList = index.get(value);
+            if (Objects.isNull(rowList)) {
+                return new ArrayList<>();
+            }
+            // 先读取数量再读取数组，见行号列表的说明。
+            int rowListSize = rowList.size;
+            int[] rows = rowList.rows;
+            List<ConsumingDetail> result = new ArrayList<>();
+            for (int i = 0; i < rowListSize; i++) {
+                int row = rows[i];
+                // 行号按升序排列，之后的行均是该版本发布之后追加的。
+                if (row >= rowCount) {
+                    break;
+                }
+                if (isDeleted(row)) {
+                    continue;
+                }
+                result.add(toConsumingDetail(row));
+            }
+            return result;
+        }
+
+        private ConsumingDetail toConsumingDetail(int row) {
+            byte flag = flags[row];
+            return new ConsumingDetail(
+                    keyOf(row), dictionary.decode(toolCutterTypes[row]), dictionary.decode(devices[row]),
+                    (flag & FLAG_NULL_CONSUMING_QUANTITY) != 0 ? null : consumingQuantities[row], worthOf(row),
+                    dictionary.decode(consumingPersons[row]),
+                    (flag & FLAG_NULL_CONSUMING_DATE) != 0 ? null : new Date(consumingDateMillis[row]), remarks[row],
+                    dictionary.decode(toolCutterCodes[row]),
+                    (flag & FLAG_NULL_RETURNING_QUANTITY) != 0 ? null : returningQuantities[row],
+                    dictionary.decode(returningUsageInfos[row]),
+                    (flag & FLAG_NULL_CONSUMING_DAY) != 0 ? null : consumingDays[row]
+            );
+        }
+
+        private UuidKey keyOf(int row) {
+            if ((flags[row] & FLAG_IRREGULAR_KEY) != 0) {
+                return new UuidKey(irregularKeys[(int) keyMostSigBits[row]]);
+            }
+            return new UuidKey(toUuidString(keyMostSigBits[row], keyLeastSigBits[row]));
+        }
+
+        private BigDecimal worthOf(int row) {
+            byte scale = worthScales[row];
+            switch (scale) {
+                case WORTH_SCALE_NULL:
+                    return null;
+                case WORTH_SCALE_OVERFLOW:
+                    return overflowWorths[(int) worthCents[row]];
+                default:
+                    return BigDecimal.valueOf(worthCents[row] / WORTH_SCALE_FACTORS[scale], scale);
+            }
+        }
+
+        private int indexOf(KeyProbe probe) {
+            int mask = keyTable.length - 1;
+            for (int slot = probe.hash & mask; ; slot = (slot + 1) & mask) {
+                // 散列表可能正在被写入者追加，每个槽只读取一次。
+                int entry = keyTable[slot];
+                if (entry == 0) {
+                    return -1;
+                }
+                int row = entry - 1;
+                if (row < rowCount && !isDeleted(row) && keyEquals(row, probe)) {
+                    return row;
+                }
+            }
+        }
+
+        private boolean keyEquals(int row, KeyProbe probe) {
+            boolean irregular = (flags[row] & FLAG_IRREGULAR_KEY) != 0;
+            if (irregular != probe.irregular) {
+                return false;
+            }
+            if (irregular) {
+                return Objects.equals(irregularKeys[(int) keyMostSigBits[row]], probe.uuid);
+            }
+            return keyMostSigBits[row] == probe.mostSigBits && keyLeastSigBits[row] == probe.leastSigBits;
+        }
+
+        private UuidKey append(KeyProbe probe, ConsumingDetail consumingDetail) {
+            ensureCapacity(rowCount + 1);
+            int row = rowCount++;
+            writeKey(row, probe);
+            writeValues(row, consumingDetail);
+            if (rowCount * 2 > keyTable.length) {
+                rebuildKeyTable();
+            } else {
+                insertKeyTable(row, probe.hash);
+            }
+            indexRow(row);
+            return keyOf(row);
+        }
+
+        private UuidKey overwrite(int row, ConsumingDetail consumingDetail) {
+            releaseWorth(row);
+            int toolCutterType = toolCutterTypes[row];
+            int device = devices[row];
+            int consumingPerson = consumingPersons[row];
+            int toolCutterCode = toolCutterCodes[row];
+            int yearMonth = yearMonths[row];
+            writeValues(row, consumingDetail);
+            toolCutterTypeIndex.move(row, toolCutterType, toolCutterTypes[row]);
+            deviceIndex.move(row, device, devices[row]);
+            consumingPersonIndex.move(row, consumingPerson, consumingPersons[row]);
+            toolCutterCodeIndex.move(row, toolCutterCode, toolCutterCodes[row]);
+            yearMonthIndex.move(row, yearMonth, yearMonths[row]);
+            return keyOf(row);
+        }
+
+        private void markDeleted(int row) {
+            deletedRows.add(row);
+            deletedCount++;
+        }
+
+        /**
+         * 移除已删除的行。
+         *
+         * <p>
+         * 不规范主键与溢出价值的数组只会追加，删除与覆盖数据留下的空位在此一并移除。
+         */
+        private void compact() {
+            // 将保留的行依次前移，保持插入的顺序。
+            int writeRow = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (isDeleted(row)) {
+                    continue;
+                }
+                if (writeRow != row) {
+                    moveRow(row, writeRow);
+                }
+                writeRow++;
+            }
+            Arrays.fill(remarks, writeRow, rowCount, null);
+            rowCount = writeRow;
+            deletedCount = 0;
+            deletedRows = new DeletedRowSet(flags.length);
+            compactIrregularKeys();
+            compactOverflowWorths();
+            rebuildKeyTable();
+            rebuildIndexes();
+        }
+
+        private void compactIrregularKeys() {
+            String[] compactedKeys = new String[irregularKeyCount];
+            int compactedCount = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if ((flags[row] & FLAG_IRREGULAR_KEY) != 0) {
+                    compactedKeys[compactedCount] = irregularKeys[(int) keyMostSigBits[row]];
+                    keyMostSigBits[row] = compactedCount++;
+                }
+            }
+            irregularKeys = Arrays.copyOf(compactedKeys, compactedCount);
+            irregularKeyCount = compactedCount;
+        }
+
+        private void compactOverflowWorths() {
+            BigDecimal[] compactedWorths = new BigDecimal[overflowWorthCount];
+            int compactedCount = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (worthScales[row] == WORTH_SCALE_OVERFLOW) {
+                    compactedWorths[compactedCount] = overflowWorths[(int) worthCents[row]];
+                    worthCents[row] = compactedCount++;
+                }
+            }
+            overflowWorths = Arrays.copyOf(compactedWorths, compactedCount);
+            overflowWorthCount = compactedCount;
+        }
+
+        private void unshareDeletedRows() {
+            deletedRows = new DeletedRowSet(deletedRows, 0);
+        }
+
+        /**
+         * 复制各列的数组与二级索引，使之后的修改不影响共享这些数组的版本。
+         *
+         * <p>
+         * 主键散列表只会被追加或者整体重建，无需复制。
+         */
+        private void unshare() {
+            int capacity = flags.length;
+            flags = Arrays.copyOf(flags, capacity);
+            keyMostSigBits = Arrays.copyOf(keyMostSigBits, capacity);
+            keyLeastSigBits = Arrays.copyOf(keyLeastSigBits, capacity);
+            irregularKeys = Arrays.copyOf(irregularKeys, irregularKeys.length);
+            toolCutterTypes = Arrays.copyOf(toolCutterTypes, capacity);
+            devices = Arrays.copyOf(devices, capacity);
+            consumingQuantities = Arrays.copyOf(consumingQuantities, capacity);
+            worthCents = Arrays.copyOf(worthCents, capacity);
+            worthScales = Arrays.copyOf(worthScales, capacity);
+            overflowWorths = Arrays.copyOf(overflowWorths, overflowWorths.length);
+            consumingPersons = Arrays.copyOf(consumingPersons, capacity);
+            consumingDateMillis = Arrays.copyOf(consumingDateMillis, capacity);
+            remarks = Arrays.copyOf(remarks, capacity);
+            toolCutterCodes = Arrays.copyOf(toolCutterCodes, capacity);
+            returningQuantities = Arrays.copyOf(returningQuantities, capacity);
+            returningUsageInfos = Arrays.copyOf(returningUsageInfos, capacity);
+            consumingDays = Arrays.copyOf(consumingDays, capacity);
+            yearMonths = Arrays.copyOf(yearMonths, capacity);
+            toolCutterTypeIndex = new RowIndex(toolCutterTypeIndex);
+            deviceIndex = new RowIndex(deviceIndex);
+            consumingPersonIndex = new RowIndex(consumingPersonIndex);
+            toolCutterCodeIndex = new RowIndex(toolCutterCodeIndex);
+            yearMonthIndex = new RowIndex(yearMonthIndex);
+        }
+
+        private void writeKey(int row, KeyProbe probe) {
+            if (probe.irregular) {
+                if (irregularKeyCount == irregularKeys.length) {
+                    irregularKeys = Arrays.copyOf(
+                            irregularKeys, grownCapacity(irregularKeys.length, irregularKeyCount + 1)
+                    );
+                }
+                flags[row] = FLAG_IRREGULAR_KEY;
+                keyMostSigBits[row] = irregularKeyCount;
+                keyLeastSigBits[row] = 0;
+                irregularKeys[irregularKeyCount++] = probe.uuid;
+            } else {
+                flags[row] = 0;
+                keyMostSigBits[row] = probe.mostSigBits;
+                keyLeastSigBits[row] = probe.leastSigBits;
+            }
+        }
+
+        private void writeValues(int row, ConsumingDetail consumingDetail) {
+            byte flag = (byte) (flags[row] & FLAG_IRREGULAR_KEY);
+
+            toolCutterTypes[row] = dictionary.encode(consumingDetail.getToolCutterType());
+            devices[row] = dictionary.encode(consumingDetail.getDevice());
+            consumingPersons[row] = dictionary.encode(consumingDetail.getConsumingPerson());
+            toolCutterCodes[row] = dictionary.encode(consumingDetail.getToolCutterCode());
+            returningUsageInfos[row] = dictionary.encode(consumingDetail.getReturningUsageInfo());
+            remarks[row] = consumingDetail.getRemark();
+
+            Integer consumingQuantity = consumingDetail.getConsumingQuantity();
+            if (Objects.isNull(consumingQuantity)) {
+                flag |= FLAG_NULL_CONSUMING_QUANTITY;
+                consumingQuantities[row] = 0;
+            } else {
+                consumingQuantities[row] = consumingQuantity;
+            }
+            Integer returningQuantity = consumingDetail.getReturningQuantity();
+            if (Objects.isNull(returningQuantity)) {
+                flag |= FLAG_NULL_RETURNING_QUANTITY;
+                returningQuantities[row] = 0;
+            } else {
+                returningQuantities[row] = returningQuantity;
+            }
+            Integer consumingDay = consumingDetail.getConsumingDay();
+            if (Objects.isNull(consumingDay)) {
+                flag |= FLAG_NULL_CONSUMING_DAY;
+                consumingDays[row] = 0;
+            } else {
+                consumingDays[row] = consumingDay;
+            }
+            Date consumingDate = consumingDetail.getConsumingDate();
+            if (Objects.isNull(consumingDate)) {
+                flag |= FLAG_NULL_CONSUMING_DATE;
+                consumingDateMillis[row] = 0;
+            } else {
+                consumingDateMillis[row] = consumingDate.getTime();
+            }
+            flags[row] = flag;
+            yearMonths[row] = yearMonthOf(consumingDay, consumingDate);
+
+            writeWorth(row, consumingDetail.getWorth());
+        }
+
+        private void writeWorth(int row, BigDecimal worth) {
+            if (Objects.isNull(worth)) {
+                worthScales[row] = WORTH_SCALE_NULL;
+                worthCents[row] = 0;
+                return;
+            }
+            int scale = worth.scale();
+            if (scale >= 0 && scale <= WORTH_SCALE_CENTS &&
+                    worth.unscaledValue().bitLength() <= WORTH_MAX_UNSCALED_BIT_LENGTH) {
+                worthScales[row] = (byte) scale;
+                worthCents[row] = worth.unscaledValue().longValue() * WORTH_SCALE_FACTORS[scale];
+                return;
+            }
+            if (overflowWorthCount == overflowWorths.length) {
+                overflowWorths = Arrays.copyOf(
+                        overflowWorths, grownCapacity(overflowWorths.length, overflowWorthCount + 1)
+                );
+            }
+            worthScales[row] = WORTH_SCALE_OVERFLOW;
+            worthCents[row] = overflowWorthCount;
+            overflowWorths[overflowWorthCount++] = worth;
+        }
+
+        private void releaseWorth(int row) {
+            if (worthScales[row] == WORTH_SCALE_OVERFLOW) {
+                overflowWorths[(int) worthCents[row]] = null;
+            }
+        }
+
+        private void moveRow(int from, int to) {
+            flags[to] = flags[from];
+            keyMostSigBits[to] = keyMostSigBits[from];
+            keyLeastSigBits[to] = keyLeastSigBits[from];
+            toolCutterTypes[to] = toolCutterTypes[from];
+            devices[to] = devices[from];
+            consumingQuantities[to] = consumingQuantities[from];
+            worthCents[to] = worthCents[from];
+            worthScales[to] = worthScales[from];
+            consumingPersons[to] = consumingPersons[from];
+            consumingDateMillis[to] = consumingDateMillis[from];
+            remarks[to] = remarks[from];
+            toolCutterCodes[to] = toolCutterCodes[from];
+            returningQuantities[to] = returningQuantities[from];
+            returningUsageInfos[to] = returningUsageInfos[from];
+            consumingDays[to] = consumingDays[from];
+            yearMonths[to] = yearMonths[from];
+        }
+
+        private void ensureCapacity(int minCapacity) {
+            int capacity = flags.length;
+            if (minCapacity <= capacity) {
+                return;
+            }
+            int newCapacity = grownCapacity(capacity, minCapacity);
+            flags = Arrays.copyOf(flags, newCapacity);
+            keyMostSigBits = Arrays.copyOf(keyMostSigBits, newCapacity);
+            keyLeastSigBits = Arrays.copyOf(keyLeastSigBits, newCapacity);
+            toolCutterTypes = Arrays.copyOf(toolCutterTypes, newCapacity);
+            devices = Arrays.copyOf(devices, newCapacity);
+            consumingQuantities = Arrays.copyOf(consumingQuantities, newCapacity);
+            worthCents = Arrays.copyOf(worthCents, newCapacity);
+            worthScales = Arrays.copyOf(worthScales, newCapacity);
+            consumingPersons = Arrays.copyOf(consumingPersons, newCapacity);
+            consumingDateMillis = Arrays.copyOf(consumingDateMillis, newCapacity);
+            remarks = Arrays.copyOf(remarks, newCapacity);
+            toolCutterCodes = Arrays.copyOf(toolCutterCodes, newCapacity);
+            returningQuantities = Arrays.copyOf(returningQuantities, newCapacity);
+            returningUsageInfos = Arrays.copyOf(returningUsageInfos, newCapacity);
+            consumingDays = Arrays.copyOf(consumingDays, newCapacity);
+            yearMonths = Arrays.copyOf(yearMonths, newCapacity);
+            deletedRows = new DeletedRowSet(deletedRows, newCapacity);
+        }
+
+        private void insertKeyTable(int row, int hash) {
+            int mask = keyTable.length - 1;
+            int slot = hash & mask;
+            while (keyTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keyTable[slot] = row + 1;
+        }
+
+        private void rebuildKeyTable() {
+            // 散列表的负载因子保持在 0.5 以下，重建时总是创建新的数组，不影响已经发布的版本。
+            int capacity = MIN_CAPACITY;
+            while (capacity < rowCount * 2) {
+                capacity <<= 1;
+            }
+            keyTable = new int[capacity];
+            for (int row = 0; row < rowCount; row++) {
+                if (!isDeleted(row)) {
+                    insertKeyTable(row, rowHash(row));
+                }
+            }
+        }
+
+        private int rowHash(int row) {
+            if ((flags[row] & FLAG_IRREGULAR_KEY) != 0) {
+                return irregularHash(irregularKeys[(int) keyMostSigBits[row]]);
+            }
+            return regularHash(keyMostSigBits[row], keyLeastSigBits[row]);
+        }
+
+        private void indexRow(int row) {
+            toolCutterTypeIndex.add(toolCutterTypes[row], row);
+            deviceIndex.add(devices[row], row);
+            consumingPersonIndex.add(consumingPersons[row], row);
+            toolCutterCodeIndex.add(toolCutterCodes[row], row);
+            yearMonthIndex.add(yearMonths[row], row);
+        }
+
+        private void rebuildIndexes() {
+            toolCutterTypeIndex = new RowIndex();
+            deviceIndex = new RowIndex();
+            consumingPersonIndex = new RowIndex();
+            toolCutterCodeIndex = new RowIndex();
+            yearMonthIndex = new RowIndex();
+            for (int row = 0; row < rowCount; row++) {
+                indexRow(row);
+            }
+        }
+
+        private final class Cursor implements ConsumingDetailCursor {
+
+            private int index;
+            private int row;
+
+            @Override
+            public int getIndex() {
+                return index;
+            }
+
+            @Override
+            public int getCount() {
+                return size();
+            }
+
+            @Override
+            public UuidKey getKey() {
+                return keyOf(row);
+            }
+
+            @Override
+            public String getToolCutterType() {
+                return dictionary.decode(toolCutterTypes[row]);
+            }
+
+            @Override
+            public String getDevice() {
+                return dictionary.decode(devices[row]);
+            }
+
+            @Override
+            public boolean hasConsumingQuantity() {
+                return (flags[row] & FLAG_NULL_CONSUMING_QUANTITY) == 0;
+            }
+
+            @Override
+            public int getConsumingQuantity() {
+                return consumingQuantities[row];
+            }
+
+            @Override
+            public boolean hasWorth() {
+                return worthScales[row] != WORTH_SCALE_NULL;
+            }
+
+            @Override
+            public boolean isWorthInCents() {
+                return worthScales[row] >= 0;
+            }
+
+            @Override
+            public long getWorthInCents() {
+                return isWorthInCents() ? worthCents[row] : 0;
+            }
+
+            @Override
+            public int getWorthScale() {
+                return isWorthInCents() ? worthScales[row] : 0;
+            }
+
+            @Override
+            public BigDecimal getWorth() {
+                return worthOf(row);
+            }
+
+            @Override
+            public String getConsumingPerson() {
+                return dictionary.decode(consumingPersons[row]);
+            }
+
+            @Override
+            public boolean hasConsumingDate() {
+                return (flags[row] & FLAG_NULL_CONSUMING_DATE) == 0;
+            }
+
+            @Override
+            public long getConsumingDateMillis() {
+                return consumingDateMillis[row];
+            }
+
+            @Override
+            public String getRemark() {
+                return remarks[row];
+            }
+
+            @Override
+            public String getToolCutterCode() {
+                return dictionary.decode(toolCutterCodes[row]);
+            }
+
+            @Override
+            public boolean hasReturningQuantity() {
+                return (flags[row] & FLAG_NULL_RETURNING_QUANTITY) == 0;
+            }
+
+            @Override
+            public int getReturningQuantity() {
+                return returningQuantities[row];
+            }
+
+            @Override
+            public String getReturningUsageInfo() {
+                return dictionary.decode(returningUsageInfos[row]);
+            }
+
+            @Override
+            public boolean hasConsumingDay() {
+                return (flags[row] & FLAG_NULL_CONSUMING_DAY) == 0;
+            }
+
+            @Override
+            public int getConsumingDay() {
+                return consumingDays[row];
+            }
+
+            @Override
+            public ConsumingDetail toConsumingDetail() {
+                return Version.this.toConsumingDetail(row);
+            }
+        }
+    }
+
+    /**
+     * 主键探针。
+     *
+     * <p>
+     * 解析主键的字符串：只有与 {@link UUID#toString()} 格式完全一致的字符串才视为规范的 UUID，
+     * 以保证保存后还原的字符串与原来的字符串相同。
+     */
+    private static final class KeyProbe {
+
+        private final String uuid;
+        private final boolean irregular;
+        private final long mostSigBits;
+        private final long leastSigBits;
+        private final int hash;
+
+        private KeyProbe(UuidKey key) {
+            this.uuid = key.getUuid();
+            if (isCanonicalUuid(uuid)) {
+                this.irregular = false;
+                this.mostSigBits = parseHex(uuid, 0, 8) << 32 | parseHex(uuid, 9, 13) << 16 |
+                        parseHex(uuid, 14, 18);
+                this.leastSigBits = parseHex(uuid, 19, 23) << 48 | parseHex(uuid, 24, 36);
+                this.hash = regularHash(mostSigBits, leastSigBits);
+            } else {
+                this.irregular = true;
+                this.mostSigBits = 0;
+                this.leastSigBits = 0;
+                this.hash = irregularHash(uuid);
+            }
+        }
+
+        private static boolean isCanonicalUuid(String uuid) {
+            if (Objects.isNull(uuid) || uuid.length() != 36) {
+                return false;
+            }
+            for (int i = 0; i < 36; i++) {
+                char c = uuid.charAt(i);
+                if (i == 8 || i == 13 || i == 18 || i == 23) {
+                    if (c != '-') {
+                        return false;
+                    }
+                } else if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long parseHex(String uuid, int beginIndex, int endIndex) {
+            long value = 0;
+            for (int i = beginIndex; i < endIndex; i++) {
+                value = value << 4 | Character.digit(uuid.charAt(i), 16);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 二级索引。
+     *
+     * <p>
+     * 将字段的取值（字典编码或者领用年月）映射到行号列表。映射是线程安全的，读取者可以在写入者追加数据的同时读取。
+     */
+    private static final class RowIndex {
+
+        private final Map<Integer, RowList> rowListMap;
+
+        private RowIndex() {
+            rowListMap = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * 复制指定的二级索引，行号列表一并复制。
+         */
+        private RowIndex(RowIndex rowIndex) {
+            rowListMap = new ConcurrentHashMap<>(rowIndex.rowListMap.size());
+            rowIndex.rowListMap.forEach((value, rowList) -> rowListMap.put(value, new RowList(rowList)));
+        }
+
+        private RowList get(int value) {
+            return rowListMap.get(value);
+        }
+
+        private void add(int value, int row) {
+            RowList rowList = rowListMap.get(value);
+            if (Objects.isNull(rowList)) {
+                rowList = new RowList();
+                rowList.add(row);
+                rowListMap.put(value, rowList);
+            } else {
+                rowList.add(row);
+            }
+        }
+
+        private void move(int row, int oldValue, int newValue) {
+            if (oldValue == newValue) {
+                return;
+            }
+            RowList rowList = rowListMap.get(oldValue);
+            if (Objects.nonNull(rowList)) {
+                rowList.remove(row);
+                if (rowList.size == 0) {
+                    rowListMap.remove(oldValue);
+                }
+            }
+            add(newValue, row);
+        }
+    }
+
+    /**
+     * 按升序排列的行号列表。
+     *
+     * <p>
+     * 在末尾追加行号时，先写入数组再增加数量；读取者先读取数量再读取数组，因此总能读取到完整的行号。
+     * 在中间插入或者删除行号会影响读取者，只能在复制之后的列表上进行。
+     */
+    private static final class RowList {
+
+        private volatile int[] rows;
+        private volatile int size;
+
+        private RowList() {
+            rows = new int[4];
+            size = 0;
+        }
+
+        private RowList(RowList rowList) {
+            int rowListSize = rowList.size;
+            rows = Arrays.copyOf(rowList.rows, Math.max(rowListSize, 4));
+            size = rowListSize;
+        }
+
+        private void add(int row) {
+            int[] currentRows = rows;
+            int currentSize = size;
+            if (currentSize == currentRows.length) {
+                currentRows = Arrays.copyOf(currentRows, currentSize + (currentSize >> 1));
+                rows = currentRows;
+            }
+            // 新增的行总是位于末尾，只有更新数据时才需要插入到中间。
+            if (currentSize == 0 || currentRows[currentSize - 1] < row) {
+                currentRows[currentSize] = row;
+                size = currentSize + 1;
+                return;
+            }
+            int index = Arrays.binarySearch(currentRows, 0, currentSize, row);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            System.arraycopy(currentRows, index, currentRows, index + 1, currentSize - index);
+            currentRows[index] = row;
+            size = currentSize + 1;
+        }
+
+        private void remove(int row) {
+            int[] currentRows = rows;
+            int currentSize = size;
+            int index = Arrays.binarySearch(currentRows, 0, currentSize, row);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(currentRows, index + 1, currentRows, index, currentSize - index - 1);
+            size = currentSize - 1;
+        }
+    }
+}
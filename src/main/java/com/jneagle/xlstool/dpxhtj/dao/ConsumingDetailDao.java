@@ -3,14 +3,106 @@ package com.jneagle.xlstool.dpxhtj.dao;
 import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
 import com.dwarfeng.subgrade.stack.dao.BatchBaseDao;
 import com.dwarfeng.subgrade.stack.dao.EntireLookupDao;
+import com.dwarfeng.subgrade.stack.exception.DaoException;
 import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.structure.ConsumingDetailCursor;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 消耗详细信息数据访问层。
  *
+ * <p>
+ * 查询返回的消耗详细信息均为新创建的实体，修改返回的实体不会影响保存的数据。
+ * 需要遍历所有数据时，应使用 {@link #scan(Consumer)}，避免为每条数据创建实体；
+ * 按照领用人、设备、刀具类型、刀具编号或者领用年月查询时，应使用对应的查询方法，避免遍历所有数据。
+ *
+ * <p>
+ * 批量删除时忽略不存在的主键，存在的数据在一次写入中全部删除。
+ *
  * @author DwArFeng
  * @since 1.0.0
  */
 public interface ConsumingDetailDao extends BatchBaseDao<UuidKey, ConsumingDetail>,
-        EntireLookupDao<ConsumingDetail>, ClearableDao {
+        EntireLookupDao<ConsumingDetail>, ClearableDao, LockWaitMeasurableDao {
+
+    /**
+     * 按照插入的顺序扫描所有的消耗详细信息。
+     *
+     * <p>
+     * 扫描的是开始扫描时的数据，扫描期间的写入不会被扫描到，也不会被扫描阻塞。
+     *
+     * @param consumer 数据的消费者，游标依次指向每一条数据。
+     * @throws DaoException 数据访问层异常。
+     * @since 1.2.0
+     */
+    void scan(Consumer<? super ConsumingDetailCursor> consumer) throws DaoException;
+
+    /**
+     * 查询指定刀具类型的消耗详细信息。
+     *
+     * <p>
+     * 查询通过二级索引进行，耗时与结果的数量成正比。
+     *
+     * @param toolCutterType 指定的刀具类型，可以为 <code>null</code>。
+     * @return 指定刀具类型的消耗详细信息，按照插入的顺序排列。
+     * @throws DaoException 数据访问层异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByToolCutterType(String toolCutterType) throws DaoException;
+
+    /**
+     * 查询指定设备的消耗详细信息。
+     *
+     * <p>
+     * 查询通过二级索引进行，耗时与结果的数量成正比。
+     *
+     * @param device 指定的设备，可以为 <code>null</code>。
+     * @return 指定设备的消耗详细信息，按照插入的顺序排列。
+     * @throws DaoException 数据访问层异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByDevice(String device) throws DaoException;
+
+    /**
+     * 查询指定领用人的消耗详细信息。
+     *
+     * <p>
+     * 查询通过二级索引进行，耗时与结果的数量成正比。
+     *
+     * @param consumingPerson 指定的领用人，可以为 <code>null</code>。
+     * @return 指定领用人的消耗详细信息，按照插入的顺序排列。
+     * @throws DaoException 数据访问层异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByConsumingPerson(String consumingPerson) throws DaoException;
+
+    /**
+     * 查询指定刀具编号的消耗详细信息。
+     *
+     * <p>
+     * 查询通过二级索引进行，耗时与结果的数量成正比。
+     *
+     * @param toolCutterCode 指定的刀具编号，可以为 <code>null</code>。
+     * @return 指定刀具编号的消耗详细信息，按照插入的顺序排列。
+     * @throws DaoException 数据访问层异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByToolCutterCode(String toolCutterCode) throws DaoException;
+
+    /**
+     * 查询指定年月领用的消耗详细信息。
+     *
+     * <p>
+     * 领用年月优先由日序号计算，日序号为 <code>null</code> 时由领用日期计算，与统计结果中的年月一致。
+     * 查询通过二级索引进行，耗时与结果的数量成正比。
+     *
+     * @param year  年份。
+     * @param month 月份，从 0 开始，与统计结果中的月份一致。
+     * @return 指定年月领用的消耗详细信息，按照插入的顺序排列。
+     * @throws DaoException 数据访问层异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByYearMonth(int year, int month) throws DaoException;
 }
@@ -5,183 +5,155 @@ import com.dwarfeng.subgrade.sdk.interceptor.analyse.SkipRecord;
 import com.dwarfeng.subgrade.stack.bean.dto.PagingInfo;
 import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
 import com.dwarfeng.subgrade.stack.exception.DaoException;
+import com.jneagle.xlstool.dpxhtj.bean.dto.LockWaitMetrics;
 import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
-import org.dozer.Mapper;
+import com.jneagle.xlstool.dpxhtj.structure.ConsumingDetailCursor;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 @Repository
 public class ConsumingDetailDaoImpl implements ConsumingDetailDao {
 
-    private final Mapper mapper;
+    /**
+     * 内存中保存的消耗详细信息，以列式存储，读取时按需构造实体。
+     *
+     * <p>
+     * 每次写入结束后发布新的版本，读取时直接访问当前的版本，不会被写入阻塞。
+     */
+    private final ConsumingDetailColumnarStore memory = new ConsumingDetailColumnarStore();
 
-    private final Map<UuidKey, ConsumingDetail> memory = new LinkedHashMap<>();
-
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-
-    public ConsumingDetailDaoImpl(Mapper mapper) {
-        this.mapper = mapper;
-    }
+    /**
+     * 写入操作之间互斥的锁，读取操作不获取锁。
+     */
+    private final MeteredLock lock = new MeteredLock();
 
     @Override
     @BehaviorAnalyse
     public void clear() {
-        lock.writeLock().lock();
+        lock.lock();
         try {
             memory.clear();
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public boolean exists(UuidKey key) {
-        lock.readLock().lock();
-        try {
-            return memory.containsKey(key);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return memory.current().contains(key);
     }
 
     @Override
     @BehaviorAnalyse
     public ConsumingDetail get(UuidKey key) throws DaoException {
-        lock.readLock().lock();
-        try {
-            return cloneBean(memory.get(key));
-        } finally {
-            lock.readLock().unlock();
-        }
+        return memory.current().get(key);
     }
 
     @Override
     @BehaviorAnalyse
     public UuidKey insert(ConsumingDetail element) throws DaoException {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            ConsumingDetail neoElement = cloneBean(element);
-            memory.put(neoElement.getKey(), neoElement);
-            return neoElement.getKey();
+            return memory.put(element);
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public void update(ConsumingDetail element) throws DaoException {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            ConsumingDetail neoElement = cloneBean(element);
-            memory.put(neoElement.getKey(), neoElement);
+            memory.put(element);
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public void delete(UuidKey key) {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            memory.keySet().remove(key);
+            memory.removeAll(Collections.singletonList(key));
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public boolean allExists(@SkipRecord List<UuidKey> keys) {
-        lock.readLock().lock();
-        try {
-            return memory.keySet().containsAll(keys);
-        } finally {
-            lock.readLock().unlock();
+        ConsumingDetailColumnarStore.Version version = memory.current();
+        for (UuidKey key : keys) {
+            if (!version.contains(key)) {
+                return false;
+            }
         }
+        return true;
     }
 
     @Override
     @BehaviorAnalyse
     public boolean nonExists(@SkipRecord List<UuidKey> keys) {
-        lock.readLock().lock();
-        try {
-            for (UuidKey key : keys) {
-                if (memory.containsKey(key)) {
-                    return false;
-                }
+        ConsumingDetailColumnarStore.Version version = memory.current();
+        for (UuidKey key : keys) {
+            if (version.contains(key)) {
+                return false;
             }
-            return true;
-        } finally {
-            lock.readLock().unlock();
         }
+        return true;
     }
 
     @Override
     @BehaviorAnalyse
     @SkipRecord
     public List<ConsumingDetail> batchGet(@SkipRecord List<UuidKey> keys) throws DaoException {
-        lock.readLock().lock();
-        try {
-            List<ConsumingDetail> result = new ArrayList<>();
-            for (UuidKey key : keys) {
-                ConsumingDetail consumingDetail = cloneBean(memory.get(key));
-                result.add(consumingDetail);
-            }
-            return result;
-        } finally {
-            lock.readLock().unlock();
+        ConsumingDetailColumnarStore.Version version = memory.current();
+        List<ConsumingDetail> result = new ArrayList<>();
+        for (UuidKey key : keys) {
+            result.add(version.get(key));
         }
+        return result;
     }
 
     @Override
     @BehaviorAnalyse
     @SkipRecord
     public List<UuidKey> batchInsert(@SkipRecord List<ConsumingDetail> elements) throws DaoException {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            List<UuidKey> result = new ArrayList<>();
-            for (ConsumingDetail element : elements) {
-                ConsumingDetail neoElement = cloneBean(element);
-                memory.put(neoElement.getKey(), neoElement);
-                result.add(neoElement.getKey());
-            }
-            return result;
+            return memory.putAll(elements);
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public void batchUpdate(@SkipRecord List<ConsumingDetail> elements) throws DaoException {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            for (ConsumingDetail element : elements) {
-                ConsumingDetail neoElement = cloneBean(element);
-                memory.put(neoElement.getKey(), neoElement);
-            }
+            memory.putAll(elements);
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public void batchDelete(@SkipRecord List<UuidKey> keys) {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            keys.forEach(memory.keySet()::remove);
+            memory.removeAll(keys);
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -189,53 +161,69 @@ public class ConsumingDetailDaoImpl implements ConsumingDetailDao {
     @BehaviorAnalyse
     @SkipRecord
     public List<ConsumingDetail> lookup() throws DaoException {
-        lock.readLock().lock();
-        try {
-            List<ConsumingDetail> result = new ArrayList<>();
-            for (ConsumingDetail consumingDetail : memory.values()) {
-                result.add(cloneBean(consumingDetail));
-            }
-            return result;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return memory.current().toList();
     }
 
     @Override
     @BehaviorAnalyse
     @SkipRecord
     public List<ConsumingDetail> lookup(PagingInfo pagingInfo) throws DaoException {
-        lock.readLock().lock();
-        try {
-            int beginIndex = pagingInfo.getPage() * pagingInfo.getRows();
-            int endIndex = beginIndex + pagingInfo.getRows();
-            List<ConsumingDetail> subList = new ArrayList<>(memory.values()).subList(beginIndex, endIndex);
-            List<ConsumingDetail> result = new ArrayList<>();
-            for (ConsumingDetail consumingDetail : subList) {
-                result.add(cloneBean(consumingDetail));
-            }
-            return result;
-        } finally {
-            lock.readLock().unlock();
-        }
+        // 以 long 计算索引，避免页码较大时溢出；超出范围的部分由存储截断，最后一页可以不满。
+        long beginIndex = (long) pagingInfo.getPage() * pagingInfo.getRows();
+        long endIndex = beginIndex + pagingInfo.getRows();
+        return memory.current().toList(beginIndex, endIndex);
+    }
+
+    @Override
+    @BehaviorAnalyse
+    public void scan(Consumer<? super ConsumingDetailCursor> consumer) {
+        memory.current().scan(consumer);
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByToolCutterType(String toolCutterType) {
+        return memory.current().lookupByToolCutterType(toolCutterType);
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByDevice(String device) {
+        return memory.current().lookupByDevice(device);
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByConsumingPerson(String consumingPerson) {
+        return memory.current().lookupByConsumingPerson(consumingPerson);
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByToolCutterCode(String toolCutterCode) {
+        return memory.current().lookupByToolCutterCode(toolCutterCode);
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByYearMonth(int year, int month) {
+        return memory.current().lookupByYearMonth(year, month);
     }
 
     @Override
     @BehaviorAnalyse
     public int lookupCount() {
-        lock.readLock().lock();
-        try {
-            return memory.size();
-        } finally {
-            lock.readLock().unlock();
-        }
+        return memory.current().size();
     }
 
-    private ConsumingDetail cloneBean(ConsumingDetail consumingDetail) throws DaoException {
-        try {
-            return mapper.map(consumingDetail, ConsumingDetail.class);
-        } catch (Exception e) {
-            throw new DaoException(e);
-        }
+    @Override
+    @BehaviorAnalyse
+    public LockWaitMetrics getLockWaitMetrics() {
+        return lock.getMetrics();
     }
 }
@@ -0,0 +1,103 @@
+package com.jneagle.xlstool.dpxhtj.dao;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 写时复制的内存。
+ *
+ * <p>
+ * 按照插入的顺序保存实体。写入时复制当前的版本，修改副本之后将其发布为新的版本；
+ * 已经发布的版本不会再被修改，读取时直接访问当前的版本，无需获取锁，也不会被写入阻塞。
+ *
+ * <p>
+ * 写入之间需要互斥。每次写入的耗时与数据的总量成正比，适用于数据量较小、按批写入的场景。
+ *
+ * @param <E> 实体的类型。
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class CopyOnWriteMemory<E> {
+
+    private volatile Version<E> version = new Version<>(new LinkedHashMap<>());
+
+    /**
+     * 获取当前的版本。
+     *
+     * <p>
+     * 需要多次读取时，应获取一次版本之后在该版本上读取，以保证读取的结果相互一致。
+     *
+     * @return 当前的版本。
+     */
+    public Version<E> current() {
+        return version;
+    }
+
+    /**
+     * 修改数据并发布新的版本。
+     *
+     * @param modification 对当前版本的副本进行的修改。
+     */
+    public void modify(Consumer<Map<UuidKey, E>> modification) {
+        Map<UuidKey, E> map = new LinkedHashMap<>(version.map);
+        modification.accept(map);
+        version = new Version<>(map);
+    }
+
+    public void clear() {
+        version = new Version<>(new LinkedHashMap<>());
+    }
+
+    /**
+     * 内存的版本。
+     *
+     * @param <E> 实体的类型。
+     * @author DwArFeng
+     * @since 1.2.0
+     */
+    public static final class Version<E> {
+
+        private final Map<UuidKey, E> map;
+
+        /**
+         * 按照插入的顺序排列的实体，用于分页查询。
+         */
+        private final List<E> values;
+
+        private Version(Map<UuidKey, E> map) {
+            this.map = map;
+            this.values = new ArrayList<>(map.values());
+        }
+
+        public boolean contains(UuidKey key) {
+            return map.containsKey(key);
+        }
+
+        public E get(UuidKey key) {
+            return map.get(key);
+        }
+
+        public int size() {
+            return values.size();
+        }
+
+        public List<E> toList() {
+            return new ArrayList<>(values);
+        }
+
+        /**
+         * 获取指定范围内的实体。
+         *
+         * @param fromIndex 起始位置（包含），超出范围时取最接近的边界。
+         * @param toIndex   结束位置（不包含），超出范围时取最接近的边界。
+         * @return 指定范围内的实体，按照插入的顺序排列。
+         */
+        public List<E> toList(long fromIndex, long toIndex) {
+            int beginIndex = (int) Math.max(0, Math.min(fromIndex, values.size()));
+            int endIndex = (int) Math.max(beginIndex, Math.min(toIndex, values.size()));
+            return new ArrayList<>(values.subList(beginIndex, endIndex));
+        }
+    }
+}
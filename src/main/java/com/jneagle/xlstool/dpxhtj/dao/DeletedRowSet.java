@@ -0,0 +1,137 @@
+package com.jneagle.xlstool.dpxhtj.dao;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 已删除的行的集合。
+ *
+ * <p>
+ * 以位图记录每一行是否已删除，并在位图的字（每个字 64 行）上维护记录已删除行数的树状数组，
+ * 因此可以在 O(log n) 的时间内找到第 n 个未删除的行，分页查询的开销与跳过的行数无关。
+ *
+ * <p>
+ * 该类不是线程安全的。集合被发布给读取者之后不应再被修改，需要修改时应先复制。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+final class DeletedRowSet {
+
+    private static final int ROWS_PER_WORD_SHIFT = 6;
+    private static final int ROWS_PER_WORD = 1 << ROWS_PER_WORD_SHIFT;
+
+    private final long[] words;
+
+    /**
+     * 树状数组，下标从 1 开始，记录对应的字范围内已删除的行数。
+     */
+    private final int[] tree;
+
+    /**
+     * 创建空的集合。
+     *
+     * @param capacity 集合可以容纳的行数。
+     */
+    DeletedRowSet(int capacity) {
+        words = new long[wordCount(capacity)];
+        tree = new int[words.length + 1];
+    }
+
+    /**
+     * 复制指定的集合，并扩容到指定的行数。
+     *
+     * @param deletedRowSet 指定的集合。
+     * @param capacity      集合可以容纳的行数，小于指定集合的容量时保持指定集合的容量。
+     */
+    DeletedRowSet(DeletedRowSet deletedRowSet, int capacity) {
+        words = Arrays.copyOf(deletedRowSet.words, Math.max(deletedRowSet.words.length, wordCount(capacity)));
+        if (words.length == deletedRowSet.words.length) {
+            tree = Arrays.copyOf(deletedRowSet.tree, deletedRowSet.tree.length);
+            return;
+        }
+        tree = new int[words.length + 1];
+        for (int i = 1; i <= words.length; i++) {
+            tree[i] += Long.bitCount(words[i - 1]);
+            int parent = i + (i & -i);
+            if (parent <= words.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private static int wordCount(int capacity) {
+        return (capacity + ROWS_PER_WORD - 1) >>> ROWS_PER_WORD_SHIFT;
+    }
+
+    public boolean contains(int row) {
+        return (words[row >>> ROWS_PER_WORD_SHIFT] & 1L << row) != 0;
+    }
+
+    /**
+     * 将指定的行标记为已删除。
+     *
+     * @param row 指定的行。
+     * @return 该行之前是否未被删除。
+     */
+    public boolean add(int row) {
+        int word = row >>> ROWS_PER_WORD_SHIFT;
+        long bit = 1L << row;
+        if ((words[word] & bit) != 0) {
+            return false;
+        }
+        words[word] |= bit;
+        for (int i = word + 1; i < tree.length; i += i & -i) {
+            tree[i]++;
+        }
+        return true;
+    }
+
+    /**
+     * 获取指定序号的未删除的行。
+     *
+     * @param index 未删除的行中的序号，从 0 开始，应小于容量范围内未删除的行数。
+     * @return 指定序号的未删除的行。
+     */
+    public int select(int index) {
+        return select(index, null);
+    }
+
+    /**
+     * 获取指定序号的未删除的行，并记录访问的树状数组节点以及位图字的数量。
+     *
+     * <p>
+     * 访问的数量用于验证查询的开销，不需要时应调用 {@link #select(int)}。
+     *
+     * @param index  未删除的行中的序号，从 0 开始，应小于容量范围内未删除的行数。
+     * @param visits 访问的数量累加到该数组的第一个元素中，为 <code>null</code> 时不记录。
+     * @return 指定序号的未删除的行。
+     */
+    int select(int index, int[] visits) {
+        // 在树状数组上自上而下查找，确定目标行所在的字，每一层只访问一个节点。
+        int word = 0;
+        int remaining = index;
+        int visitCount = 0;
+        for (int step = Integer.highestOneBit(words.length); step > 0; step >>>= 1) {
+            int next = word + step;
+            if (next >= tree.length) {
+                continue;
+            }
+            visitCount++;
+            int liveCount = (step << ROWS_PER_WORD_SHIFT) - tree[next];
+            if (liveCount <= remaining) {
+                word = next;
+                remaining -= liveCount;
+            }
+        }
+        if (Objects.nonNull(visits)) {
+            visits[0] += visitCount + 1;
+        }
+        // 在字内跳过之前的未删除的行。
+        long liveBits = ~words[word];
+        for (; remaining > 0; remaining--) {
+            liveBits &= liveBits - 1;
+        }
+        return (word << ROWS_PER_WORD_SHIFT) + Long.numberOfTrailingZeros(liveBits);
+    }
+}
@@ -12,5 +12,5 @@ import com.jneagle.xlstool.dpxhtj.bean.entity.ExportErrorInfo;
  * @since 1.0.0
  */
 public interface ExportErrorInfoDao extends BatchBaseDao<UuidKey, ExportErrorInfo>,
-        EntireLookupDao<ExportErrorInfo>, ClearableDao {
+        EntireLookupDao<ExportErrorInfo>, ClearableDao, LockWaitMeasurableDao {
 }
@@ -12,5 +12,5 @@ import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
  * @since 1.0.0
  */
 public interface ImportErrorInfoDao extends BatchBaseDao<UuidKey, ImportErrorInfo>,
-        EntireLookupDao<ImportErrorInfo>, ClearableDao {
+        EntireLookupDao<ImportErrorInfo>, ClearableDao, LockWaitMeasurableDao {
 }
@@ -5,183 +5,170 @@ import com.dwarfeng.subgrade.sdk.interceptor.analyse.SkipRecord;
 import com.dwarfeng.subgrade.stack.bean.dto.PagingInfo;
 import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
 import com.dwarfeng.subgrade.stack.exception.DaoException;
+import com.jneagle.xlstool.dpxhtj.bean.dto.LockWaitMetrics;
 import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
-import org.dozer.Mapper;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Objects;
 
 @Repository
 public class ImportErrorInfoDaoImpl implements ImportErrorInfoDao {
 
-    private final Mapper mapper;
+    /**
+     * 内存中保存的导入错误信息。
+     *
+     * <p>
+     * 写入时复制并发布新的版本，读取时直接访问当前的版本，不会被写入阻塞。
+     * 实体在写入与读取时均通过构造器复制，内存中保存的实体不会被调用者持有。
+     */
+    private final CopyOnWriteMemory<ImportErrorInfo> memory = new CopyOnWriteMemory<>();
 
-    private final Map<UuidKey, ImportErrorInfo> memory = new LinkedHashMap<>();
-
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-
-    public ImportErrorInfoDaoImpl(Mapper mapper) {
-        this.mapper = mapper;
-    }
+    /**
+     * 写入操作之间互斥的锁，读取操作不获取锁。
+     */
+    private final MeteredLock lock = new MeteredLock();
 
     @Override
     @BehaviorAnalyse
     public void clear() {
-        lock.writeLock().lock();
+        lock.lock();
         try {
             memory.clear();
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public boolean exists(UuidKey key) {
-        lock.readLock().lock();
-        try {
-            return memory.containsKey(key);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return memory.current().contains(key);
     }
 
     @Override
     @BehaviorAnalyse
     public ImportErrorInfo get(UuidKey key) throws DaoException {
-        lock.readLock().lock();
-        try {
-            return cloneBean(memory.get(key));
-        } finally {
-            lock.readLock().unlock();
-        }
+        return copyOf(memory.current().get(key));
     }
 
     @Override
     @BehaviorAnalyse
     public UuidKey insert(ImportErrorInfo element) throws DaoException {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            ImportErrorInfo neoElement = cloneBean(element);
-            memory.put(neoElement.getKey(), neoElement);
-            return neoElement.getKey();
+            ImportErrorInfo neoElement = copyOf(element);
+            memory.modify(map -> map.put(neoElement.getKey(), neoElement));
+            return copyKey(neoElement.getKey());
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public void update(ImportErrorInfo element) throws DaoException {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            ImportErrorInfo neoElement = cloneBean(element);
-            memory.put(neoElement.getKey(), neoElement);
+            ImportErrorInfo neoElement = copyOf(element);
+            memory.modify(map -> map.put(neoElement.getKey(), neoElement));
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public void delete(UuidKey key) {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            memory.keySet().remove(key);
+            memory.modify(map -> map.keySet().remove(key));
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public boolean allExists(@SkipRecord List<UuidKey> keys) {
-        lock.readLock().lock();
-        try {
-            return memory.keySet().containsAll(keys);
-        } finally {
-            lock.readLock().unlock();
+        CopyOnWriteMemory.Version<ImportErrorInfo> version = memory.current();
+        for (UuidKey key : keys) {
+            if (!version.contains(key)) {
+                return false;
+            }
         }
+        return true;
     }
 
     @Override
     @BehaviorAnalyse
     public boolean nonExists(@SkipRecord List<UuidKey> keys) {
-        lock.readLock().lock();
-        try {
-            for (UuidKey key : keys) {
-                if (memory.containsKey(key)) {
-                    return false;
-                }
+        CopyOnWriteMemory.Version<ImportErrorInfo> version = memory.current();
+        for (UuidKey key : keys) {
+            if (version.contains(key)) {
+                return false;
             }
-            return true;
-        } finally {
-            lock.readLock().unlock();
         }
+        return true;
     }
 
     @Override
     @BehaviorAnalyse
     @SkipRecord
     public List<ImportErrorInfo> batchGet(@SkipRecord List<UuidKey> keys) throws DaoException {
-        lock.readLock().lock();
-        try {
-            List<ImportErrorInfo> result = new ArrayList<>();
-            for (UuidKey key : keys) {
-                ImportErrorInfo importErrorInfo = cloneBean(memory.get(key));
-                result.add(importErrorInfo);
-            }
-            return result;
-        } finally {
-            lock.readLock().unlock();
+        CopyOnWriteMemory.Version<ImportErrorInfo> version = memory.current();
+        List<ImportErrorInfo> result = new ArrayList<>();
+        for (UuidKey key : keys) {
+            result.add(copyOf(version.get(key)));
         }
+        return result;
     }
 
     @Override
     @BehaviorAnalyse
     @SkipRecord
     public List<UuidKey> batchInsert(@SkipRecord List<ImportErrorInfo> elements) throws DaoException {
-        lock.writeLock().lock();
+        lock.lock();
         try {
             List<UuidKey> result = new ArrayList<>();
-            for (ImportErrorInfo element : elements) {
-                ImportErrorInfo neoElement = cloneBean(element);
-                memory.put(neoElement.getKey(), neoElement);
-                result.add(neoElement.getKey());
-            }
+            memory.modify(map -> {
+                for (ImportErrorInfo element : elements) {
+                    ImportErrorInfo neoElement = copyOf(element);
+                    map.put(neoElement.getKey(), neoElement);
+                    result.add(copyKey(neoElement.getKey()));
+                }
+            });
             return result;
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public void batchUpdate(@SkipRecord List<ImportErrorInfo> elements) throws DaoException {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            for (ImportErrorInfo element : elements) {
-                ImportErrorInfo neoElement = cloneBean(element);
-                memory.put(neoElement.getKey(), neoElement);
-            }
+            memory.modify(map -> {
+                for (ImportErrorInfo element : elements) {
+                    ImportErrorInfo neoElement = copyOf(element);
+                    map.put(neoElement.getKey(), neoElement);
+                }
+            });
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
     @BehaviorAnalyse
     public void batchDelete(@SkipRecord List<UuidKey> keys) {
-        lock.writeLock().lock();
+        lock.lock();
         try {
-            keys.forEach(memory.keySet()::remove);
+            memory.modify(map -> keys.forEach(map.keySet()::remove));
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -189,53 +176,54 @@ public class ImportErrorInfoDaoImpl implements ImportErrorInfoDao {
     @BehaviorAnalyse
     @SkipRecord
     public List<ImportErrorInfo> lookup() throws DaoException {
-        lock.readLock().lock();
-        try {
-            List<ImportErrorInfo> result = new ArrayList<>();
-            for (ImportErrorInfo importErrorInfo : memory.values()) {
-                result.add(cloneBean(importErrorInfo));
-            }
-            return result;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return copyAll(memory.current().toList());
     }
 
     @Override
     @BehaviorAnalyse
     @SkipRecord
     public List<ImportErrorInfo> lookup(PagingInfo pagingInfo) throws DaoException {
-        lock.readLock().lock();
-        try {
-            int beginIndex = pagingInfo.getPage() * pagingInfo.getRows();
-            int endIndex = beginIndex + pagingInfo.getRows();
-            List<ImportErrorInfo> subList = new ArrayList<>(memory.values()).subList(beginIndex, endIndex);
-            List<ImportErrorInfo> result = new ArrayList<>();
-            for (ImportErrorInfo importErrorInfo : subList) {
-                result.add(cloneBean(importErrorInfo));
-            }
-            return result;
-        } finally {
-            lock.readLock().unlock();
-        }
+        // 以 long 计算索引，避免页码较大时溢出；超出范围的部分被截断，最后一页可以不满。
+        long beginIndex = (long) pagingInfo.getPage() * pagingInfo.getRows();
+        long endIndex = beginIndex + pagingInfo.getRows();
+        return copyAll(memory.current().toList(beginIndex, endIndex));
     }
 
     @Override
     @BehaviorAnalyse
     public int lookupCount() {
-        lock.readLock().lock();
-        try {
-            return memory.size();
-        } finally {
-            lock.readLock().unlock();
-        }
+        return memory.current().size();
     }
 
-    private ImportErrorInfo cloneBean(ImportErrorInfo importErrorInfo) throws DaoException {
-        try {
-            return mapper.map(importErrorInfo, ImportErrorInfo.class);
-        } catch (Exception e) {
-            throw new DaoException(e);
+    @Override
+    @BehaviorAnalyse
+    public LockWaitMetrics getLockWaitMetrics() {
+        return lock.getMetrics();
+    }
+
+    /**
+     * 复制实体。
+     *
+     * <p>
+     * 实体的字段中只有主键是可变对象，其余的字段均为不可变对象，复制时直接共享；
+     * 通过构造器复制的开销与字段的数量相当，远小于基于反射的映射。
+     */
+    private static ImportErrorInfo copyOf(ImportErrorInfo importErrorInfo) {
+        if (Objects.isNull(importErrorInfo)) {
+            return null;
         }
+        return new ImportErrorInfo(
+                copyKey(importErrorInfo.getKey()), importErrorInfo.getSheetName(), importErrorInfo.getRowIndex(),
+                importErrorInfo.getEndRowIndex(), importErrorInfo.getRowCount(), importErrorInfo.getErrorMessage()
+        );
+    }
+
+    private static List<ImportErrorInfo> copyAll(List<ImportErrorInfo> importErrorInfos) {
+        importErrorInfos.replaceAll(ImportErrorInfoDaoImpl::copyOf);
+        return importErrorInfos;
+    }
+
+    private static UuidKey copyKey(UuidKey key) {
+        return Objects.isNull(key) ? null : new UuidKey(key.getUuid());
     }
 }
@@ -0,0 +1,22 @@
+package com.jneagle.xlstool.dpxhtj.dao;
+
+import com.dwarfeng.subgrade.stack.dao.Dao;
+import com.dwarfeng.subgrade.stack.exception.DaoException;
+import com.jneagle.xlstool.dpxhtj.bean.dto.LockWaitMetrics;
+
+/**
+ * 可测量锁等待的数据访问层。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public interface LockWaitMeasurableDao extends Dao {
+
+    /**
+     * 获取锁等待指标。
+     *
+     * @return 自启动以来累计的锁等待指标。
+     * @throws DaoException 数据访问层异常。
+     */
+    LockWaitMetrics getLockWaitMetrics() throws DaoException;
+}
@@ -0,0 +1,52 @@
+package com.jneagle.xlstool.dpxhtj.dao;
+
+import com.jneagle.xlstool.dpxhtj.bean.dto.LockWaitMetrics;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 记录等待时间的锁。
+ *
+ * <p>
+ * 内存数据访问层的写入操作之间通过该锁互斥，读取操作不获取锁。
+ * 锁未被持有时直接获取，不读取时钟；锁已经被持有时，记录等待的时间。
+ *
+ * <p>
+ * 指标只在持有锁时更新，因此各字段只有一个写入者，读取指标时无需获取锁。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class MeteredLock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile long acquireCount = 0;
+    private volatile long contendedCount = 0;
+    private volatile long waitNanos = 0;
+    private volatile long maxWaitNanos = 0;
+
+    public void lock() {
+        if (lock.tryLock()) {
+            acquireCount++;
+            return;
+        }
+        long beginNanos = System.nanoTime();
+        lock.lock();
+        long currentWaitNanos = System.nanoTime() - beginNanos;
+        acquireCount++;
+        contendedCount++;
+        waitNanos += currentWaitNanos;
+        if (currentWaitNanos > maxWaitNanos) {
+            maxWaitNanos = currentWaitNanos;
+        }
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+    public LockWaitMetrics getMetrics() {
+        return new LockWaitMetrics(acquireCount, contendedCount, waitNanos, maxWaitNanos);
+    }
+}
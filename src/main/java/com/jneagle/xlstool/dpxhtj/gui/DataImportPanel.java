@@ -298,6 +298,7 @@ public class DataImportPanel extends JPanel {
                 jfc.setFileSelectionMode(JFileChooser.FILES_ONLY);
                 jfc.setFileFilter(new FileNameExtensionFilter("Excel 97-03 文件(xls)", "xls"));
                 jfc.addChoosableFileFilter(new FileNameExtensionFilter("Excel 文件(xlsx)", "xlsx"));
+                jfc.addChoosableFileFilter(new FileNameExtensionFilter("CSV 文件(csv, tsv)", "csv", "tsv"));
                 jfc.setAcceptAllFileFilterUsed(false);
                 // 如果已经有文件了，将当前路径设置为指定文件的路径。
                 File currentFile = importFileModel.get();
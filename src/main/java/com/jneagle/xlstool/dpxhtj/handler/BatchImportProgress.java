@@ -0,0 +1,56 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.structure.ProgressStatus;
+
+import java.util.function.Consumer;
+
+/**
+ * 批量导入的进度。
+ *
+ * <p>
+ * 将各文件内部的进度汇总为总体进度，关闭之后不再接受进度更新。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class BatchImportProgress {
+
+    /**
+     * 单个文件在总体进度中所占的份额。
+     */
+    private static final int FILE_PROGRESS_SCALE = 100;
+
+    private final double[] fileProgresses;
+    private final ImportMetricsRecorder importMetricsRecorder;
+    private final Consumer<ProgressStatus> progressConsumer;
+
+    private boolean closed = false;
+
+    public BatchImportProgress(
+            int fileCount, ImportMetricsRecorder importMetricsRecorder, Consumer<ProgressStatus> progressConsumer
+    ) {
+        this.fileProgresses = new double[fileCount];
+        this.importMetricsRecorder = importMetricsRecorder;
+        this.progressConsumer = progressConsumer;
+    }
+
+    // 进度观察器不是线程安全的，多个文件任务的进度更新需要在此处串行化。
+    public synchronized void update(int fileIndex, int progress, int total) {
+        if (closed) {
+            return;
+        }
+        fileProgresses[fileIndex] = total <= 0 ? 0 : (double) progress / total;
+        double sum = 0;
+        for (double fileProgress : fileProgresses) {
+            sum += fileProgress;
+        }
+        progressConsumer.accept(new ProgressStatus(
+                (int) (sum * FILE_PROGRESS_SCALE), fileProgresses.length * FILE_PROGRESS_SCALE,
+                importMetricsRecorder.snapshot()
+        ));
+    }
+
+    public synchronized void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,49 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+/**
+ * 空白行计数器。
+ *
+ * <p>
+ * 记录工作簿中连续空白行的数量，两个读取到的行之间缺失的行同样计为空白行。
+ * 连续空白行的数量达到阈值后，计数不再变化，工作簿中剩余的行均不再读取。
+ *
+ * <p>
+ * 该类不是线程安全的，每个工作簿的读取过程持有各自的计数器。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class BlankRowCounter {
+
+    private final int blankRowStopThreshold;
+
+    private int lastRowIndex;
+    private int blankRowCount = 0;
+
+    /**
+     * 创建空白行计数器。
+     *
+     * @param firstDataRow          第一条数据所在的行号，之前的行不计入空白行。
+     * @param blankRowStopThreshold 停止读取的连续空白行数量，小于等于 0 时不停止读取。
+     */
+    public BlankRowCounter(int firstDataRow, int blankRowStopThreshold) {
+        this.blankRowStopThreshold = blankRowStopThreshold;
+        this.lastRowIndex = firstDataRow - 1;
+    }
+
+    public void countRow(int rowIndex, boolean blank) {
+        if (isThresholdReached()) {
+            return;
+        }
+        blankRowCount += rowIndex - lastRowIndex - 1;
+        lastRowIndex = rowIndex;
+        if (isThresholdReached()) {
+            return;
+        }
+        blankRowCount = blank ? blankRowCount + 1 : 0;
+    }
+
+    public boolean isThresholdReached() {
+        return blankRowStopThreshold > 0 && blankRowCount >= blankRowStopThreshold;
+    }
+}
@@ -0,0 +1,104 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 单元格取值。
+ *
+ * <p>
+ * 用户模型与事件模型读取到的单元格均以单元格类型与取值的形式记录在此处，再经由相同的规则转换为字段的值，
+ * 因此两种解析模式的导入结果一致。转换规则与公式计算器的结果保持一致：
+ * 文本字段只读取字符串单元格，其它类型的单元格视为缺失；
+ * 数值字段读取数值单元格，空白单元格视为缺失，其它类型的单元格视为 0。
+ *
+ * <p>
+ * 超出长度的列不被任何解码计划读取，直接忽略。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class CellRowValues implements RowSource {
+
+    private final CellType[] cellTypes;
+    private final String[] stringValues;
+    private final double[] numberValues;
+
+    public CellRowValues(int length) {
+        cellTypes = new CellType[length];
+        stringValues = new String[length];
+        numberValues = new double[length];
+        clear();
+    }
+
+    public void clear() {
+        Arrays.fill(cellTypes, CellType.BLANK);
+        Arrays.fill(stringValues, null);
+    }
+
+    public void put(int columnIndex, CellType cellType) {
+        putValue(columnIndex, cellType, null, 0);
+    }
+
+    public void putString(int columnIndex, String value) {
+        putValue(columnIndex, CellType.STRING, value, 0);
+    }
+
+    public void putNumber(int columnIndex, double value) {
+        putValue(columnIndex, CellType.NUMERIC, null, value);
+    }
+
+    /**
+     * 以文本的形式记录数值。
+     *
+     * <p>
+     * 文本在读取时才解析，与用户模型一样，无法解析的数值只影响读取它的行。
+     *
+     * @param columnIndex 列索引。
+     * @param text        数值的文本。
+     */
+    public void putNumberText(int columnIndex, String text) {
+        putValue(columnIndex, CellType.NUMERIC, text, 0);
+    }
+
+    private void putValue(int columnIndex, CellType cellType, String stringValue, double numberValue) {
+        if (columnIndex >= cellTypes.length) {
+            return;
+        }
+        cellTypes[columnIndex] = cellType;
+        stringValues[columnIndex] = stringValue;
+        numberValues[columnIndex] = numberValue;
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return cellTypes[columnIndex] == CellType.STRING ? stringValues[columnIndex] : null;
+    }
+
+    @Override
+    public double getNumber(int columnIndex) {
+        switch (cellTypes[columnIndex]) {
+            case NUMERIC:
+                String text = stringValues[columnIndex];
+                return Objects.isNull(text) ? numberValues[columnIndex] : Double.parseDouble(text);
+            case BLANK:
+                return Double.NaN;
+            default:
+                return 0;
+        }
+    }
+
+    public boolean isBlank(int columnIndex) {
+        switch (cellTypes[columnIndex]) {
+            case BLANK:
+                return true;
+            case STRING:
+                return StringUtils.isBlank(stringValues[columnIndex]);
+            default:
+                return false;
+        }
+    }
+}
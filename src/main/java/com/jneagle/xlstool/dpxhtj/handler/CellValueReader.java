@@ -0,0 +1,151 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.util.Constants;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+
+import java.util.Objects;
+
+/**
+ * 用户模型的单元格读取器。
+ *
+ * <p>
+ * 读取一行中各解码列的单元格，并根据公式计算策略计算需要计算的公式单元格。
+ *
+ * <p>
+ * 该类不是线程安全的，每个工作簿的读取过程持有各自的读取器。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class CellValueReader {
+
+    private final int[] columnIndexes;
+    private final String formulaEvaluationPolicy;
+    private final UserModelWorkbook userModelWorkbook;
+    private final boolean cachedResultStale;
+    private final SheetMetricsCounter sheetMetricsCounter;
+
+    public CellValueReader(
+            RowDecodePlan rowDecodePlan, String formulaEvaluationPolicy, UserModelWorkbook userModelWorkbook,
+            boolean cachedResultStale, SheetMetricsCounter sheetMetricsCounter
+    ) {
+        this.columnIndexes = rowDecodePlan.getColumnIndexes();
+        this.formulaEvaluationPolicy = formulaEvaluationPolicy;
+        this.userModelWorkbook = userModelWorkbook;
+        this.cachedResultStale = cachedResultStale;
+        this.sheetMetricsCounter = sheetMetricsCounter;
+    }
+
+    /**
+     * 读取一行中各解码列的单元格。
+     *
+     * <p>
+     * 公式单元格只读取缓存结果。缓存结果缺失的公式单元格只有在 cached 策略下视为空白，
+     * 其它策略下视为非空白，等待 {@link #evaluateRow(Row, CellRowValues)} 以计算结果覆盖，
+     * 因此各列均为空白的行无需计算公式即可确定为空白行。
+     *
+     * @param row       行，可以为 null。
+     * @param rowValues 单元格取值。
+     */
+    public void readRow(Row row, CellRowValues rowValues) {
+        rowValues.clear();
+        if (Objects.isNull(row)) {
+            return;
+        }
+        for (int columnIndex : columnIndexes) {
+            Cell cell = row.getCell(columnIndex);
+            if (Objects.isNull(cell)) {
+                continue;
+            }
+            CellType cellType = cell.getCellType();
+            if (cellType == CellType.FORMULA) {
+                if (isCachedResultMissing(cell)) {
+                    if (!Objects.equals(
+                            formulaEvaluationPolicy, Constants.IMPORT_FORMULA_EVALUATION_POLICY_CACHED
+                    )) {
+                        rowValues.put(columnIndex, CellType.FORMULA);
+                    }
+                    continue;
+                }
+                cellType = cell.getCachedFormulaResultType();
+            }
+            switch (cellType) {
+                case STRING:
+                    rowValues.putString(columnIndex, cell.getRichStringCellValue().getString());
+                    break;
+                case NUMERIC:
+                    // xlsx 文件中的数值以文本存储，与事件模型一样在读取时才解析，无法解析的数值只影响读取它的行。
+                    if (cell instanceof XSSFCell) {
+                        rowValues.putNumberText(columnIndex, ((XSSFCell) cell).getRawValue());
+                    } else {
+                        rowValues.putNumber(columnIndex, cell.getNumericCellValue());
+                    }
+                    break;
+                default:
+                    rowValues.put(columnIndex, cellType);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 根据公式计算策略计算一行中需要计算的公式单元格，以计算结果覆盖 {@link #readRow(Row, CellRowValues)}
+     * 读取的缓存结果。
+     *
+     * @param row       行，不能为 null。
+     * @param rowValues 单元格取值。
+     */
+    public void evaluateRow(Row row, CellRowValues rowValues) {
+        for (int columnIndex : columnIndexes) {
+            Cell cell = row.getCell(columnIndex);
+            if (Objects.isNull(cell) || cell.getCellType() != CellType.FORMULA || !shouldEvaluate(cell)) {
+                continue;
+            }
+            CellValue cellValue = evaluate(cell);
+            if (Objects.isNull(cellValue)) {
+                rowValues.put(columnIndex, CellType.BLANK);
+                continue;
+            }
+            switch (cellValue.getCellType()) {
+                case STRING:
+                    rowValues.putString(columnIndex, cellValue.getStringValue());
+                    break;
+                case NUMERIC:
+                    rowValues.putNumber(columnIndex, cellValue.getNumberValue());
+                    break;
+                default:
+                    rowValues.put(columnIndex, cellValue.getCellType());
+                    break;
+            }
+        }
+    }
+
+    private boolean shouldEvaluate(Cell cell) {
+        switch (formulaEvaluationPolicy) {
+            case Constants.IMPORT_FORMULA_EVALUATION_POLICY_ALWAYS:
+                return true;
+            case Constants.IMPORT_FORMULA_EVALUATION_POLICY_CACHED:
+                return false;
+            default:
+                return cachedResultStale || isCachedResultMissing(cell);
+        }
+    }
+
+    // xls 文件的公式记录总是带有缓存结果，只有 xlsx 文件的公式单元格可能缺少缓存结果。
+    private boolean isCachedResultMissing(Cell cell) {
+        return cell instanceof XSSFCell && !((XSSFCell) cell).getCTCell().isSetV();
+    }
+
+    private CellValue evaluate(Cell cell) {
+        long beginNanos = System.nanoTime();
+        try {
+            return userModelWorkbook.getEvaluator().evaluate(cell);
+        } finally {
+            sheetMetricsCounter.recordFormula(System.nanoTime() - beginNanos);
+        }
+    }
+}
@@ -13,15 +13,18 @@ public class ClearHandlerImpl extends AbstractProgressHandler implements ClearHa
     private final ConsumingDetailMaintainService consumingDetailMaintainService;
     private final ImportErrorInfoMaintainService importErrorInfoMaintainService;
     private final ExportErrorInfoMaintainService exportErrorInfoMaintainService;
+    private final DataImportHandler dataImportHandler;
 
     public ClearHandlerImpl(
             ConsumingDetailMaintainService consumingDetailMaintainService,
             ImportErrorInfoMaintainService importErrorInfoMaintainService,
-            ExportErrorInfoMaintainService exportErrorInfoMaintainService
+            ExportErrorInfoMaintainService exportErrorInfoMaintainService,
+            DataImportHandler dataImportHandler
     ) {
         this.consumingDetailMaintainService = consumingDetailMaintainService;
         this.importErrorInfoMaintainService = importErrorInfoMaintainService;
         this.exportErrorInfoMaintainService = exportErrorInfoMaintainService;
+        this.dataImportHandler = dataImportHandler;
     }
 
     @Override
@@ -34,6 +37,9 @@ public class ClearHandlerImpl extends AbstractProgressHandler implements ClearHa
             consumingDetailMaintainService.clear();
             importErrorInfoMaintainService.clear();
             exportErrorInfoMaintainService.clear();
+
+            // 导入的数据已被清除，文件导入记录随之失效。
+            dataImportHandler.clearImportRecords();
         } catch (Exception e) {
             throw new HandlerException(e);
         } finally {
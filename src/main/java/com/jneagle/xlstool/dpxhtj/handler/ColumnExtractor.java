@@ -0,0 +1,16 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+/**
+ * 列提取器。
+ *
+ * <p>
+ * 从行数据源中读取一列，写入行缓冲区中对应的字段。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+@FunctionalInterface
+interface ColumnExtractor {
+
+    void extract(RowSource rowSource, RowBuffer rowBuffer);
+}
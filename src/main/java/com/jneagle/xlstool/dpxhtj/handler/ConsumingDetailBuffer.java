@@ -0,0 +1,71 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.service.ConsumingDetailMaintainService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 消耗明细缓冲区。
+ *
+ * <p>
+ * 接收的消耗明细全部保留在内存中，结束接收时一次性插入到维护服务中。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class ConsumingDetailBuffer implements ConsumingDetailSink {
+
+    private final ConsumingDetailMaintainService consumingDetailMaintainService;
+
+    private final List<ConsumingDetail> consumingDetails = new ArrayList<>();
+
+    private long insertNanos = 0;
+
+    public ConsumingDetailBuffer(ConsumingDetailMaintainService consumingDetailMaintainService) {
+        this.consumingDetailMaintainService = consumingDetailMaintainService;
+    }
+
+    /**
+     * 创建插入到相同维护服务中的新缓冲区。
+     *
+     * @return 新的缓冲区。
+     */
+    public ConsumingDetailBuffer fork() {
+        return new ConsumingDetailBuffer(consumingDetailMaintainService);
+    }
+
+    @Override
+    public void accept(ConsumingDetail consumingDetail) {
+        consumingDetails.add(consumingDetail);
+    }
+
+    @Override
+    public int size() {
+        return consumingDetails.size();
+    }
+
+    @Override
+    public List<UuidKey> finish() throws Exception {
+        long beginNanos = System.nanoTime();
+        List<UuidKey> consumingDetailKeys = consumingDetailMaintainService.batchInsert(consumingDetails);
+        insertNanos = System.nanoTime() - beginNanos;
+        return consumingDetailKeys;
+    }
+
+    @Override
+    public long getInsertNanos() {
+        return insertNanos;
+    }
+
+    @Override
+    public void abort() {
+        // 批量插入在维护服务中整体完成，缓冲区没有需要撤销的数据。
+    }
+
+    public List<ConsumingDetail> getConsumingDetails() {
+        return consumingDetails;
+    }
+}
@@ -0,0 +1,123 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消耗明细通道。
+ *
+ * <p>
+ * 在执行器中执行的导入任务将消耗明细每满一个批次放入容量为一个批次的队列，
+ * 合并结果的线程按照任务的顺序依次取出批次交给下游的接收器；队列已满时导入任务阻塞，
+ * 因此每个任务尚未合并的消耗明细不超过两个批次。
+ *
+ * <p>
+ * 通道不插入数据，结束接收时调用 {@link #close()}，而不是 {@link #finish()}。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class ConsumingDetailChannel implements ConsumingDetailSink {
+
+    /**
+     * 等待批次的线程检查写入通道的任务是否结束的时间间隔（毫秒）。
+     */
+    private static final long POLL_INTERVAL = 100;
+
+    private final int batchSize;
+
+    private final List<ConsumingDetail> endOfChannel = new ArrayList<>();
+
+    private final BlockingQueue<List<ConsumingDetail>> queue = new ArrayBlockingQueue<>(1);
+
+    private List<ConsumingDetail> batch;
+    private int size = 0;
+
+    public ConsumingDetailChannel(int batchSize) {
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void accept(ConsumingDetail consumingDetail) {
+        batch.add(consumingDetail);
+        size++;
+        if (batch.size() >= batchSize) {
+            List<ConsumingDetail> fullBatch = batch;
+            batch = new ArrayList<>(batchSize);
+            put(fullBatch);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<UuidKey> finish() {
+        throw new UnsupportedOperationException("通道中的消耗明细由下游的接收器插入");
+    }
+
+    @Override
+    public long getInsertNanos() {
+        return 0;
+    }
+
+    @Override
+    public void abort() {
+        // 通道不插入数据，没有需要撤销的数据。
+    }
+
+    /**
+     * 结束接收，将剩余的消耗明细交给合并结果的线程。
+     */
+    public void close() {
+        if (!batch.isEmpty()) {
+            List<ConsumingDetail> lastBatch = batch;
+            batch = new ArrayList<>(0);
+            put(lastBatch);
+        }
+        put(endOfChannel);
+    }
+
+    /**
+     * 依次取出通道中的批次交给下游的接收器，直到通道结束接收，或者写入通道的任务异常结束。
+     *
+     * @param downstream 下游的接收器。
+     * @param futureTask 写入通道的任务。
+     * @throws InterruptedException 等待批次时被中断。
+     */
+    public void drainTo(ConsumingDetailSink downstream, FutureTask<?> futureTask) throws InterruptedException {
+        while (true) {
+            // 先检查任务是否结束再取出批次，任务结束之前交付的批次都已经在队列中，不会遗漏。
+            boolean done = futureTask.isDone();
+            List<ConsumingDetail> consumingDetails = done ?
+                    queue.poll() : queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            if (consumingDetails == endOfChannel || (Objects.isNull(consumingDetails) && done)) {
+                return;
+            }
+            if (Objects.nonNull(consumingDetails)) {
+                consumingDetails.forEach(downstream::accept);
+            }
+        }
+    }
+
+    private void put(List<ConsumingDetail> consumingDetails) {
+        try {
+            queue.put(consumingDetails);
+        } catch (InterruptedException e) {
+            // 合并结果的线程已经放弃该任务，恢复中断状态，异常向外抛出，解析随之中止。
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("向通道交付数据时被中断", e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+import com.jneagle.xlstool.dpxhtj.structure.StringDictionary;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * 事件模型下 xls 工作簿的记录监听器。
+ *
+ * <p>
+ * 依次处理工作簿流中的记录，只读取名称有效的工作表中的单元格记录，与用户模型经由相同的规则转换为字段的值。
+ * 公式记录使用文件中缓存的公式结果。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class ConsumingDetailHssfListener implements HSSFListener {
+
+    private final RowDecodePlan rowDecodePlan;
+    private final Pattern validSheetNamePattern;
+    private final String fileName;
+    private final ConsumingDetailSink consumingDetailSink;
+    private final List<ImportErrorInfo> importErrorInfos;
+    private final ImportErrorAggregator importErrorAggregator;
+    private final RowBuffer rowBuffer;
+    private final ImportMetricsRecorder importMetricsRecorder;
+    private final ImportProgressListener listener;
+
+    private final List<BoundSheetRecord> boundSheetRecords = new ArrayList<>();
+    private final CellRowValues rowValues;
+
+    private BoundSheetRecord[] orderedBoundSheetRecords;
+    private SSTRecord sstRecord;
+
+    private int substreamDepth = 0;
+    private int sheetIndex = -1;
+    private String sheetName;
+    private boolean validSheet = false;
+
+    private int validSheetCount = 0;
+    private int progress = 0;
+
+    private int stringResultColumnIndex = -1;
+    private BlankRowCounter blankRowCounter;
+
+    // 记录流在读取时即时解密，解密的耗时无法单独测量，计入解析耗时。
+    private final SheetMetricsCounter fileMetricsCounter = new SheetMetricsCounter();
+    private SheetMetricsCounter sheetMetricsCounter;
+    private int consumingDetailBeginIndex;
+    private int importErrorInfoBeginIndex;
+
+    public ConsumingDetailHssfListener(
+            RowDecodePlan rowDecodePlan, Pattern validSheetNamePattern, File file,
+            ConsumingDetailSink consumingDetailSink, List<ImportErrorInfo> importErrorInfos,
+            StringDictionary stringDictionary, ImportMetricsRecorder importMetricsRecorder,
+            ImportProgressListener listener
+    ) {
+        this.rowDecodePlan = rowDecodePlan;
+        this.validSheetNamePattern = validSheetNamePattern;
+        this.rowValues = new CellRowValues(rowDecodePlan.getRowValueLength());
+        this.fileName = file.getName();
+        this.consumingDetailSink = consumingDetailSink;
+        this.importErrorInfos = importErrorInfos;
+        this.importErrorAggregator = new ImportErrorAggregator(importErrorInfos);
+        this.rowBuffer = new RowBuffer(stringDictionary);
+        this.importMetricsRecorder = importMetricsRecorder;
+        this.listener = listener;
+        fileMetricsCounter.recordRead(file.length(), 0);
+    }
+
+    @Override
+    public void processRecord(Record record) {
+        switch (record.getSid()) {
+            case BoundSheetRecord.sid:
+                boundSheetRecords.add((BoundSheetRecord) record);
+                break;
+            case SSTRecord.sid:
+                sstRecord = (SSTRecord) record;
+                break;
+            case BOFRecord.sid:
+                processBofRecord((BOFRecord) record);
+                break;
+            case EOFRecord.sid:
+                processEofRecord();
+                break;
+            default:
+                // 连续的空白行达到阈值后，当前工作簿剩余的记录均被忽略。
+                if (validSheet && !blankRowCounter.isThresholdReached()) {
+                    processSheetRecord(record);
+                }
+                break;
+        }
+    }
+
+    private void processBofRecord(BOFRecord record) {
+        substreamDepth++;
+        // 只处理顶层的子流，工作簿内嵌的图表等子流不计入工作簿的序号。
+        if (substreamDepth != 1 || record.getType() == BOFRecord.TYPE_WORKBOOK) {
+            return;
+        }
+        // 进入第一个工作簿时，工作簿的名称均已读取完毕，可以确定总体进度，全局子流的开销记录为文件级别的指标。
+        if (Objects.isNull(orderedBoundSheetRecords)) {
+            importMetricsRecorder.record(fileMetricsCounter.finish(fileName, null));
+            orderedBoundSheetRecords = BoundSheetRecord.orderByBofPosition(boundSheetRecords);
+            for (BoundSheetRecord boundSheetRecord : orderedBoundSheetRecords) {
+                if (validSheetNamePattern.matcher(boundSheetRecord.getSheetname()).matches()) {
+                    validSheetCount++;
+                }
+            }
+            listener.onProgressChanged(progress, validSheetCount);
+        }
+        sheetIndex++;
+        sheetName = orderedBoundSheetRecords[sheetIndex].getSheetname();
+        validSheet = record.getType() == BOFRecord.TYPE_WORKSHEET &&
+                validSheetNamePattern.matcher(sheetName).matches();
+        rowValues.clear();
+        blankRowCounter = rowDecodePlan.newBlankRowCounter();
+        sheetMetricsCounter = new SheetMetricsCounter();
+        consumingDetailBeginIndex = consumingDetailSink.size();
+        importErrorInfoBeginIndex = importErrorInfos.size();
+    }
+
+    private void processEofRecord() {
+        if (substreamDepth == 1 && validSheet) {
+            importErrorAggregator.flush();
+            sheetMetricsCounter.countRows(
+                    consumingDetailSink.size() - consumingDetailBeginIndex, importErrorInfos,
+                    importErrorInfoBeginIndex
+            );
+            importMetricsRecorder.record(sheetMetricsCounter.finish(fileName, sheetName));
+            validSheet = false;
+            listener.onProgressChanged(++progress, validSheetCount);
+        }
+        substreamDepth--;
+    }
+
+    private void processSheetRecord(Record record) {
+        switch (record.getSid()) {
+            case NumberRecord.sid:
+                NumberRecord numberRecord = (NumberRecord) record;
+                rowValues.putNumber(numberRecord.getColumn(), numberRecord.getValue());
+                break;
+            case LabelSSTRecord.sid:
+                LabelSSTRecord labelSstRecord = (LabelSSTRecord) record;
+                rowValues.putString(
+                        labelSstRecord.getColumn(), sstRecord.getString(labelSstRecord.getSSTIndex()).getString()
+                );
+                break;
+            case LabelRecord.sid:
+                LabelRecord labelRecord = (LabelRecord) record;
+                rowValues.putString(labelRecord.getColumn(), labelRecord.getValue());
+                break;
+            case BoolErrRecord.sid:
+                BoolErrRecord boolErrRecord = (BoolErrRecord) record;
+                rowValues.put(
+                        boolErrRecord.getColumn(), boolErrRecord.isBoolean() ? CellType.BOOLEAN : CellType.ERROR
+                );
+                break;
+            case FormulaRecord.sid:
+                processFormulaRecord((FormulaRecord) record);
+                break;
+            case StringRecord.sid:
+                // 字符串类型的公式结果保存在紧随公式记录之后的字符串记录中。
+                if (stringResultColumnIndex >= 0) {
+                    rowValues.putString(stringResultColumnIndex, ((StringRecord) record).getString());
+                    stringResultColumnIndex = -1;
+                }
+                break;
+            default:
+                if (record instanceof LastCellOfRowDummyRecord) {
+                    processRowEnd(((LastCellOfRowDummyRecord) record).getRow());
+                    rowValues.clear();
+                }
+                break;
+        }
+    }
+
+    private void processFormulaRecord(FormulaRecord record) {
+        // 使用文件中缓存的公式结果。
+        int cachedResultType = record.getCachedResultType();
+        if (cachedResultType == CellType.STRING.getCode()) {
+            stringResultColumnIndex = record.getColumn();
+        } else if (cachedResultType == CellType.BOOLEAN.getCode()) {
+            rowValues.put(record.getColumn(), CellType.BOOLEAN);
+        } else if (cachedResultType == CellType.ERROR.getCode()) {
+            rowValues.put(record.getColumn(), CellType.ERROR);
+        } else {
+            rowValues.putNumber(record.getColumn(), record.getValue());
+        }
+    }
+
+    private void processRowEnd(int rowIndex) {
+        if (rowIndex < rowDecodePlan.getFirstDataRow()) {
+            return;
+        }
+        // 缺失的行同样会收到行结束记录，此类行不包含任何单元格，按照空白行处理。
+        boolean blank = rowDecodePlan.isBlankRow(rowValues);
+        blankRowCounter.countRow(rowIndex, blank);
+        if (blank || blankRowCounter.isThresholdReached()) {
+            return;
+        }
+        rowDecodePlan.loadRow(
+                rowValues, rowBuffer, sheetName, sheetName, rowIndex, consumingDetailSink, importErrorAggregator
+        );
+    }
+}
@@ -0,0 +1,167 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.service.ConsumingDetailMaintainService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消耗明细流水线。
+ *
+ * <p>
+ * 接收的消耗明细每满一个批次便放入有界队列，由独立的插入线程依次插入到维护服务中；
+ * 队列已满时解析线程阻塞，因此内存中保留的消耗明细不超过队列容量对应的数量。
+ *
+ * <p>
+ * 插入线程异常终止或者解析线程在交付时被中断时，接收方法抛出异常，解析随之中止。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class ConsumingDetailPipeline implements ConsumingDetailSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsumingDetailPipeline.class);
+
+    /**
+     * 等待队列的线程检查插入线程状态的时间间隔（毫秒）。
+     */
+    private static final long OFFER_INTERVAL = 100;
+
+    private final ConsumingDetailMaintainService consumingDetailMaintainService;
+    private final int batchSize;
+
+    private final List<ConsumingDetail> endOfPipeline = new ArrayList<>();
+
+    private final BlockingQueue<List<ConsumingDetail>> queue;
+    private final List<UuidKey> insertedKeys = new ArrayList<>();
+    private final Thread thread = new Thread(this::consume, "data-import-pipeline");
+
+    private List<ConsumingDetail> batch;
+    private int size = 0;
+    private boolean finished = false;
+
+    private volatile Exception failure = null;
+
+    private long insertNanos = 0;
+
+    /**
+     * 创建流水线。
+     *
+     * @param consumingDetailMaintainService 消耗明细维护服务。
+     * @param batchSize                      每个批次的消耗明细数量。
+     * @param queueCapacity                  队列中最多容纳的批次数量。
+     */
+    public ConsumingDetailPipeline(
+            ConsumingDetailMaintainService consumingDetailMaintainService, int batchSize, int queueCapacity
+    ) {
+        this.consumingDetailMaintainService = consumingDetailMaintainService;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    public void start() {
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void accept(ConsumingDetail consumingDetail) {
+        batch.add(consumingDetail);
+        size++;
+        if (batch.size() >= batchSize) {
+            // 先换上新的批次再交付，交付失败时已满的批次不会残留在当前批次中。
+            List<ConsumingDetail> fullBatch = batch;
+            batch = new ArrayList<>(batchSize);
+            deliver(fullBatch);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<UuidKey> finish() throws Exception {
+        if (!batch.isEmpty()) {
+            List<ConsumingDetail> lastBatch = batch;
+            batch = new ArrayList<>(0);
+            deliver(lastBatch);
+        }
+        deliver(endOfPipeline);
+        thread.join();
+        if (Objects.nonNull(failure)) {
+            throw failure;
+        }
+        finished = true;
+        return insertedKeys;
+    }
+
+    @Override
+    public long getInsertNanos() {
+        return insertNanos;
+    }
+
+    @Override
+    public void abort() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("等待流水线插入线程结束时被中断，已经插入的数据将不会被撤销");
+            return;
+        }
+        try {
+            consumingDetailMaintainService.batchDeleteIfExists(insertedKeys);
+        } catch (Exception e) {
+            LOGGER.warn("撤销流水线已经插入的数据时出现异常，异常信息为: ", e);
+        }
+    }
+
+    private void deliver(List<ConsumingDetail> consumingDetails) {
+        try {
+            // 队列已满时等待插入线程取走批次，插入线程异常终止时不再等待。
+            while (!queue.offer(consumingDetails, OFFER_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (!thread.isAlive()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // 恢复中断状态，异常向外抛出，解析随之中止，不再继续读取后续的行。
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("向流水线交付数据时被中断", e);
+        }
+        if (Objects.nonNull(failure)) {
+            throw new IllegalStateException("流水线插入数据时出现异常", failure);
+        }
+    }
+
+    private void consume() {
+        try {
+            List<ConsumingDetail> consumingDetails;
+            while ((consumingDetails = queue.take()) != endOfPipeline) {
+                long beginNanos = System.nanoTime();
+                insertedKeys.addAll(consumingDetailMaintainService.batchInsert(consumingDetails));
+                insertNanos += System.nanoTime() - beginNanos;
+            }
+        } catch (InterruptedException e) {
+            // 流水线被终止，直接结束。
+        } catch (Exception e) {
+            failure = e;
+        }
+    }
+}
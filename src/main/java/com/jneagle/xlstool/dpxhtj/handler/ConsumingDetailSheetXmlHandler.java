@@ -0,0 +1,217 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+import com.jneagle.xlstool.dpxhtj.structure.StringDictionary;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 事件模型下 xlsx 工作簿的 XML 处理器。
+ *
+ * <p>
+ * 直接读取工作簿 XML 中单元格的类型与缓存的取值，记录到单元格取值中，
+ * 与用户模型经由相同的规则转换为字段的值。事件模型不计算公式，与用户模型的 cached 策略相同，缓存结果缺失的公式单元格视为空白。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class ConsumingDetailSheetXmlHandler extends DefaultHandler {
+
+    private final RowDecodePlan rowDecodePlan;
+    private final SharedStrings sharedStrings;
+    private final String sheetName;
+    private final ConsumingDetailSink consumingDetailSink;
+    private final ImportErrorAggregator importErrorAggregator;
+    private final BlankRowCounter blankRowCounter;
+
+    private final RowBuffer rowBuffer;
+
+    private final CellRowValues rowValues;
+    private final StringBuilder value = new StringBuilder();
+
+    private int rowIndex = -1;
+    private int columnIndex = -1;
+    private String cellDataType;
+    private boolean formula;
+    private boolean valuePresent;
+    private boolean valueOpen;
+    private boolean inlineStringOpen;
+    private boolean phoneticRunOpen;
+
+    public ConsumingDetailSheetXmlHandler(
+            RowDecodePlan rowDecodePlan, SharedStrings sharedStrings, String sheetName,
+            ConsumingDetailSink consumingDetailSink, List<ImportErrorInfo> importErrorInfos,
+            StringDictionary stringDictionary
+    ) {
+        this.rowDecodePlan = rowDecodePlan;
+        this.blankRowCounter = rowDecodePlan.newBlankRowCounter();
+        this.rowValues = new CellRowValues(rowDecodePlan.getRowValueLength());
+        this.sharedStrings = sharedStrings;
+        this.sheetName = sheetName;
+        this.consumingDetailSink = consumingDetailSink;
+        this.importErrorAggregator = new ImportErrorAggregator(importErrorInfos);
+        this.rowBuffer = new RowBuffer(stringDictionary);
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if (Objects.nonNull(uri) && !uri.equals(XSSFRelation.NS_SPREADSHEETML)) {
+            return;
+        }
+        switch (localName) {
+            case "row":
+                // 行号与单元格引用均可省略，省略时紧随上一行或上一个单元格。
+                String rowReference = attributes.getValue("r");
+                rowIndex = Objects.isNull(rowReference) ? rowIndex + 1 : Integer.parseInt(rowReference) - 1;
+                columnIndex = -1;
+                rowValues.clear();
+                break;
+            case "c":
+                String cellReference = attributes.getValue("r");
+                columnIndex = Objects.isNull(cellReference) ? columnIndex + 1 : columnIndexOf(cellReference);
+                cellDataType = attributes.getValue("t");
+                formula = false;
+                valuePresent = false;
+                value.setLength(0);
+                break;
+            case "f":
+                formula = true;
+                break;
+            case "v":
+                valuePresent = true;
+                valueOpen = true;
+                break;
+            case "is":
+                valuePresent = true;
+                inlineStringOpen = true;
+                break;
+            case "t":
+                // 与用户模型保持一致，内联字符串中的注音不计入文本。
+                valueOpen = inlineStringOpen && !phoneticRunOpen;
+                break;
+            case "rPh":
+                phoneticRunOpen = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        if (Objects.nonNull(uri) && !uri.equals(XSSFRelation.NS_SPREADSHEETML)) {
+            return;
+        }
+        switch (localName) {
+            case "v":
+            case "t":
+                valueOpen = false;
+                break;
+            case "is":
+                inlineStringOpen = false;
+                break;
+            case "rPh":
+                phoneticRunOpen = false;
+                break;
+            case "c":
+                endCell();
+                break;
+            case "row":
+                endRow();
+                break;
+            case "sheetData":
+                importErrorAggregator.flush();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (valueOpen) {
+            value.append(ch, start, length);
+        }
+    }
+
+    // 单元格类型的判断与 XSSFCell 保持一致。
+    private void endCell() {
+        String dataType = Objects.isNull(cellDataType) ? "n" : cellDataType;
+        switch (dataType) {
+            case "s":
+                rowValues.putString(
+                        columnIndex,
+                        valuePresent ? sharedStrings.getItemAt(Integer.parseInt(value.toString())).getString() : ""
+                );
+                break;
+            case "str":
+            case "inlineStr":
+                rowValues.putString(columnIndex, decodeText(value.toString()));
+                break;
+            case "b":
+                rowValues.put(columnIndex, CellType.BOOLEAN);
+                break;
+            case "e":
+                rowValues.put(columnIndex, CellType.ERROR);
+                break;
+            default:
+                // 缺少取值的数值单元格为空白单元格；事件模型不计算公式，与 cached 策略一样，缺少缓存结果的公式单元格视为空白。
+                if (!valuePresent) {
+                    break;
+                }
+                if (value.length() == 0) {
+                    rowValues.putNumber(columnIndex, 0);
+                } else {
+                    rowValues.putNumberText(columnIndex, value.toString());
+                }
+                break;
+        }
+        if (formula && !valuePresent) {
+            rowValues.put(columnIndex, CellType.BLANK);
+        }
+    }
+
+    private void endRow() {
+        if (rowIndex < rowDecodePlan.getFirstDataRow()) {
+            return;
+        }
+        boolean blank = rowDecodePlan.isBlankRow(rowValues);
+        blankRowCounter.countRow(rowIndex, blank);
+        // 连续的空白行达到阈值时中止当前工作簿的解析，不再读取后续的行。
+        if (blankRowCounter.isThresholdReached()) {
+            importErrorAggregator.flush();
+            throw new SheetStoppedException();
+        }
+        if (blank) {
+            return;
+        }
+        rowDecodePlan.loadRow(
+                rowValues, rowBuffer, sheetName, sheetName, rowIndex, consumingDetailSink, importErrorAggregator
+        );
+    }
+
+    // 文本中的 _xHHHH_ 转义序列由 XSSFRichTextString 解码，不含转义序列的文本无需创建富文本对象。
+    private String decodeText(String text) {
+        return text.contains("_x") ? new XSSFRichTextString(text).getString() : text;
+    }
+
+    // 直接解析单元格引用中的列字母，避免为每个单元格创建 CellReference 对象。
+    private int columnIndexOf(String cellReference) {
+        int columnIndex = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            columnIndex = columnIndex * 26 + (c - 'A' + 1);
+        }
+        return columnIndex - 1;
+    }
+}
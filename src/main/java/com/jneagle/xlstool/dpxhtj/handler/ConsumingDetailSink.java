@@ -0,0 +1,62 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+
+import java.util.List;
+
+/**
+ * 消耗明细接收器。
+ *
+ * <p>
+ * 解析过程将成功读取的消耗明细依次交给接收器。
+ * 接收器自身的异常（如插入数据失败、交付时被中断）不属于某一行数据的错误，会直接向外抛出，中止整个导入过程。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+interface ConsumingDetailSink {
+
+    /**
+     * 接收一条消耗明细。
+     *
+     * @param consumingDetail 消耗明细。
+     */
+    void accept(ConsumingDetail consumingDetail);
+
+    /**
+     * 获取已经接收的消耗明细的数量。
+     *
+     * @return 已经接收的消耗明细的数量。
+     */
+    int size();
+
+    /**
+     * 结束接收，确保所有消耗明细都已插入到维护服务中，并返回所有插入数据的主键。
+     *
+     * <p>
+     * 主键的顺序与消耗明细接收的顺序一致。
+     *
+     * @return 所有插入数据的主键。
+     * @throws Exception 插入过程中发生的任何异常。
+     */
+    List<UuidKey> finish() throws Exception;
+
+    /**
+     * 获取插入数据的耗时。
+     *
+     * <p>
+     * 该方法应在 {@link #finish()} 返回之后调用。
+     *
+     * @return 插入数据的耗时。
+     */
+    long getInsertNanos();
+
+    /**
+     * 终止接收，并撤销已经插入的数据。
+     *
+     * <p>
+     * 正常结束后调用此方法没有任何效果。
+     */
+    void abort();
+}
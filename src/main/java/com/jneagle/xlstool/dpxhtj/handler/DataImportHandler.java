@@ -1,8 +1,10 @@
 package com.jneagle.xlstool.dpxhtj.handler;
 
 import com.dwarfeng.subgrade.stack.exception.HandlerException;
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportFileInfo;
 
 import java.io.File;
+import java.util.List;
 
 /**
  * 数据导入处理器。
@@ -20,4 +22,33 @@ public interface DataImportHandler extends ProgressHandler {
      * @throws HandlerException 处理器异常。
      */
     void execImport(File file, String password) throws HandlerException;
+
+    /**
+     * 执行批量导入动作。
+     *
+     * <p>
+     * 多个文件的解密与解析并行进行，各文件的结果按照列表中的顺序添加。
+     *
+     * <p>
+     * 未启用流水线时，消耗明细在全部文件导入完成后一次性添加，导入过程中不可见。
+     * 启用流水线时，消耗明细在解析的同时按批次添加，导入过程中即可查询到已经添加的部分；
+     * 导入失败时，已经添加的消耗明细会被撤销。
+     * 两种方式下，导入错误信息均在全部文件导入完成后一次性添加。
+     *
+     * @param importFileInfos 导入文件信息组成的列表，每个文件可以使用各自的密码。
+     * @throws HandlerException 处理器异常。
+     * @since 1.2.0
+     */
+    void execBatchImport(List<ImportFileInfo> importFileInfos) throws HandlerException;
+
+    /**
+     * 清除增量导入使用的文件导入记录。
+     *
+     * <p>
+     * 清除后再次导入的文件均按照首次导入处理。
+     *
+     * @throws HandlerException 处理器异常。
+     * @since 1.2.0
+     */
+    void clearImportRecords() throws HandlerException;
 }
@@ -1,42 +1,119 @@
 package com.jneagle.xlstool.dpxhtj.handler;
 
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
 import com.dwarfeng.subgrade.stack.exception.HandlerException;
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportCacheData;
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportFileInfo;
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportMetrics;
+import com.jneagle.xlstool.dpxhtj.bean.dto.LockWaitMetrics;
+import com.jneagle.xlstool.dpxhtj.bean.dto.SheetImportMetrics;
 import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
 import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
 import com.jneagle.xlstool.dpxhtj.exception.WrongPasswordException;
 import com.jneagle.xlstool.dpxhtj.service.ConsumingDetailMaintainService;
 import com.jneagle.xlstool.dpxhtj.service.ImportErrorInfoMaintainService;
 import com.jneagle.xlstool.dpxhtj.structure.ProgressStatus;
+import com.jneagle.xlstool.dpxhtj.structure.StringDictionary;
+import com.jneagle.xlstool.dpxhtj.util.Constants;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.model.InternalWorkbook;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ooxml.POIXMLTypeLoader;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.openxml4j.opc.ZipPackagePart;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
 import org.apache.poi.poifs.crypt.Decryptor;
 import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.ss.util.CellUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheet;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
+import javax.annotation.PostConstruct;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Component
 public class DataImportHandlerImpl extends AbstractProgressHandler implements DataImportHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DataImportHandlerImpl.class);
 
+    /**
+     * 计算文件以及工作簿指纹时使用的摘要算法。
+     */
+    private static final String FINGERPRINT_ALGORITHM = "MD5";
+
     private final ConsumingDetailMaintainService consumingDetailMaintainService;
     private final ImportErrorInfoMaintainService importErrorInfoMaintainService;
 
+    private final ThreadPoolTaskExecutor executor;
+
+    private final ImportCacheHandler importCacheHandler;
+
     @Value("${data_import.valid_sheet_name_regex}")
     private String validSheetNameRegex;
+    @Value("${data_import.parse_mode}")
+    private String parseMode;
+    @Value("${data_import.parallel_sheet_import}")
+    private boolean parallelSheetImport;
+    @Value("${data_import.formula_evaluation_policy}")
+    private String formulaEvaluationPolicy;
+    @Value("${data_import.incremental_import}")
+    private boolean incrementalImport;
+    @Value("${data_import.incremental_import.max_record_count}")
+    private int maxFileImportRecordCount;
+    @Value("${data_import.row_cache.enabled}")
+    private boolean rowCacheEnabled;
+    @Value("${data_import.pipeline.enabled}")
+    private boolean pipelineEnabled;
+    @Value("${data_import.pipeline.batch_size}")
+    private int pipelineBatchSize;
+    @Value("${data_import.pipeline.queue_capacity}")
+    private int pipelineQueueCapacity;
     @Value("${data_import.data_sheet.first_data_row}")
     private int firstDataRow;
 
+    @Value("${data_import.data_sheet.blank_row_stop_threshold}")
+    private int blankRowStopThreshold;
+
     @Value("${data_import.data_sheet.column_index.tool_cutter_type}")
     private int toolCutterTypeColumnIndex;
     @Value("${data_import.data_sheet.column_index.device}")
@@ -56,53 +133,146 @@ public class DataImportHandlerImpl extends AbstractProgressHandler implements Da
     @Value("${data_import.data_sheet.column_index.returning_usage_info}")
     private int returningUsageInfoColumnIndex;
 
+    @Value("${data_import.csv.charset}")
+    private String csvCharsetName;
+    @Value("${data_import.csv.chunk_size}")
+    private int csvChunkSize;
+    @Value("${data_import.csv.column_index.tool_cutter_code}")
+    private int csvToolCutterCodeColumnIndex;
+
+    private Pattern validSheetNamePattern;
+    private RowDecodePlan rowDecodePlan;
+    private Charset csvCharset;
+    private int csvRowValueLength;
+    private String configFingerprint;
+
+    /**
+     * 文件导入记录，键为文件的规范路径。
+     */
+    private Map<String, FileImportRecord> fileImportRecordMap;
+
     public DataImportHandlerImpl(
             ConsumingDetailMaintainService consumingDetailMaintainService,
-            ImportErrorInfoMaintainService importErrorInfoMaintainService
+            ImportErrorInfoMaintainService importErrorInfoMaintainService,
+            ThreadPoolTaskExecutor executor,
+            ImportCacheHandler importCacheHandler
     ) {
         this.consumingDetailMaintainService = consumingDetailMaintainService;
         this.importErrorInfoMaintainService = importErrorInfoMaintainService;
+        this.executor = executor;
+        this.importCacheHandler = importCacheHandler;
+    }
+
+    @PostConstruct
+    public void init() throws Exception {
+        // 工作簿名称的正则表达式只编译一次，在解析工作簿之前用于筛选工作簿。
+        validSheetNamePattern = Pattern.compile(validSheetNameRegex);
+
+        // 将各列的索引编译为解码计划，读取每一行时只需依次执行列提取器。
+        rowDecodePlan = new RowDecodePlan(
+                toolCutterTypeColumnIndex, deviceColumnIndex, consumingQuantityColumnIndex, worthColumnIndex,
+                consumingPersonColumnIndex, consumingDateColumnIndex, remarkColumnIndex,
+                returningQuantityColumnIndex, returningUsageInfoColumnIndex, firstDataRow, blankRowStopThreshold
+        );
+
+        // 文件导入记录的数量上限来自配置，因此在初始化时创建映射。
+        fileImportRecordMap = Collections.synchronizedMap(new FileImportRecordMap(maxFileImportRecordCount));
+
+        // CSV 文件的字符集在初始化时检查，配置有误时尽早失败。
+        csvCharset = Charset.forName(csvCharsetName);
+        if (csvChunkSize <= 0) {
+            throw new IllegalArgumentException("CSV 文件的分块大小必须大于 0: " + csvChunkSize);
+        }
+        csvRowValueLength = Math.max(rowDecodePlan.getRowValueLength(), csvToolCutterCodeColumnIndex + 1);
+
+        // 影响解析结果的配置共同组成配置指纹，任意一项变化都会使已有的导入缓存失效。
+        String config = StringUtils.join(new Object[]{
+                parseMode, formulaEvaluationPolicy, validSheetNameRegex, firstDataRow, blankRowStopThreshold,
+                toolCutterTypeColumnIndex, deviceColumnIndex, consumingQuantityColumnIndex, worthColumnIndex,
+                consumingPersonColumnIndex, consumingDateColumnIndex, remarkColumnIndex, returningQuantityColumnIndex,
+                returningUsageInfoColumnIndex, csvCharset.name(), csvToolCutterCodeColumnIndex
+        }, '\n');
+        configFingerprint = toHexString(MessageDigest.getInstance(FINGERPRINT_ALGORITHM).digest(
+                config.getBytes(StandardCharsets.UTF_8)
+        ));
     }
 
     @Override
     public void execImport(File file, String password) throws HandlerException {
+        execBatchImport(Collections.singletonList(new ImportFileInfo(file, password)));
+    }
+
+    @Override
+    public void clearImportRecords() {
+        fileImportRecordMap.clear();
+    }
+
+    @Override
+    public void execBatchImport(List<ImportFileInfo> importFileInfos) throws HandlerException {
+        ConsumingDetailSink consumingDetailSink = null;
         try {
             // 广播进度变更事件。
             fireProgressChanged(ProgressStatus.UNCERTAIN);
 
-            // 执行加载动作。
-            Workbook workbook = parseWorkbook(file, password);
-
-            // 遍历表格的所有工作簿，获取名称有效的工作簿。
-            Iterator<Sheet> sheetIterator = workbook.sheetIterator();
-            List<Sheet> sheets = new ArrayList<>();
-            while (sheetIterator.hasNext()) {
-                Sheet sheet = sheetIterator.next();
-                if (sheet.getSheetName().matches(validSheetNameRegex)) {
-                    sheets.add(sheet);
-                }
+            // 定义消耗明细的接收器与错误信息列表。
+            // 启用流水线时，消耗明细按批次交给插入线程，解析与插入同时进行；否则保留在内存中，解析结束后一次性插入。
+            if (pipelineEnabled) {
+                ConsumingDetailPipeline pipeline = new ConsumingDetailPipeline(
+                        consumingDetailMaintainService, pipelineBatchSize, pipelineQueueCapacity
+                );
+                pipeline.start();
+                consumingDetailSink = pipeline;
+            } else {
+                consumingDetailSink = new ConsumingDetailBuffer(consumingDetailMaintainService);
             }
+            List<ImportErrorInfo> importErrorInfos = new ArrayList<>();
 
-            // 获取工作表的公式计算器。
-            FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            // 本次导入使用的字符串字典，取值种类较少的字段中内容相同的值共享同一个实例。
+            StringDictionary stringDictionary = new StringDictionary();
 
-            // 定义数据列表。
-            List<ConsumingDetail> consumingDetails = new ArrayList<>();
-            List<ImportErrorInfo> importErrorInfos = new ArrayList<>();
+            // 本次导入的指标记录器，进度变更事件中携带截至当时的导入指标。
+            ImportMetricsRecorder importMetricsRecorder = new ImportMetricsRecorder();
 
-            // 设置总体进度。
-            int progress = 0;
-            fireProgressChanged(progress, sheets.size());
+            // 单个文件直接在当前线程中导入，多个文件则并行解密、解析。
+            List<FileImportRecord> fileImportRecords;
+            if (importFileInfos.size() == 1) {
+                ImportFileInfo importFileInfo = importFileInfos.get(0);
+                fileImportRecords = Collections.singletonList(execImportSingleFile(
+                        importFileInfo.getFile(), importFileInfo.getPassword(), consumingDetailSink, importErrorInfos,
+                        stringDictionary, importMetricsRecorder,
+                        (progress, total) -> fireProgressChanged(
+                                new ProgressStatus(progress, total, importMetricsRecorder.snapshot())
+                        )
+                ));
+            } else {
+                fileImportRecords = execImportMultipleFiles(
+                        importFileInfos, consumingDetailSink, importErrorInfos, stringDictionary, importMetricsRecorder
+                );
+            }
 
-            // 遍历所有有效工作簿，导入单个工作簿。
-            for (Sheet sheet : sheets) {
-                execImportSingleSheet(evaluator, sheet, consumingDetails, importErrorInfos);
-                fireProgressChanged(++progress, sheets.size());
+            // 将所有文件的结果实体批量添加到维护服务中，流水线模式下等待插入线程处理完剩余的批次。
+            // 流水线的插入与解析同时进行，记录的是插入实际花费的时间。
+            List<UuidKey> consumingDetailKeys = consumingDetailSink.finish();
+            importMetricsRecorder.recordInsert(consumingDetailSink.getInsertNanos());
+            long insertBeginNanos = System.nanoTime();
+            List<UuidKey> importErrorInfoKeys = importErrorInfoMaintainService.batchInsert(importErrorInfos);
+            importMetricsRecorder.recordInsert(System.nanoTime() - insertBeginNanos);
+
+            // 增量导入时，删除文件中已经变更或者已经不存在的工作簿在上一次导入时产生的实体，
+            // 删除在插入成功之后进行，插入失败时保留上一次导入的数据。
+            // 随后记录本次导入的实体主键，供下一次导入时使用。
+            if (incrementalImport) {
+                deleteObsoleteEntities(fileImportRecords);
+                updateFileImportRecords(fileImportRecords, consumingDetailKeys, importErrorInfoKeys);
             }
 
-            // 将结果实体批量添加到维护服务中。
-            consumingDetailMaintainService.batchInsert(consumingDetails);
-            importErrorInfoMaintainService.batchInsert(importErrorInfos);
+            // 广播并输出本次导入的最终指标。
+            ImportMetrics importMetrics = importMetricsRecorder.snapshot();
+            fireProgressChanged(new ProgressStatus(
+                    ProgressStatus.IDLE.getCurrent(), ProgressStatus.IDLE.getTotal(), importMetrics
+            ));
+            logImportMetrics(importMetrics);
+            logLockWaitMetrics(consumingDetailMaintainService.getLockWaitMetrics());
         } catch (org.apache.poi.EncryptedDocumentException e) {
             throw new WrongPasswordException(e);
         } catch (HandlerException e) {
@@ -110,28 +280,790 @@ public class DataImportHandlerImpl extends AbstractProgressHandler implements Da
         } catch (Exception e) {
             throw new HandlerException(e);
         } finally {
+            // 导入没有正常结束时，终止接收器并撤销已经插入的数据。
+            if (Objects.nonNull(consumingDetailSink)) {
+                consumingDetailSink.abort();
+            }
             // 广播进度变更事件。
             fireProgressChanged(ProgressStatus.IDLE);
         }
     }
 
-    private Workbook parseWorkbook(File file, String password) throws Exception {
-        try (InputStream in = Files.newInputStream(file.toPath())) {
-            if (StringUtils.isNotEmpty(password)) {
-                POIFSFileSystem pfs = new POIFSFileSystem(in);
-                EncryptionInfo encInfo = new EncryptionInfo(pfs);
-                Decryptor decryptor = Decryptor.getInstance(encInfo);
-                decryptor.verifyPassword(password);
-                return WorkbookFactory.create(decryptor.getDataStream(pfs));
+    private List<FileImportRecord> execImportMultipleFiles(
+            List<ImportFileInfo> importFileInfos, ConsumingDetailSink consumingDetailSink,
+            List<ImportErrorInfo> importErrorInfos, StringDictionary stringDictionary,
+            ImportMetricsRecorder importMetricsRecorder
+    ) throws Exception {
+        // 每个文件作为一个导入任务，文件内部的进度汇总为总体进度。
+        BatchImportProgress batchImportProgress = new BatchImportProgress(
+                importFileInfos.size(), importMetricsRecorder, this::fireProgressChanged
+        );
+        FileImportRecord[] fileImportRecords = new FileImportRecord[importFileInfos.size()];
+        List<ImportTask> tasks = new ArrayList<>();
+        for (int i = 0; i < importFileInfos.size(); i++) {
+            ImportFileInfo importFileInfo = importFileInfos.get(i);
+            int fileIndex = i;
+            tasks.add((fileConsumingDetailSink, fileImportErrorInfos) -> {
+                fileImportRecords[fileIndex] = execImportSingleFile(
+                        importFileInfo.getFile(), importFileInfo.getPassword(), fileConsumingDetailSink,
+                        fileImportErrorInfos, stringDictionary, importMetricsRecorder,
+                        (progress, total) -> batchImportProgress.update(fileIndex, progress, total)
+                );
+                // 文件中可能没有有效的工作簿，导入结束后将该文件的进度置满。
+                batchImportProgress.update(fileIndex, 1, 1);
+            });
+        }
+
+        // 执行导入任务，结束后不再接受工作线程的进度更新。
+        try {
+            execImportTasks(tasks, true, consumingDetailSink, importErrorInfos, (progress, total) -> {
+            });
+        } finally {
+            batchImportProgress.close();
+        }
+        return Arrays.asList(fileImportRecords);
+    }
+
+    private FileImportRecord execImportSingleFile(
+            File file, String password, ConsumingDetailSink consumingDetailSink,
+            List<ImportErrorInfo> importErrorInfos, StringDictionary stringDictionary,
+            ImportMetricsRecorder importMetricsRecorder, ImportProgressListener listener
+    ) throws Exception {
+        // 增量导入时，如果文件的内容与上一次导入时相同，且上一次导入的实体仍然存在，则跳过该文件。
+        // 保留修改时间的复制同样会改变文件的内容，因此不根据修改时间判断，而是比较文件内容的指纹。
+        String fileKey = file.getCanonicalPath();
+        long fileSize = file.length();
+        long lastModified = file.lastModified();
+        FileImportRecord previousFileImportRecord = null;
+        byte[] contentFingerprint = null;
+        if (incrementalImport) {
+            previousFileImportRecord = fileImportRecordMap.get(fileKey);
+            contentFingerprint = fingerprintFileContent(file);
+        }
+        if (Objects.nonNull(previousFileImportRecord) &&
+                previousFileImportRecord.matches(fileSize, contentFingerprint) &&
+                isFileImportRecordAlive(previousFileImportRecord)) {
+            listener.onProgressChanged(1, 1);
+            return previousFileImportRecord;
+        }
+        FileImportRecord fileImportRecord = new FileImportRecord(fileKey, fileSize, contentFingerprint);
+
+        // 如果存在相同文件、相同配置的导入缓存，则直接从缓存中读取数据，不再解析文件。
+        // 缓存同样以文件的规范路径、大小与修改时间标识文件，查找缓存时无需读取文件的内容。
+        // 加密文件的数据不应以明文的形式缓存到本地，因此只缓存没有密码的文件。
+        boolean cacheable = rowCacheEnabled && StringUtils.isEmpty(password);
+        String cacheKey = null;
+        if (cacheable) {
+            cacheKey = fingerprintFile(fileKey, fileSize, lastModified) + "-" + configFingerprint;
+            SheetMetricsCounter cacheMetricsCounter = new SheetMetricsCounter();
+            ImportCacheData importCacheData = importCacheHandler.get(cacheKey);
+            if (Objects.nonNull(importCacheData)) {
+                SheetImportRecord sheetImportRecord = new SheetImportRecord(null, null);
+                // 缓存中读取的每个字符串都是独立的实例，同样需要经过字典。
+                for (ConsumingDetail consumingDetail : importCacheData.getConsumingDetails()) {
+                    internConsumingDetail(stringDictionary, consumingDetail);
+                    consumingDetailSink.accept(consumingDetail);
+                }
+                importErrorInfos.addAll(importCacheData.getImportErrorInfos());
+                sheetImportRecord.setImportedCount(
+                        importCacheData.getConsumingDetails().size(), importCacheData.getImportErrorInfos().size()
+                );
+                fileImportRecord.getSheetImportRecords().add(sheetImportRecord);
+                // 读取缓存的耗时全部计为读取耗时。
+                cacheMetricsCounter.countRows(
+                        importCacheData.getConsumingDetails().size(), importCacheData.getImportErrorInfos(), 0
+                );
+                cacheMetricsCounter.recordRead(0, cacheMetricsCounter.getElapsedNanos());
+                importMetricsRecorder.record(cacheMetricsCounter.finish(file.getName(), null));
+                listener.onProgressChanged(1, 1);
+                return fileImportRecord;
+            }
+        }
+        int consumingDetailBeginIndex = consumingDetailSink.size();
+        int importErrorInfoBeginIndex = importErrorInfos.size();
+
+        // 根据解析模式以及文件的格式，选择导入的方式，CSV 文件的导入方式与解析模式无关。
+        FileFormat fileFormat = detectTextFileFormat(file);
+        if (fileFormat == FileFormat.OTHER && Objects.equals(parseMode, Constants.IMPORT_PARSE_MODE_EVENT_MODEL)) {
+            fileFormat = detectFileFormat(file);
+        }
+        if (fileFormat == FileFormat.XLSX) {
+            execXlsxEventModelImport(
+                    file, password, consumingDetailSink, importErrorInfos, stringDictionary, importMetricsRecorder,
+                    listener, previousFileImportRecord, fileImportRecord
+            );
+        } else {
+            // 其它导入方式无法单独读取某个工作簿，以整个文件为单位记录导入结果。
+            SheetImportRecord sheetImportRecord = new SheetImportRecord(null, null);
+            if (fileFormat == FileFormat.XLS) {
+                execXlsEventModelImport(
+                        file, password, consumingDetailSink, importErrorInfos, stringDictionary, importMetricsRecorder,
+                        listener
+                );
+            } else if (fileFormat == FileFormat.CSV || fileFormat == FileFormat.TSV) {
+                execDelimitedTextImport(
+                        file, fileFormat == FileFormat.CSV, consumingDetailSink, importErrorInfos, stringDictionary,
+                        importMetricsRecorder, listener
+                );
             } else {
-                return WorkbookFactory.create(in);
+                execUserModelImport(
+                        file, password, consumingDetailSink, importErrorInfos, stringDictionary, importMetricsRecorder,
+                        listener
+                );
+            }
+            sheetImportRecord.setImportedCount(
+                    consumingDetailSink.size() - consumingDetailBeginIndex,
+                    importErrorInfos.size() - importErrorInfoBeginIndex
+            );
+            fileImportRecord.getSheetImportRecords().add(sheetImportRecord);
+        }
+
+        // 只有完整解析的文件才能写入缓存，增量导入时沿用了上一次导入记录的工作簿没有被解析。
+        // 流水线中的解析结果已经交给插入线程，不在内存中保留，只有缓冲区中的解析结果才能写入缓存。
+        boolean fullyParsed = fileImportRecord.getSheetImportRecords().stream()
+                .allMatch(sheetImportRecord -> Objects.isNull(sheetImportRecord.getConsumingDetailKeys()));
+        if (cacheable && fullyParsed && consumingDetailSink instanceof ConsumingDetailBuffer) {
+            List<ConsumingDetail> consumingDetails =
+                    ((ConsumingDetailBuffer) consumingDetailSink).getConsumingDetails();
+            putImportCache(
+                    cacheKey,
+                    consumingDetails.subList(consumingDetailBeginIndex, consumingDetails.size()),
+                    importErrorInfos.subList(importErrorInfoBeginIndex, importErrorInfos.size())
+            );
+        }
+        return fileImportRecord;
+    }
+
+    private void putImportCache(
+            String cacheKey, List<ConsumingDetail> consumingDetails, List<ImportErrorInfo> importErrorInfos
+    ) {
+        // 缓存只用于加速导入，写入失败不影响导入的结果。
+        try {
+            importCacheHandler.put(cacheKey, new ImportCacheData(consumingDetails, importErrorInfos));
+        } catch (Exception e) {
+            LOGGER.warn("写入导入缓存时出现异常，异常信息为: ", e);
+        }
+    }
+
+    private static void internConsumingDetail(StringDictionary stringDictionary, ConsumingDetail consumingDetail) {
+        consumingDetail.setToolCutterType(stringDictionary.intern(consumingDetail.getToolCutterType()));
+        consumingDetail.setDevice(stringDictionary.intern(consumingDetail.getDevice()));
+        consumingDetail.setConsumingPerson(stringDictionary.intern(consumingDetail.getConsumingPerson()));
+        consumingDetail.setToolCutterCode(stringDictionary.intern(consumingDetail.getToolCutterCode()));
+        consumingDetail.setReturningUsageInfo(stringDictionary.intern(consumingDetail.getReturningUsageInfo()));
+    }
+
+    private void deleteObsoleteEntities(List<FileImportRecord> fileImportRecords) throws Exception {
+        List<UuidKey> consumingDetailKeys = new ArrayList<>();
+        List<UuidKey> importErrorInfoKeys = new ArrayList<>();
+        for (FileImportRecord fileImportRecord : fileImportRecords) {
+            FileImportRecord previousFileImportRecord = fileImportRecordMap.get(fileImportRecord.getFileKey());
+            if (Objects.isNull(previousFileImportRecord) || previousFileImportRecord == fileImportRecord) {
+                continue;
+            }
+            for (SheetImportRecord sheetImportRecord : previousFileImportRecord.getSheetImportRecords()) {
+                if (fileImportRecord.getSheetImportRecords().contains(sheetImportRecord)) {
+                    continue;
+                }
+                consumingDetailKeys.addAll(sheetImportRecord.getConsumingDetailKeys());
+                importErrorInfoKeys.addAll(sheetImportRecord.getImportErrorInfoKeys());
+            }
+        }
+        // 数据可能已经被用户清除，因此只删除仍然存在的实体。
+        consumingDetailMaintainService.batchDeleteIfExists(consumingDetailKeys);
+        importErrorInfoMaintainService.batchDeleteIfExists(importErrorInfoKeys);
+    }
+
+    private void updateFileImportRecords(
+            List<FileImportRecord> fileImportRecords, List<UuidKey> consumingDetailKeys,
+            List<UuidKey> importErrorInfoKeys
+    ) {
+        // 实体的插入顺序与文件、工作簿的导入顺序一致，按照各工作簿导入的实体数量依次分配主键。
+        int consumingDetailIndex = 0;
+        int importErrorInfoIndex = 0;
+        for (FileImportRecord fileImportRecord : fileImportRecords) {
+            for (SheetImportRecord sheetImportRecord : fileImportRecord.getSheetImportRecords()) {
+                if (Objects.nonNull(sheetImportRecord.getConsumingDetailKeys())) {
+                    continue;
+                }
+                int consumingDetailEndIndex = consumingDetailIndex + sheetImportRecord.getConsumingDetailCount();
+                int importErrorInfoEndIndex = importErrorInfoIndex + sheetImportRecord.getImportErrorInfoCount();
+                sheetImportRecord.setConsumingDetailKeys(new ArrayList<>(
+                        consumingDetailKeys.subList(consumingDetailIndex, consumingDetailEndIndex)
+                ));
+                sheetImportRecord.setImportErrorInfoKeys(new ArrayList<>(
+                        importErrorInfoKeys.subList(importErrorInfoIndex, importErrorInfoEndIndex)
+                ));
+                consumingDetailIndex = consumingDetailEndIndex;
+                importErrorInfoIndex = importErrorInfoEndIndex;
+            }
+            fileImportRecordMap.put(fileImportRecord.getFileKey(), fileImportRecord);
+        }
+    }
+
+    private void logImportMetrics(ImportMetrics importMetrics) {
+        LOGGER.info(
+                "导入完成，读取 {} 行，{} 字节，耗时 {} 毫秒，{} 行/秒，其中插入数据耗时 {} 毫秒",
+                importMetrics.getRowCount(), importMetrics.getByteCount(),
+                TimeUnit.NANOSECONDS.toMillis(importMetrics.getElapsedNanos()),
+                String.format("%.1f", importMetrics.getRowsPerSecond()),
+                TimeUnit.NANOSECONDS.toMillis(importMetrics.getInsertNanos())
+        );
+        for (SheetImportMetrics sheetImportMetrics : importMetrics.getSheetImportMetrics()) {
+            LOGGER.info(
+                    "{}{}: 读取 {} 行，{} 字节，耗时 {} 毫秒（解密 {}，读取 {}，解析 {}，公式 {}），{} 行/秒",
+                    sheetImportMetrics.getFileName(),
+                    Objects.isNull(sheetImportMetrics.getSheetName()) ? "" : "/" + sheetImportMetrics.getSheetName(),
+                    sheetImportMetrics.getRowCount(), sheetImportMetrics.getByteCount(),
+                    TimeUnit.NANOSECONDS.toMillis(sheetImportMetrics.getElapsedNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(sheetImportMetrics.getDecryptNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(sheetImportMetrics.getReadNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(sheetImportMetrics.getParseNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(sheetImportMetrics.getFormulaNanos()),
+                    String.format("%.1f", sheetImportMetrics.getRowsPerSecond())
+            );
+        }
+    }
+
+    private void logLockWaitMetrics(LockWaitMetrics lockWaitMetrics) {
+        LOGGER.info(
+                "消耗详细信息累计写入 {} 次，其中等待写锁 {} 次，等待耗时 {} 毫秒，最长等待 {} 毫秒",
+                lockWaitMetrics.getAcquireCount(), lockWaitMetrics.getContendedCount(),
+                TimeUnit.NANOSECONDS.toMillis(lockWaitMetrics.getWaitNanos()),
+                TimeUnit.NANOSECONDS.toMillis(lockWaitMetrics.getMaxWaitNanos())
+        );
+    }
+
+    private boolean isFileImportRecordAlive(FileImportRecord fileImportRecord) throws Exception {
+        for (SheetImportRecord sheetImportRecord : fileImportRecord.getSheetImportRecords()) {
+            if (!isSheetImportRecordAlive(sheetImportRecord)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSheetImportRecordAlive(SheetImportRecord sheetImportRecord) throws Exception {
+        return consumingDetailMaintainService.allExists(sheetImportRecord.getConsumingDetailKeys()) &&
+                importErrorInfoMaintainService.allExists(sheetImportRecord.getImportErrorInfoKeys());
+    }
+
+    private String fingerprintFile(String fileKey, long fileSize, long lastModified) throws Exception {
+        MessageDigest messageDigest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+        messageDigest.update(fileKey.getBytes(StandardCharsets.UTF_8));
+        messageDigest.update(ByteBuffer.allocate(Long.BYTES * 2).putLong(fileSize).putLong(lastModified).array());
+        return toHexString(messageDigest.digest());
+    }
+
+    // xlsx 文件直接以压缩包目录中各条目的名称、CRC 与原始大小作为文件的指纹，只需读取压缩包的目录；
+    // 其它文件（包括加密的 xlsx 文件）没有可以直接利用的校验值，只能读取整个文件的内容计算指纹。
+    private byte[] fingerprintFileContent(File file) throws Exception {
+        if (!Objects.equals(FileMagic.valueOf(file), FileMagic.OOXML)) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                return fingerprintStream(in);
+            }
+        }
+        MessageDigest messageDigest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+        try (ZipFile zipFile = new ZipFile(file)) {
+            Enumeration<ZipArchiveEntry> entries = zipFile.getEntries();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                messageDigest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+                messageDigest.update(
+                        ByteBuffer.allocate(Long.BYTES * 2).putLong(entry.getCrc()).putLong(entry.getSize()).array()
+                );
+            }
+        }
+        return messageDigest.digest();
+    }
+
+    // 未加密的文件包直接以压缩包条目中记录的 CRC 与原始大小作为工作簿的指纹，无需解压工作簿的内容。
+    // 加密的文件包中的条目经过临时密钥的重新加密，条目信息与原始内容无关，只能读取内容计算指纹。
+    private byte[] fingerprintSheetPart(PackagePart sheetPart, boolean encrypted) throws Exception {
+        if (!encrypted && sheetPart instanceof ZipPackagePart) {
+            ZipArchiveEntry entry = ((ZipPackagePart) sheetPart).getZipArchive();
+            if (entry.getCrc() >= 0 && entry.getSize() >= 0) {
+                return ByteBuffer.allocate(Long.BYTES * 2).putLong(entry.getCrc()).putLong(entry.getSize()).array();
+            }
+        }
+        try (InputStream in = sheetPart.getInputStream()) {
+            return fingerprintStream(in);
+        }
+    }
+
+    private byte[] fingerprintStream(InputStream in) throws Exception {
+        MessageDigest messageDigest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = in.read(buffer)) != -1) {
+            messageDigest.update(buffer, 0, length);
+        }
+        return messageDigest.digest();
+    }
+
+    private static String toHexString(byte[] bytes) {
+        return String.format("%0" + (bytes.length * 2) + "x", new BigInteger(1, bytes));
+    }
+
+    private byte[] fingerprintSharedStrings(SharedStrings sharedStrings, BitSet sharedStringIndexes)
+            throws Exception {
+        MessageDigest messageDigest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+        try {
+            for (int i = sharedStringIndexes.nextSetBit(0); i >= 0; i = sharedStringIndexes.nextSetBit(i + 1)) {
+                messageDigest.update(sharedStrings.getItemAt(i).getString().getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // 共享字符串表中的条目已经减少，此时指纹必然不同。
+            return null;
+        }
+        return messageDigest.digest();
+    }
+
+    private FileFormat detectTextFileFormat(File file) {
+        // 文本文件没有可供识别的文件头，根据扩展名进行区分。
+        String extension = StringUtils.substringAfterLast(file.getName(), ".");
+        if (StringUtils.equalsIgnoreCase(extension, "csv")) {
+            return FileFormat.CSV;
+        }
+        if (StringUtils.equalsIgnoreCase(extension, "tsv")) {
+            return FileFormat.TSV;
+        }
+        return FileFormat.OTHER;
+    }
+
+    private FileFormat detectFileFormat(File file) throws Exception {
+        FileMagic fileMagic = FileMagic.valueOf(file);
+        if (Objects.equals(fileMagic, FileMagic.OOXML)) {
+            return FileFormat.XLSX;
+        }
+        if (!Objects.equals(fileMagic, FileMagic.OLE2)) {
+            return FileFormat.OTHER;
+        }
+        // 加密的 xlsx 文件与 xls 文件均使用 OLE2 容器，通过容器中的条目进行区分。
+        try (POIFSFileSystem pfs = new POIFSFileSystem(file, true)) {
+            DirectoryNode root = pfs.getRoot();
+            if (root.hasEntry(Decryptor.DEFAULT_POIFS_ENTRY)) {
+                return FileFormat.XLSX;
+            }
+            for (String entryName : InternalWorkbook.WORKBOOK_DIR_ENTRY_NAMES) {
+                if (root.hasEntry(entryName)) {
+                    return FileFormat.XLS;
+                }
+            }
+            return FileFormat.OTHER;
+        }
+    }
+
+    private void execUserModelImport(
+            File file, String password, ConsumingDetailSink consumingDetailSink,
+            List<ImportErrorInfo> importErrorInfos, StringDictionary stringDictionary,
+            ImportMetricsRecorder importMetricsRecorder, ImportProgressListener listener
+    ) throws Exception {
+        // 执行加载动作，加载整个工作簿的开销记录为文件级别的指标。
+        SheetMetricsCounter fileMetricsCounter = new SheetMetricsCounter();
+        fileMetricsCounter.recordRead(file.length(), 0);
+        Workbook workbook = parseWorkbook(file, password, fileMetricsCounter);
+        importMetricsRecorder.record(fileMetricsCounter.finish(file.getName(), null));
+        UserModelWorkbookPool workbookPool = new UserModelWorkbookPool(
+                file, counter -> parseWorkbook(file, password, counter), workbook, importMetricsRecorder
+        );
+        try {
+            // 遍历表格的所有工作簿，获取名称有效的工作簿。
+            Iterator<Sheet> sheetIterator = workbook.sheetIterator();
+            List<String> sheetNames = new ArrayList<>();
+            while (sheetIterator.hasNext()) {
+                Sheet sheet = sheetIterator.next();
+                if (validSheetNamePattern.matcher(sheet.getSheetName()).matches()) {
+                    sheetNames.add(sheet.getSheetName());
+                }
+            }
+
+            // 工作簿被标记为需要重新计算时，文件中缓存的公式结果不可信。
+            boolean cachedResultStale = workbook.getForceFormulaRecalculation();
+
+            // 为每个有效工作簿生成导入任务。
+            // 用户模型的工作簿（包括共享字符串表、样式表以及按需读取的文件包）不是线程安全的，
+            // 每个任务从工作簿池中取得一份当前没有被其它线程使用的工作簿，读取其中同名的工作簿。
+            List<ImportTask> tasks = new ArrayList<>();
+            for (String sheetName : sheetNames) {
+                tasks.add((sheetConsumingDetailSink, sheetImportErrorInfos) -> {
+                    UserModelWorkbook userModelWorkbook = workbookPool.acquire();
+                    try {
+                        SheetMetricsCounter sheetMetricsCounter = new SheetMetricsCounter();
+                        int consumingDetailBeginIndex = sheetConsumingDetailSink.size();
+                        int importErrorInfoBeginIndex = sheetImportErrorInfos.size();
+                        CellValueReader cellValueReader = new CellValueReader(
+                                rowDecodePlan, formulaEvaluationPolicy, userModelWorkbook, cachedResultStale,
+                                sheetMetricsCounter
+                        );
+                        execImportSingleSheet(
+                                cellValueReader, userModelWorkbook.getWorkbook().getSheet(sheetName),
+                                sheetConsumingDetailSink, sheetImportErrorInfos, stringDictionary
+                        );
+                        sheetMetricsCounter.countRows(
+                                sheetConsumingDetailSink.size() - consumingDetailBeginIndex, sheetImportErrorInfos,
+                                importErrorInfoBeginIndex
+                        );
+                        importMetricsRecorder.record(sheetMetricsCounter.finish(file.getName(), sheetName));
+                    } finally {
+                        workbookPool.release(userModelWorkbook);
+                    }
+                });
+            }
+
+            // 执行导入任务。
+            // 并行导入时，工作簿池为同时执行的每个任务各自打开一份工作簿；依次导入时只使用已经打开的工作簿。
+            execImportTasks(tasks, parallelSheetImport, consumingDetailSink, importErrorInfos, listener);
+        } finally {
+            // 数据提取完毕后立即释放所有工作簿，关闭底层的文件。
+            workbookPool.close();
+        }
+    }
+
+    private void execXlsxEventModelImport(
+            File file, String password, ConsumingDetailSink consumingDetailSink,
+            List<ImportErrorInfo> importErrorInfos, StringDictionary stringDictionary,
+            ImportMetricsRecorder importMetricsRecorder, ImportProgressListener listener,
+            FileImportRecord previousFileImportRecord, FileImportRecord fileImportRecord
+    ) throws Exception {
+        // 打开文件包、读取共享字符串表以及筛选工作簿的开销记录为文件级别的指标。
+        SheetMetricsCounter fileMetricsCounter = new SheetMetricsCounter();
+        fileMetricsCounter.recordRead(file.length(), 0);
+        OPCPackage opcPackage = openXlsxPackage(file, password, fileMetricsCounter);
+        try {
+            // 与用户模型保持一致，共享字符串中的注音不计入文本。
+            ReadOnlySharedStringsTable sharedStringsTable = new ReadOnlySharedStringsTable(opcPackage, false);
+
+            // 获取名称有效的工作簿。
+            Map<String, PackagePart> sheetPartMap = collectValidSheetParts(opcPackage);
+
+            // 为每个有效工作簿生成以流的方式导入的任务。
+            // 增量导入时，内容没有变化的工作簿沿用上一次的导入记录，不再生成导入任务。
+            boolean encrypted = Objects.equals(FileMagic.valueOf(file), FileMagic.OLE2);
+            List<ImportTask> tasks = new ArrayList<>();
+            for (Map.Entry<String, PackagePart> entry : sheetPartMap.entrySet()) {
+                String sheetName = entry.getKey();
+                PackagePart sheetPart = entry.getValue();
+                byte[] sheetFingerprint = null;
+                if (incrementalImport) {
+                    sheetFingerprint = fingerprintSheetPart(sheetPart, encrypted);
+                }
+                SheetImportRecord previousSheetImportRecord = findReusableSheetImportRecord(
+                        previousFileImportRecord, sheetName, sheetFingerprint, sharedStringsTable
+                );
+                if (Objects.nonNull(previousSheetImportRecord)) {
+                    fileImportRecord.getSheetImportRecords().add(previousSheetImportRecord);
+                    continue;
+                }
+                SheetImportRecord sheetImportRecord = new SheetImportRecord(sheetName, sheetFingerprint);
+                fileImportRecord.getSheetImportRecords().add(sheetImportRecord);
+                tasks.add((sheetConsumingDetailSink, sheetImportErrorInfos) -> {
+                    SheetMetricsCounter sheetMetricsCounter = new SheetMetricsCounter();
+                    int consumingDetailBeginIndex = sheetConsumingDetailSink.size();
+                    int importErrorInfoBeginIndex = sheetImportErrorInfos.size();
+                    // 记录工作簿引用的共享字符串，共享字符串的变化不会体现在工作簿自身的内容中。
+                    RecordingSharedStrings recordingSharedStrings = new RecordingSharedStrings(sharedStringsTable);
+                    execXlsxEventModelImportSingleSheet(
+                            recordingSharedStrings, sheetName, sheetPart, sheetConsumingDetailSink,
+                            sheetImportErrorInfos, stringDictionary, sheetMetricsCounter
+                    );
+                    if (incrementalImport) {
+                        BitSet sharedStringIndexes = recordingSharedStrings.getSharedStringIndexes();
+                        sheetImportRecord.setSharedStringIndexes(sharedStringIndexes);
+                        sheetImportRecord.setSharedStringsFingerprint(
+                                fingerprintSharedStrings(sharedStringsTable, sharedStringIndexes)
+                        );
+                    }
+                    sheetImportRecord.setImportedCount(
+                            sheetConsumingDetailSink.size() - consumingDetailBeginIndex,
+                            sheetImportErrorInfos.size() - importErrorInfoBeginIndex
+                    );
+                    sheetMetricsCounter.countRows(
+                            sheetConsumingDetailSink.size() - consumingDetailBeginIndex, sheetImportErrorInfos,
+                            importErrorInfoBeginIndex
+                    );
+                    importMetricsRecorder.record(sheetMetricsCounter.finish(file.getName(), sheetName));
+                });
+            }
+            importMetricsRecorder.record(fileMetricsCounter.finish(file.getName(), null));
+
+            // 执行导入任务。
+            execImportTasks(tasks, parallelSheetImport, consumingDetailSink, importErrorInfos, listener);
+        } finally {
+            // 文件包仅用于读取，回滚即可释放资源，无需（也不应）保存。
+            opcPackage.revert();
+        }
+    }
+
+    private Map<String, PackagePart> collectValidSheetParts(OPCPackage opcPackage) throws Exception {
+        PackagePart workbookPart = opcPackage.getPart(
+                opcPackage.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT).getRelationship(0)
+        );
+        CTWorkbook ctWorkbook;
+        try (InputStream in = workbookPart.getInputStream()) {
+            ctWorkbook = WorkbookDocument.Factory.parse(in, POIXMLTypeLoader.DEFAULT_XML_OPTIONS).getWorkbook();
+        }
+
+        // 根据工作簿索引中的名称筛选工作簿，名称无效的工作簿不会被打开。
+        Map<String, PackagePart> sheetPartMap = new LinkedHashMap<>();
+        for (CTSheet ctSheet : ctWorkbook.getSheets().getSheetArray()) {
+            if (!validSheetNamePattern.matcher(ctSheet.getName()).matches()) {
+                continue;
+            }
+            PackageRelationship relationship = workbookPart.getRelationship(ctSheet.getId());
+            // 与 XSSFWorkbook 的行为保持一致，跳过索引中存在但文件包中不存在的工作簿。
+            if (Objects.isNull(relationship)) {
+                continue;
+            }
+            sheetPartMap.put(ctSheet.getName(), workbookPart.getRelatedPart(relationship));
+        }
+        return sheetPartMap;
+    }
+
+    private void execImportTasks(
+            List<ImportTask> tasks, boolean parallel, ConsumingDetailSink consumingDetailSink,
+            List<ImportErrorInfo> importErrorInfos, ImportProgressListener listener
+    ) throws Exception {
+        // 没有需要执行的任务（如所有工作簿均沿用上一次的导入记录）时，直接报告完成。
+        if (tasks.isEmpty()) {
+            listener.onProgressChanged(1, 1);
+            return;
+        }
+
+        // 设置总体进度。
+        int progress = 0;
+        listener.onProgressChanged(progress, tasks.size());
+
+        // 如果没有启用并行导入，则在当前线程中依次执行导入任务。
+        if (!parallel || tasks.size() <= 1) {
+            for (ImportTask task : tasks) {
+                task.exec(consumingDetailSink, importErrorInfos);
+                listener.onProgressChanged(++progress, tasks.size());
+            }
+            return;
+        }
+
+        // 将导入任务提交到执行器中并行执行，每个任务使用独立的结果接收器。
+        Thread mergingThread = Thread.currentThread();
+        List<ParallelImportTask> parallelTasks = new ArrayList<>();
+        for (ImportTask task : tasks) {
+            parallelTasks.add(new ParallelImportTask(task, consumingDetailSink, mergingThread, pipelineBatchSize));
+        }
+
+        // 按照原有的顺序合并结果，进度变更事件也在当前线程中广播。
+        // 已提交但尚未合并的任务不超过线程池的最大线程数，每合并一个任务的结果再提交后续的任务，
+        // 任务数量很多时（如大型 CSV 文件的分块）不会一次性占满执行器的队列，尚未合并的结果占用的内存也是有限的。
+        int maxPendingCount = Math.max(executor.getMaxPoolSize(), 1);
+        int submittedCount = 0;
+        try {
+            for (int i = 0; i < parallelTasks.size(); i++) {
+                for (; submittedCount < parallelTasks.size() && submittedCount < i + maxPendingCount;
+                     submittedCount++) {
+                    executor.execute(parallelTasks.get(submittedCount).getFutureTask());
+                }
+                parallelTasks.get(i).merge(importErrorInfos);
+                listener.onProgressChanged(++progress, tasks.size());
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new HandlerException(cause);
+        } finally {
+            parallelTasks.forEach(parallelTask -> parallelTask.getFutureTask().cancel(true));
+        }
+    }
+
+    private OPCPackage openXlsxPackage(File file, String password, SheetMetricsCounter fileMetricsCounter)
+            throws Exception {
+        if (Objects.equals(FileMagic.valueOf(file), FileMagic.OLE2)) {
+            // 未指定密码时，使用 Excel 的默认密码尝试解密，与 WorkbookFactory 的行为保持一致。
+            String actualPassword = StringUtils.isNotEmpty(password) ? password : Decryptor.DEFAULT_PASSWORD;
+            long decryptBeginNanos = System.nanoTime();
+            try (POIFSFileSystem pfs = new POIFSFileSystem(file, true)) {
+                return openEncryptedXlsxPackage(pfs, actualPassword);
+            } finally {
+                fileMetricsCounter.recordDecrypt(System.nanoTime() - decryptBeginNanos);
             }
+        } else {
+            return OPCPackage.open(file, PackageAccess.READ);
         }
     }
 
+    /**
+     * 打开加密容器中的 XLSX 文件包。
+     *
+     * <p>
+     * 解密后的数据流被逐条目写入以临时密钥加密的临时文件中，文件包中的条目在使用时才从临时文件中按需解密读取，
+     * 因此解密后的文件包不会整体缓冲在堆内存中。临时文件在文件包被回滚（{@link OPCPackage#revert()}）时删除。
+     *
+     * @param pfs      加密容器。
+     * @param password 密码。
+     * @return 解密后的文件包。
+     * @throws Exception 打开过程中发生的任何异常。
+     */
+    private OPCPackage openEncryptedXlsxPackage(POIFSFileSystem pfs, String password) throws Exception {
+        EncryptionInfo encInfo = new EncryptionInfo(pfs);
+        Decryptor decryptor = Decryptor.getInstance(encInfo);
+        if (!decryptor.verifyPassword(password)) {
+            throw new WrongPasswordException();
+        }
+        ZipEntrySource zipEntrySource;
+        try (InputStream in = decryptor.getDataStream(pfs)) {
+            zipEntrySource = TempFileZipEntrySource.create(in);
+        }
+        try {
+            return OPCPackage.open(zipEntrySource);
+        } catch (Exception e) {
+            zipEntrySource.close();
+            throw e;
+        }
+    }
+
+    private SheetImportRecord findReusableSheetImportRecord(
+            FileImportRecord previousFileImportRecord, String sheetName, byte[] sheetFingerprint,
+            SharedStrings sharedStrings
+    ) throws Exception {
+        if (Objects.isNull(previousFileImportRecord) || Objects.isNull(sheetFingerprint)) {
+            return null;
+        }
+        SheetImportRecord sheetImportRecord = null;
+        for (SheetImportRecord record : previousFileImportRecord.getSheetImportRecords()) {
+            if (Objects.equals(record.getSheetName(), sheetName)) {
+                sheetImportRecord = record;
+                break;
+            }
+        }
+        if (Objects.isNull(sheetImportRecord) ||
+                !Arrays.equals(sheetImportRecord.getFingerprint(), sheetFingerprint)) {
+            return null;
+        }
+        byte[] sharedStringsFingerprint = fingerprintSharedStrings(
+                sharedStrings, sheetImportRecord.getSharedStringIndexes()
+        );
+        if (!Arrays.equals(sheetImportRecord.getSharedStringsFingerprint(), sharedStringsFingerprint)) {
+            return null;
+        }
+        return isSheetImportRecordAlive(sheetImportRecord) ? sheetImportRecord : null;
+    }
+
+    private void execXlsxEventModelImportSingleSheet(
+            SharedStrings sharedStrings, String sheetName, PackagePart sheetPart,
+            ConsumingDetailSink consumingDetailSink, List<ImportErrorInfo> importErrorInfos,
+            StringDictionary stringDictionary, SheetMetricsCounter sheetMetricsCounter
+    ) throws Exception {
+        ConsumingDetailSheetXmlHandler sheetXmlHandler = new ConsumingDetailSheetXmlHandler(
+                rowDecodePlan, sharedStrings, sheetName, consumingDetailSink, importErrorInfos, stringDictionary
+        );
+        XMLReader xmlReader = SAXHelper.newXMLReader();
+        xmlReader.setContentHandler(sheetXmlHandler);
+        // 读取工作簿内容的耗时（解压以及按需解密）与字节数由计量输入流记录，其余的耗时即为 XML 解析与数据行解码的耗时。
+        try (InputStream in = new MeteredInputStream(sheetPart.getInputStream(), sheetMetricsCounter)) {
+            xmlReader.parse(new InputSource(in));
+        } catch (SheetStoppedException ignored) {
+            // 连续的空白行达到阈值，工作簿中剩余的行无需解析。
+        }
+    }
+
+    private Workbook parseWorkbook(File file, String password, SheetMetricsCounter fileMetricsCounter)
+            throws Exception {
+        // 直接从文件以只读模式打开，文件包中的条目在使用时按需读取，不会将整个文件载入内存。
+        if (Objects.equals(FileMagic.valueOf(file), FileMagic.OOXML)) {
+            return parseXssfWorkbook(OPCPackage.open(file, PackageAccess.READ));
+        }
+        try (POIFSFileSystem pfs = new POIFSFileSystem(file, true)) {
+            DirectoryNode root = pfs.getRoot();
+            if (root.hasEntry(Decryptor.DEFAULT_POIFS_ENTRY)) {
+                // 未指定密码时，使用 Excel 的默认密码尝试解密，与 WorkbookFactory 的行为保持一致。
+                String actualPassword = StringUtils.isNotEmpty(password) ? password : Decryptor.DEFAULT_PASSWORD;
+                long decryptBeginNanos = System.nanoTime();
+                OPCPackage opcPackage = openEncryptedXlsxPackage(pfs, actualPassword);
+                fileMetricsCounter.recordDecrypt(System.nanoTime() - decryptBeginNanos);
+                return parseXssfWorkbook(opcPackage);
+            }
+            // HSSFWorkbook 在构造时即读取全部的记录，不保留文件节点，构造完成后即可关闭文件系统。
+            // XLS 文件的记录在读取时逐条解密。
+            Biff8EncryptionKey.setCurrentUserPassword(StringUtils.isNotEmpty(password) ? password : null);
+            try {
+                return new HSSFWorkbook(root, false);
+            } finally {
+                Biff8EncryptionKey.setCurrentUserPassword(null);
+            }
+        }
+    }
+
+    private XSSFWorkbook parseXssfWorkbook(OPCPackage opcPackage) throws Exception {
+        try {
+            return new ValidSheetXssfWorkbook(opcPackage);
+        } catch (Exception e) {
+            opcPackage.revert();
+            throw e;
+        }
+    }
+
+    private void execXlsEventModelImport(
+            File file, String password, ConsumingDetailSink consumingDetailSink,
+            List<ImportErrorInfo> importErrorInfos, StringDictionary stringDictionary,
+            ImportMetricsRecorder importMetricsRecorder, ImportProgressListener listener
+    ) throws Exception {
+        // xls 文件的 RC4 加密作用于记录流，读取记录时会使用线程上下文中的密码即时解密。
+        Biff8EncryptionKey.setCurrentUserPassword(StringUtils.isNotEmpty(password) ? password : null);
+        try (POIFSFileSystem pfs = new POIFSFileSystem(file, true)) {
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(new MissingRecordAwareHSSFListener(new ConsumingDetailHssfListener(
+                    rowDecodePlan, validSheetNamePattern, file, consumingDetailSink, importErrorInfos,
+                    stringDictionary, importMetricsRecorder, listener
+            )));
+            new HSSFEventFactory().processWorkbookEvents(request, pfs);
+        } finally {
+            Biff8EncryptionKey.setCurrentUserPassword(null);
+        }
+    }
+
+    private void execDelimitedTextImport(
+            File file, boolean csv, ConsumingDetailSink consumingDetailSink,
+            List<ImportErrorInfo> importErrorInfos, StringDictionary stringDictionary,
+            ImportMetricsRecorder importMetricsRecorder, ImportProgressListener listener
+    ) throws Exception {
+        // 各分块的耗时难以逐一归属，整个文件记录为一条指标，切分分块的扫描计为读取耗时，其余为解析耗时。
+        SheetMetricsCounter fileMetricsCounter = new SheetMetricsCounter();
+        int consumingDetailBeginIndex = consumingDetailSink.size();
+        int importErrorInfoBeginIndex = importErrorInfos.size();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // 文件以 UTF-8 的 BOM 开头时，跳过 BOM 并以 UTF-8 解码。
+            long beginPosition = TextChunkSplitter.contentBeginPosition(channel);
+            Charset charset = beginPosition > 0 ? StandardCharsets.UTF_8 : csvCharset;
+
+            // 在行的边界处将文件切分为分块，每个分块作为一个导入任务。
+            long scanBeginNanos = System.nanoTime();
+            List<TextChunk> textChunks = TextChunkSplitter.split(channel, beginPosition, csv, csvChunkSize);
+            fileMetricsCounter.recordRead(channel.size(), System.nanoTime() - scanBeginNanos);
+            String fileName = file.getName();
+            String defaultToolCutterCode = StringUtils.substringBeforeLast(fileName, ".");
+            List<ImportTask> tasks = new ArrayList<>();
+            for (TextChunk textChunk : textChunks) {
+                Charset chunkCharset = charset;
+                tasks.add((chunkConsumingDetailSink, chunkImportErrorInfos) -> new DelimitedTextChunkParser(
+                        rowDecodePlan, csvRowValueLength, csvToolCutterCodeColumnIndex, consumingDateColumnIndex,
+                        fileName, defaultToolCutterCode, chunkCharset, csv, chunkConsumingDetailSink,
+                        chunkImportErrorInfos, stringDictionary
+                ).parse(channel, textChunk));
+            }
+
+            // 执行导入任务。
+            execImportTasks(tasks, parallelSheetImport, consumingDetailSink, importErrorInfos, listener);
+        }
+        fileMetricsCounter.countRows(
+                consumingDetailSink.size() - consumingDetailBeginIndex, importErrorInfos, importErrorInfoBeginIndex
+        );
+        importMetricsRecorder.record(fileMetricsCounter.finish(file.getName(), null));
+    }
+
     private void execImportSingleSheet(
-            FormulaEvaluator evaluator, Sheet sheet, List<ConsumingDetail> consumingDetails,
-            List<ImportErrorInfo> importErrorInfos
+            CellValueReader cellValueReader, Sheet sheet, ConsumingDetailSink consumingDetailSink,
+            List<ImportErrorInfo> importErrorInfos, StringDictionary stringDictionary
     ) {
         // 获取工作簿名称。
         String sheetName = sheet.getSheetName();
@@ -140,74 +1072,63 @@ public class DataImportHandlerImpl extends AbstractProgressHandler implements Da
         int currentRowIndex = firstDataRow;
         int totalRowIndex = sheet.getLastRowNum();
 
-        // 对工作簿的每一行进行遍历，读取数据。
+        // 对工作簿的每一行进行遍历，读取数据，单元格取值与行缓冲区在各行之间复用。
+        CellRowValues rowValues = new CellRowValues(rowDecodePlan.getRowValueLength());
+        RowBuffer rowBuffer = new RowBuffer(stringDictionary);
+        ImportErrorAggregator importErrorAggregator = new ImportErrorAggregator(importErrorInfos);
+        BlankRowCounter blankRowCounter = rowDecodePlan.newBlankRowCounter();
         for (; currentRowIndex <= totalRowIndex; currentRowIndex++) {
-            loadRow(
-                    evaluator, sheetName, currentRowIndex, sheet.getRow(currentRowIndex), consumingDetails,
-                    importErrorInfos
+            Row row = sheet.getRow(currentRowIndex);
+            // 只有可能不是空白的行才计算公式，计算后再判断是否空白；空白行直接跳过，连续的空白行达到阈值时不再读取后续的行。
+            cellValueReader.readRow(row, rowValues);
+            boolean blank = rowDecodePlan.isBlankRow(rowValues);
+            Exception evaluationException = null;
+            if (!blank) {
+                // 公式计算失败只影响该行，该行按照非空白行计数，并记录为出错的行。
+                try {
+                    cellValueReader.evaluateRow(row, rowValues);
+                    blank = rowDecodePlan.isBlankRow(rowValues);
+                } catch (Exception e) {
+                    evaluationException = e;
+                }
+            }
+            blankRowCounter.countRow(currentRowIndex, blank);
+            if (blankRowCounter.isThresholdReached()) {
+                break;
+            }
+            if (blank) {
+                continue;
+            }
+            if (Objects.nonNull(evaluationException)) {
+                importErrorAggregator.rowFailed(sheetName, currentRowIndex, -1, evaluationException);
+                continue;
+            }
+            rowDecodePlan.loadRow(
+                    rowValues, rowBuffer, sheetName, sheetName, currentRowIndex, consumingDetailSink,
+                    importErrorAggregator
             );
         }
+        importErrorAggregator.flush();
     }
 
-    @SuppressWarnings("DuplicatedCode")
-    private void loadRow(
-            FormulaEvaluator evaluator, String sheetName, int rowIndex, Row row, List<ConsumingDetail> consumingDetails,
-            List<ImportErrorInfo> importErrorInfos
-    ) {
-        try {
-            // 共用变量。
-            CellValue cellValue;
-
-            // 刀片型号。
-            cellValue = evaluator.evaluate(CellUtil.getCell(row, toolCutterTypeColumnIndex));
-            String toolCutterType = Optional.ofNullable(cellValue).map(CellValue::getStringValue).orElse(null);
-
-            // 设备。
-            cellValue = evaluator.evaluate(CellUtil.getCell(row, deviceColumnIndex));
-            String device = Optional.ofNullable(cellValue).map(CellValue::getStringValue).orElse(null);
-
-            // 消耗数量。
-            cellValue = evaluator.evaluate(CellUtil.getCell(row, consumingQuantityColumnIndex));
-            Integer consumingQuantity = Optional.ofNullable(cellValue).map(v -> (int) v.getNumberValue()).orElse(null);
-
-            // 价值。
-            cellValue = evaluator.evaluate(CellUtil.getCell(row, worthColumnIndex));
-            BigDecimal worth = Optional.ofNullable(cellValue).map(v -> BigDecimal.valueOf(v.getNumberValue()))
-                    .orElse(null);
-
-            // 领用人。
-            cellValue = evaluator.evaluate(CellUtil.getCell(row, consumingPersonColumnIndex));
-            String consumingPerson = Optional.ofNullable(cellValue).map(CellValue::getStringValue).orElse(null);
-
-            // 领用日期。
-            cellValue = evaluator.evaluate(CellUtil.getCell(row, consumingDateColumnIndex));
-            Date consumingDate = Optional.ofNullable(cellValue).map(v -> DateUtil.getJavaDate(v.getNumberValue()))
-                    .orElse(null);
-
-            // 备注。
-            cellValue = evaluator.evaluate(CellUtil.getCell(row, remarkColumnIndex));
-            String remark = Optional.ofNullable(cellValue).map(CellValue::getStringValue).orElse(null);
-
-            // 退回数量。
-            cellValue = evaluator.evaluate(CellUtil.getCell(row, returningQuantityColumnIndex));
-            Integer returningQuantity = Optional.ofNullable(cellValue).map(v -> (int) v.getNumberValue()).orElse(null);
-
-            // 退回使用信息。
-            cellValue = evaluator.evaluate(CellUtil.getCell(row, returningUsageInfoColumnIndex));
-            String returningUsageInfo = Optional.ofNullable(cellValue).map(CellValue::getStringValue).orElse(null);
-
-            consumingDetails.add(new ConsumingDetail(
-                    null, toolCutterType, device, consumingQuantity, worth, consumingPerson, consumingDate, remark,
-                    sheetName, returningQuantity, returningUsageInfo
-            ));
-        } catch (Exception e) {
-            String warnMessage = "读取数据表的第 " + rowIndex + " 行(对应数据表是第 " +
-                    (rowIndex + 1) + " 行)数据时出现异常，异常信息为: ";
-            LOGGER.warn(warnMessage, e);
-            ImportErrorInfo importErrorInfo = new ImportErrorInfo(
-                    null, sheetName, rowIndex, "数据源错误，详见控制台日志"
-            );
-            importErrorInfos.add(importErrorInfo);
+    /**
+     * 只解析名称有效的工作簿的 XSSFWorkbook。
+     *
+     * <p>
+     * 名称无效的工作簿的内容不会被解析，也不会出现在工作簿列表中。
+     * 工作簿在父类的构造器中解析，此时子类的字段尚未初始化，因此直接使用外部类的正则表达式。
+     */
+    private class ValidSheetXssfWorkbook extends XSSFWorkbook {
+
+        public ValidSheetXssfWorkbook(OPCPackage pkg) throws IOException {
+            super(pkg);
+        }
+
+        @Override
+        public void parseSheet(Map<String, XSSFSheet> shIdMap, CTSheet ctSheet) {
+            if (validSheetNamePattern.matcher(ctSheet.getName()).matches()) {
+                super.parseSheet(shIdMap, ctSheet);
+            }
         }
     }
 }
@@ -0,0 +1,176 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+import com.jneagle.xlstool.dpxhtj.structure.StringDictionary;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CSV 文件分块的解析器。
+ *
+ * <p>
+ * 分块以内存映射的方式读取，字段直接在字节层面切分，只有配置的列索引范围之内的字段才会被解码为字符串。
+ * 每个分块只包含完整的行，因此各分块可以独立、并行地解析。
+ *
+ * <p>
+ * 文本文件没有尾部的空白区域，因此只跳过空白行，不根据连续空白行的数量中止解析。
+ *
+ * <p>
+ * 该类不是线程安全的，每个分块使用独立的解析器。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class DelimitedTextChunkParser {
+
+    private final RowDecodePlan rowDecodePlan;
+    private final int toolCutterCodeColumnIndex;
+    private final String fileName;
+    private final String defaultToolCutterCode;
+    private final Charset charset;
+    private final boolean quoting;
+    private final byte separator;
+    private final ConsumingDetailSink consumingDetailSink;
+    private final ImportErrorAggregator importErrorAggregator;
+    private final RowBuffer rowBuffer;
+
+    private final String[] rowValues;
+    private final RowSource rowSource;
+
+    private byte[] fieldBytes = new byte[256];
+
+    /**
+     * 创建分块解析器。
+     *
+     * @param rowDecodePlan             行数据的解码计划。
+     * @param rowValueLength            需要解码的字段数量，覆盖解码计划中的各列以及刀具编号列。
+     * @param toolCutterCodeColumnIndex 刀具编号所在的列索引，小于 0 时以文件名作为刀具编号。
+     * @param consumingDateColumnIndex  领用日期所在的列索引，该列可以是日期文本。
+     * @param fileName                  文件名，用作错误信息中的工作簿名称。
+     * @param defaultToolCutterCode     默认的刀具编号。
+     * @param charset                   文本的编码。
+     * @param csv                       是否为 CSV 文件，否则为制表符分隔的文本文件。
+     * @param consumingDetailSink       消耗明细接收器。
+     * @param importErrorInfos          导入错误信息。
+     * @param stringDictionary          字符串字典。
+     */
+    public DelimitedTextChunkParser(
+            RowDecodePlan rowDecodePlan, int rowValueLength, int toolCutterCodeColumnIndex,
+            int consumingDateColumnIndex, String fileName, String defaultToolCutterCode, Charset charset, boolean csv,
+            ConsumingDetailSink consumingDetailSink, List<ImportErrorInfo> importErrorInfos,
+            StringDictionary stringDictionary
+    ) {
+        this.rowDecodePlan = rowDecodePlan;
+        this.toolCutterCodeColumnIndex = toolCutterCodeColumnIndex;
+        this.rowValues = new String[rowValueLength];
+        this.rowSource = new DelimitedTextRowSource(rowValues, consumingDateColumnIndex);
+        this.fileName = fileName;
+        this.defaultToolCutterCode = defaultToolCutterCode;
+        this.charset = charset;
+        this.quoting = csv;
+        this.separator = csv ? (byte) ',' : (byte) '\t';
+        this.consumingDetailSink = consumingDetailSink;
+        this.importErrorAggregator = new ImportErrorAggregator(importErrorInfos);
+        this.rowBuffer = new RowBuffer(stringDictionary);
+    }
+
+    public void parse(FileChannel channel, TextChunk textChunk) throws IOException {
+        MappedByteBuffer buffer = channel.map(
+                FileChannel.MapMode.READ_ONLY, textChunk.getBeginPosition(),
+                textChunk.getEndPosition() - textChunk.getBeginPosition()
+        );
+        int limit = buffer.limit();
+        int rowIndex = textChunk.getBeginRowIndex();
+        int position = 0;
+        while (position < limit) {
+            Arrays.fill(rowValues, null);
+            position = parseRow(buffer, position, limit);
+            endRow(rowIndex++);
+        }
+        importErrorAggregator.flush();
+    }
+
+    // 解析从指定位置开始的一行，返回下一行的起始位置。
+    private int parseRow(MappedByteBuffer buffer, int position, int limit) {
+        int columnIndex = 0;
+        while (true) {
+            boolean decoded = columnIndex < rowValues.length;
+            int length = 0;
+            boolean ascii = true;
+            // 以引号开头的字段读取至配对的引号，其间的分隔符与换行符均属于字段的内容。
+            if (quoting && position < limit && buffer.get(position) == '"') {
+                position++;
+                while (position < limit) {
+                    byte b = buffer.get(position++);
+                    if (b == '"') {
+                        if (position >= limit || buffer.get(position) != '"') {
+                            break;
+                        }
+                        position++;
+                    }
+                    if (decoded) {
+                        length = appendFieldByte(length, b);
+                        ascii &= b >= 0;
+                    }
+                }
+            }
+            // 读取引号之外的内容，直至分隔符、换行符或者分块的末尾。
+            int unquotedBeginLength = length;
+            byte b = 0;
+            while (position < limit) {
+                b = buffer.get(position++);
+                if (b == separator || b == '\n') {
+                    break;
+                }
+                if (decoded) {
+                    length = appendFieldByte(length, b);
+                    ascii &= b >= 0;
+                }
+            }
+            // 以 \r\n 结尾的行，去除行尾的 \r。
+            if (b == '\n' && length > unquotedBeginLength && fieldBytes[length - 1] == '\r') {
+                length--;
+            }
+            // GBK 与 UTF-8 均兼容 ASCII，只包含 ASCII 字符的字段（如数值、日期）按照单字节编码直接构造字符串。
+            if (decoded && length > 0) {
+                rowValues[columnIndex] = new String(
+                        fieldBytes, 0, length, ascii ? StandardCharsets.ISO_8859_1 : charset
+                );
+            }
+            if (b != separator || position >= limit) {
+                return position;
+            }
+            columnIndex++;
+        }
+    }
+
+    private int appendFieldByte(int length, byte b) {
+        if (length == fieldBytes.length) {
+            fieldBytes = Arrays.copyOf(fieldBytes, length * 2);
+        }
+        fieldBytes[length] = b;
+        return length + 1;
+    }
+
+    private void endRow(int rowIndex) {
+        if (rowIndex < rowDecodePlan.getFirstDataRow() || rowDecodePlan.isBlankRow(rowValues)) {
+            return;
+        }
+        // 未配置刀具编号列或者该列为空时，以文件名作为刀具编号。
+        String toolCutterCode = defaultToolCutterCode;
+        if (toolCutterCodeColumnIndex >= 0 && StringUtils.isNotBlank(rowValues[toolCutterCodeColumnIndex])) {
+            toolCutterCode = rowValues[toolCutterCodeColumnIndex];
+        }
+        rowDecodePlan.loadRow(
+                rowSource, rowBuffer, fileName, toolCutterCode, rowIndex, consumingDetailSink,
+                importErrorAggregator
+        );
+    }
+}
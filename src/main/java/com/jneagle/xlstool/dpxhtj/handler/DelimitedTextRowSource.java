@@ -0,0 +1,114 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV 文件的行数据源。
+ *
+ * <p>
+ * 文本中的数值与日期序列号直接解析，领用日期列还可以是形如 yyyy-MM-dd 的日期文本，此时转换为对应的日期序列号。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class DelimitedTextRowSource implements RowSource {
+
+    private final String[] rowValues;
+    private final int consumingDateColumnIndex;
+
+    private String dateText;
+    private int dateTextCursor;
+
+    public DelimitedTextRowSource(String[] rowValues, int consumingDateColumnIndex) {
+        this.rowValues = rowValues;
+        this.consumingDateColumnIndex = consumingDateColumnIndex;
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return rowValues[columnIndex];
+    }
+
+    @Override
+    public double getNumber(int columnIndex) {
+        String value = rowValues[columnIndex];
+        if (Objects.isNull(value)) {
+            return Double.NaN;
+        }
+        // 只有领用日期列中带有日期分隔符的值才按照日期文本解析，负数的负号位于首位，不会被误认为分隔符。
+        if (columnIndex == consumingDateColumnIndex && (value.indexOf('/') >= 0 || value.indexOf('-', 1) >= 0)) {
+            return parseDateText(value);
+        }
+        return Double.parseDouble(value);
+    }
+
+    // 日期文本形如 yyyy-MM-dd 或 yyyy/MM/dd，可以带有 HH:mm 或 HH:mm:ss 格式的时间。
+    // 每一行都需要解析日期，因此逐字符解析，不使用正则表达式。
+    private double parseDateText(String value) {
+        dateText = value.trim();
+        dateTextCursor = 0;
+        int year = nextDateTextNumber(4);
+        char separator = nextDateTextChar();
+        if (separator != '-' && separator != '/') {
+            throw new IllegalArgumentException("无法识别的日期: " + value);
+        }
+        int month = nextDateTextNumber(2);
+        if (nextDateTextChar() != separator) {
+            throw new IllegalArgumentException("无法识别的日期: " + value);
+        }
+        int day = nextDateTextNumber(2);
+        double serial = SerialDateDecoder.serialOf(LocalDate.of(year, month, day).toEpochDay());
+        if (dateTextCursor == dateText.length()) {
+            return serial;
+        }
+
+        char timeSeparator = nextDateTextChar();
+        if (timeSeparator != ' ' && timeSeparator != 'T') {
+            throw new IllegalArgumentException("无法识别的日期: " + value);
+        }
+        int hour = nextDateTextNumber(2);
+        if (nextDateTextChar() != ':') {
+            throw new IllegalArgumentException("无法识别的日期: " + value);
+        }
+        int minute = nextDateTextNumber(2);
+        int second = 0;
+        if (dateTextCursor < dateText.length()) {
+            if (nextDateTextChar() != ':') {
+                throw new IllegalArgumentException("无法识别的日期: " + value);
+            }
+            second = nextDateTextNumber(2);
+        }
+        if (dateTextCursor < dateText.length()) {
+            throw new IllegalArgumentException("无法识别的日期: " + value);
+        }
+        return serial + LocalTime.of(hour, minute, second).toSecondOfDay() / (double) TimeUnit.DAYS.toSeconds(1);
+    }
+
+    private char nextDateTextChar() {
+        if (dateTextCursor >= dateText.length()) {
+            throw new IllegalArgumentException("无法识别的日期: " + dateText);
+        }
+        return dateText.charAt(dateTextCursor++);
+    }
+
+    // 读取 1 至 maxDigits 位的数字。
+    private int nextDateTextNumber(int maxDigits) {
+        int beginCursor = dateTextCursor;
+        int number = 0;
+        while (dateTextCursor < dateText.length() && dateTextCursor - beginCursor < maxDigits) {
+            char c = dateText.charAt(dateTextCursor);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            number = number * 10 + (c - '0');
+            dateTextCursor++;
+        }
+        if (dateTextCursor == beginCursor) {
+            throw new IllegalArgumentException("无法识别的日期: " + dateText);
+        }
+        return number;
+    }
+}
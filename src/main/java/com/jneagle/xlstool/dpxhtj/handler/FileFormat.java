@@ -0,0 +1,11 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+/**
+ * 导入文件的格式。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+enum FileFormat {
+    XLS, XLSX, CSV, TSV, OTHER
+}
@@ -0,0 +1,42 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 文件导入记录。
+ *
+ * <p>
+ * 记录文件的大小、内容的指纹以及文件中各工作簿的导入记录，用于增量导入。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class FileImportRecord {
+
+    private final String fileKey;
+    private final long fileSize;
+    private final byte[] contentFingerprint;
+    private final List<SheetImportRecord> sheetImportRecords = new ArrayList<>();
+
+    public FileImportRecord(String fileKey, long fileSize, byte[] contentFingerprint) {
+        this.fileKey = fileKey;
+        this.fileSize = fileSize;
+        this.contentFingerprint = contentFingerprint;
+    }
+
+    public boolean matches(long fileSize, byte[] contentFingerprint) {
+        return this.fileSize == fileSize && Objects.nonNull(contentFingerprint) &&
+                Arrays.equals(this.contentFingerprint, contentFingerprint);
+    }
+
+    public String getFileKey() {
+        return fileKey;
+    }
+
+    public List<SheetImportRecord> getSheetImportRecords() {
+        return sheetImportRecords;
+    }
+}
@@ -0,0 +1,30 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 文件导入记录的映射。
+ *
+ * <p>
+ * 按照访问顺序排列，记录的数量超出上限时淘汰最久未使用的记录，被淘汰的文件再次导入时按照首次导入处理。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class FileImportRecordMap extends LinkedHashMap<String, FileImportRecord> {
+
+    private static final long serialVersionUID = 2306841959728417381L;
+
+    private final int maxCount;
+
+    public FileImportRecordMap(int maxCount) {
+        super(16, 0.75f, true);
+        this.maxCount = maxCount;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, FileImportRecord> eldest) {
+        return size() > maxCount;
+    }
+}
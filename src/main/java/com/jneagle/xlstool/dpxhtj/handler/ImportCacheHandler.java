@@ -0,0 +1,38 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.dwarfeng.subgrade.stack.exception.HandlerException;
+import com.dwarfeng.subgrade.stack.handler.Handler;
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportCacheData;
+
+/**
+ * 导入缓存处理器。
+ *
+ * <p>
+ * 将文件解析得到的数据以二进制格式保存在本地，再次导入相同的文件时可以直接读取，而不必重新解析文件。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public interface ImportCacheHandler extends Handler {
+
+    /**
+     * 获取指定主键对应的缓存数据。
+     *
+     * @param cacheKey 缓存的主键。
+     * @return 缓存数据，缓存不存在或者已经损坏时返回 null。
+     * @throws HandlerException 处理器异常。
+     */
+    ImportCacheData get(String cacheKey) throws HandlerException;
+
+    /**
+     * 将数据存入指定主键对应的缓存中。
+     *
+     * <p>
+     * 缓存的总大小超出限制时，最近最少使用的缓存会被删除。
+     *
+     * @param cacheKey        缓存的主键。
+     * @param importCacheData 缓存数据。
+     * @throws HandlerException 处理器异常。
+     */
+    void put(String cacheKey, ImportCacheData importCacheData) throws HandlerException;
+}
@@ -0,0 +1,356 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.dwarfeng.subgrade.stack.exception.HandlerException;
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportCacheData;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class ImportCacheHandlerImpl implements ImportCacheHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportCacheHandlerImpl.class);
+
+    private static final String CACHE_FILE_SUFFIX = ".bin";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * 缓存文件的魔数，即 ASCII 编码的 "DPXH"。
+     */
+    private static final int MAGIC = 0x44505848;
+
+    /**
+     * 缓存文件的格式版本，格式变化时需要增加版本号，旧版本的缓存文件会被视为损坏。
+     */
+    private static final int VERSION = 3;
+
+    @Value("${data_import.row_cache.directory}")
+    private String directory;
+    @Value("${data_import.row_cache.max_size}")
+    private long maxSize;
+
+    @Override
+    public ImportCacheData get(String cacheKey) throws HandlerException {
+        Path cacheFile = Paths.get(directory, cacheKey + CACHE_FILE_SUFFIX);
+        if (!Files.exists(cacheFile)) {
+            return null;
+        }
+        try (CacheDataInputStream in = new CacheDataInputStream(
+                new BufferedInputStream(Files.newInputStream(cacheFile)), Files.size(cacheFile)
+        )) {
+            ImportCacheData importCacheData = readImportCacheData(in);
+            // 使用文件的修改时间记录最近一次使用的时间，作为淘汰缓存的依据。
+            Files.setLastModifiedTime(cacheFile, FileTime.fromMillis(System.currentTimeMillis()));
+            return importCacheData;
+        } catch (NoSuchFileException e) {
+            // 缓存文件在读取的过程中被淘汰。
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // 缓存只用于加速导入，任何解码失败都视为缓存未命中。
+            // 长度与数量在分配之前均已与文件的剩余大小比较，内存不足不是缓存损坏导致的，不在此处处理。
+            LOGGER.warn("读取导入缓存 " + cacheFile + " 时出现异常，该缓存将被删除，异常信息为: ", e);
+            deleteQuietly(cacheFile);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String cacheKey, ImportCacheData importCacheData) throws HandlerException {
+        try {
+            Path cacheDirectory = Paths.get(directory);
+            Files.createDirectories(cacheDirectory);
+
+            // 先写入临时文件，再移动到缓存文件，避免读取到写入了一半的缓存文件。
+            Path tempFile = Files.createTempFile(cacheDirectory, cacheKey, TEMP_FILE_SUFFIX);
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(tempFile))
+                )) {
+                    writeImportCacheData(out, importCacheData);
+                }
+                Files.move(
+                        tempFile, cacheDirectory.resolve(cacheKey + CACHE_FILE_SUFFIX),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+                );
+            } finally {
+                deleteQuietly(tempFile);
+            }
+
+            evict(cacheDirectory);
+        } catch (Exception e) {
+            throw new HandlerException(e);
+        }
+    }
+
+    private synchronized void evict(Path cacheDirectory) throws IOException {
+        List<Path> cacheFiles;
+        try (Stream<Path> stream = Files.list(cacheDirectory)) {
+            cacheFiles = stream.filter(path -> path.getFileName().toString().endsWith(CACHE_FILE_SUFFIX))
+                    .collect(Collectors.toList());
+        }
+
+        // 按照最近一次使用的时间由近及远排序，保留总大小不超过限制的缓存文件。
+        Map<Path, FileTime> lastModifiedTimeMap = new HashMap<>();
+        Map<Path, Long> sizeMap = new HashMap<>();
+        for (Path cacheFile : cacheFiles) {
+            try {
+                lastModifiedTimeMap.put(cacheFile, Files.getLastModifiedTime(cacheFile));
+                sizeMap.put(cacheFile, Files.size(cacheFile));
+            } catch (NoSuchFileException e) {
+                lastModifiedTimeMap.remove(cacheFile);
+            }
+        }
+        List<Path> sortedCacheFiles = new ArrayList<>(sizeMap.keySet());
+        sortedCacheFiles.sort(Comparator.comparing(lastModifiedTimeMap::get, Comparator.reverseOrder()));
+        long totalSize = 0;
+        for (Path cacheFile : sortedCacheFiles) {
+            totalSize += sizeMap.get(cacheFile);
+            if (totalSize > maxSize) {
+                LOGGER.debug("导入缓存的总大小超出限制，删除缓存 " + cacheFile);
+                deleteQuietly(cacheFile);
+            }
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("删除文件 " + path + " 时出现异常，异常信息为: ", e);
+        }
+    }
+
+    private void writeImportCacheData(DataOutputStream out, ImportCacheData importCacheData) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        List<ConsumingDetail> consumingDetails = importCacheData.getConsumingDetails();
+        out.writeInt(consumingDetails.size());
+        for (ConsumingDetail consumingDetail : consumingDetails) {
+            writeString(out, consumingDetail.getToolCutterType());
+            writeString(out, consumingDetail.getDevice());
+            writeInteger(out, consumingDetail.getConsumingQuantity());
+            writeBigDecimal(out, consumingDetail.getWorth());
+            writeString(out, consumingDetail.getConsumingPerson());
+            writeDate(out, consumingDetail.getConsumingDate());
+            writeString(out, consumingDetail.getRemark());
+            writeString(out, consumingDetail.getToolCutterCode());
+            writeInteger(out, consumingDetail.getReturningQuantity());
+            writeString(out, consumingDetail.getReturningUsageInfo());
+            writeInteger(out, consumingDetail.getConsumingDay());
+        }
+
+        List<ImportErrorInfo> importErrorInfos = importCacheData.getImportErrorInfos();
+        out.writeInt(importErrorInfos.size());
+        for (ImportErrorInfo importErrorInfo : importErrorInfos) {
+            writeString(out, importErrorInfo.getSheetName());
+            writeInteger(out, importErrorInfo.getRowIndex());
+            writeInteger(out, importErrorInfo.getEndRowIndex());
+            writeInteger(out, importErrorInfo.getRowCount());
+            writeString(out, importErrorInfo.getErrorMessage());
+        }
+    }
+
+    private ImportCacheData readImportCacheData(CacheDataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("缓存文件的格式不正确");
+        }
+
+        int consumingDetailCount = in.readCount();
+        List<ConsumingDetail> consumingDetails = new ArrayList<>(consumingDetailCount);
+        for (int i = 0; i < consumingDetailCount; i++) {
+            String toolCutterType = readString(in);
+            String device = readString(in);
+            Integer consumingQuantity = readInteger(in);
+            BigDecimal worth = readBigDecimal(in);
+            String consumingPerson = readString(in);
+            Date consumingDate = readDate(in);
+            String remark = readString(in);
+            String toolCutterCode = readString(in);
+            Integer returningQuantity = readInteger(in);
+            String returningUsageInfo = readString(in);
+            Integer consumingDay = readInteger(in);
+            consumingDetails.add(new ConsumingDetail(
+                    null, toolCutterType, device, consumingQuantity, worth, consumingPerson, consumingDate, remark,
+                    toolCutterCode, returningQuantity, returningUsageInfo, consumingDay
+            ));
+        }
+
+        int importErrorInfoCount = in.readCount();
+        List<ImportErrorInfo> importErrorInfos = new ArrayList<>(importErrorInfoCount);
+        for (int i = 0; i < importErrorInfoCount; i++) {
+            String sheetName = readString(in);
+            Integer rowIndex = readInteger(in);
+            Integer endRowIndex = readInteger(in);
+            Integer rowCount = readInteger(in);
+            String errorMessage = readString(in);
+            importErrorInfos.add(new ImportErrorInfo(null, sheetName, rowIndex, endRowIndex, rowCount, errorMessage));
+        }
+
+        return new ImportCacheData(consumingDetails, importErrorInfos);
+    }
+
+    // 可空的字段均以长度或者标志位开头，-1 或 false 表示 null。
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (Objects.isNull(value)) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(CacheDataInputStream in) throws IOException {
+        int length = in.readLength();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(Objects.nonNull(value));
+        if (Objects.nonNull(value)) {
+            out.writeInt(value);
+        }
+    }
+
+    private Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private void writeBigDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (Objects.isNull(value)) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] unscaledValue = value.unscaledValue().toByteArray();
+        out.writeInt(unscaledValue.length);
+        out.write(unscaledValue);
+        out.writeInt(value.scale());
+    }
+
+    private BigDecimal readBigDecimal(CacheDataInputStream in) throws IOException {
+        int length = in.readLength();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaledValue = new byte[length];
+        in.readFully(unscaledValue);
+        return new BigDecimal(new BigInteger(unscaledValue), in.readInt());
+    }
+
+    private void writeDate(DataOutputStream out, Date value) throws IOException {
+        out.writeBoolean(Objects.nonNull(value));
+        if (Objects.nonNull(value)) {
+            out.writeLong(value.getTime());
+        }
+    }
+
+    private Date readDate(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new Date(in.readLong()) : null;
+    }
+
+    /**
+     * 缓存文件的输入流。
+     *
+     * <p>
+     * 记录已经读取的字节数，读取长度前缀与数量时校验其不超过文件中剩余的字节数，
+     * 损坏的缓存文件只会导致读取失败，不会分配超出文件大小的数组。
+     */
+    private static class CacheDataInputStream extends DataInputStream {
+
+        private final long size;
+
+        public CacheDataInputStream(InputStream in, long size) {
+            super(new CountingInputStream(in));
+            this.size = size;
+        }
+
+        /**
+         * 读取可空字段的长度前缀。
+         *
+         * @return 长度前缀，-1 表示 null。
+         * @throws IOException 读取失败或者长度前缀无效时抛出。
+         */
+        public int readLength() throws IOException {
+            int length = readInt();
+            if (length < -1 || length > remaining()) {
+                throw new IOException("缓存文件中的长度 " + length + " 无效");
+            }
+            return length;
+        }
+
+        /**
+         * 读取记录的数量，每条记录至少占用一个字节。
+         *
+         * @return 记录的数量。
+         * @throws IOException 读取失败或者数量无效时抛出。
+         */
+        public int readCount() throws IOException {
+            int count = readInt();
+            if (count < 0 || count > remaining()) {
+                throw new IOException("缓存文件中的记录数量 " + count + " 无效");
+            }
+            return count;
+        }
+
+        private long remaining() {
+            return size - ((CountingInputStream) in).getCount();
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count = 0;
+
+        public CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int length = super.read(b, off, len);
+            if (length > 0) {
+                count += length;
+            }
+            return length;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 导入错误聚合器。
+ *
+ * <p>
+ * 同一工作簿中连续出错、且出错的列与异常类型均相同的行合并为一组，每组只输出一条带有首个异常堆栈的日志，并生成一条错误信息。
+ * 出错的行只更新组的范围与计数，开销与正常读取的行相当。
+ *
+ * <p>
+ * 该类不是线程安全的，每个工作簿的读取过程持有各自的聚合器。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class ImportErrorAggregator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportErrorAggregator.class);
+
+    private final List<ImportErrorInfo> importErrorInfos;
+
+    private String sheetName;
+    private int columnIndex;
+    private Exception firstException;
+    private int beginRowIndex;
+    private int endRowIndex;
+    private int rowCount = 0;
+
+    public ImportErrorAggregator(List<ImportErrorInfo> importErrorInfos) {
+        this.importErrorInfos = importErrorInfos;
+    }
+
+    public void rowLoaded() {
+        // 正常读取的行使连续出错的行中断。
+        if (rowCount > 0) {
+            flush();
+        }
+    }
+
+    public void rowFailed(String sheetName, int rowIndex, int columnIndex, Exception e) {
+        if (rowCount > 0 && !isSameGroup(sheetName, columnIndex, e)) {
+            flush();
+        }
+        if (rowCount == 0) {
+            this.sheetName = sheetName;
+            this.columnIndex = columnIndex;
+            this.firstException = e;
+            this.beginRowIndex = rowIndex;
+        }
+        endRowIndex = rowIndex;
+        rowCount++;
+    }
+
+    public void flush() {
+        if (rowCount == 0) {
+            return;
+        }
+        String cause = (columnIndex < 0 ? "" : "列索引 " + columnIndex + ", ") +
+                firstException.getClass().getSimpleName();
+        // 每组只输出首个异常的堆栈，错误信息中引用的控制台日志即为此处的输出。
+        LOGGER.warn(
+                "读取数据表 {} 的第 {} - {} 行(对应数据表是第 {} - {} 行)数据时出现异常，共 {} 行，异常原因为: {}, " +
+                        "首个异常的信息为: ",
+                sheetName, beginRowIndex, endRowIndex, beginRowIndex + 1, endRowIndex + 1, rowCount, cause,
+                firstException
+        );
+        importErrorInfos.add(new ImportErrorInfo(
+                null, sheetName, beginRowIndex, endRowIndex, rowCount, "数据源错误(" + cause + ")，详见控制台日志"
+        ));
+        sheetName = null;
+        firstException = null;
+        rowCount = 0;
+    }
+
+    private boolean isSameGroup(String sheetName, int columnIndex, Exception e) {
+        return Objects.equals(this.sheetName, sheetName) && this.columnIndex == columnIndex &&
+                firstException.getClass() == e.getClass();
+    }
+}
@@ -0,0 +1,38 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportMetrics;
+import com.jneagle.xlstool.dpxhtj.bean.dto.SheetImportMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 导入指标记录器。
+ *
+ * <p>
+ * 各导入任务在完成工作簿的导入后记录该工作簿的指标，该类是线程安全的。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class ImportMetricsRecorder {
+
+    private final long beginNanos = System.nanoTime();
+    private final List<SheetImportMetrics> sheetImportMetrics = new ArrayList<>();
+
+    private long insertNanos = 0;
+
+    public synchronized void record(SheetImportMetrics metrics) {
+        sheetImportMetrics.add(metrics);
+    }
+
+    public synchronized void recordInsert(long nanos) {
+        insertNanos += nanos;
+    }
+
+    public synchronized ImportMetrics snapshot() {
+        return new ImportMetrics(
+                System.nanoTime() - beginNanos, insertNanos, new ArrayList<>(sheetImportMetrics)
+        );
+    }
+}
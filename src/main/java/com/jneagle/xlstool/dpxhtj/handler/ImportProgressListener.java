@@ -0,0 +1,13 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+/**
+ * 导入进度监听器。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+@FunctionalInterface
+interface ImportProgressListener {
+
+    void onProgressChanged(int progress, int total);
+}
@@ -0,0 +1,20 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+
+import java.util.List;
+
+/**
+ * 导入任务。
+ *
+ * <p>
+ * 一个导入任务对应一个工作簿、文件或者文件的分块，成功读取的消耗明细交给接收器，错误信息添加到列表中。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+@FunctionalInterface
+interface ImportTask {
+
+    void exec(ConsumingDetailSink consumingDetailSink, List<ImportErrorInfo> importErrorInfos) throws Exception;
+}
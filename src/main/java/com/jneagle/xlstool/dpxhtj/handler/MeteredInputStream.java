@@ -0,0 +1,40 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 计量输入流。
+ *
+ * <p>
+ * 记录从底层输入流读取的字节数以及读取的耗时。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class MeteredInputStream extends FilterInputStream {
+
+    private final SheetMetricsCounter sheetMetricsCounter;
+
+    public MeteredInputStream(InputStream in, SheetMetricsCounter sheetMetricsCounter) {
+        super(in);
+        this.sheetMetricsCounter = sheetMetricsCounter;
+    }
+
+    @Override
+    public int read() throws IOException {
+        long beginNanos = System.nanoTime();
+        int b = super.read();
+        sheetMetricsCounter.recordRead(b < 0 ? 0 : 1, System.nanoTime() - beginNanos);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long beginNanos = System.nanoTime();
+        int length = super.read(b, off, len);
+        sheetMetricsCounter.recordRead(Math.max(length, 0), System.nanoTime() - beginNanos);
+        return length;
+    }
+}
@@ -0,0 +1,92 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 并行执行的导入任务。
+ *
+ * <p>
+ * 任务在合并结果的线程中执行时，消耗明细直接交给下游的接收器。
+ * 在其它线程中执行时，下游为缓冲区的，消耗明细先保留在任务自身的缓冲区中，任务结束后再交给下游；
+ * 下游为流水线等不在内存中保留数据的接收器的，消耗明细经由任务自身的有界通道逐批交给合并结果的线程，
+ * 尚未合并的消耗明细不会随工作簿或者文件的大小增长。
+ *
+ * <p>
+ * 导入错误信息总是在任务结束后按照任务的顺序合并。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class ParallelImportTask {
+
+    private final ImportTask task;
+    private final ConsumingDetailSink downstream;
+    private final Thread mergingThread;
+
+    private final ConsumingDetailSink taskConsumingDetailSink;
+    private final List<ImportErrorInfo> taskImportErrorInfos = new ArrayList<>();
+    private final FutureTask<Void> futureTask = new FutureTask<>(this::exec);
+
+    /**
+     * 创建并行执行的导入任务。
+     *
+     * @param task          导入任务。
+     * @param downstream    下游的接收器。
+     * @param mergingThread 合并结果的线程。
+     * @param batchSize     经由通道交给合并结果的线程时，每个批次的消耗明细数量。
+     */
+    public ParallelImportTask(ImportTask task, ConsumingDetailSink downstream, Thread mergingThread, int batchSize) {
+        this.task = task;
+        this.downstream = downstream;
+        this.mergingThread = mergingThread;
+        if (downstream instanceof ConsumingDetailBuffer) {
+            taskConsumingDetailSink = ((ConsumingDetailBuffer) downstream).fork();
+        } else {
+            taskConsumingDetailSink = new ConsumingDetailChannel(batchSize);
+        }
+    }
+
+    public FutureTask<Void> getFutureTask() {
+        return futureTask;
+    }
+
+    private Void exec() throws Exception {
+        if (Thread.currentThread() == mergingThread) {
+            task.exec(downstream, taskImportErrorInfos);
+            return null;
+        }
+        task.exec(taskConsumingDetailSink, taskImportErrorInfos);
+        if (taskConsumingDetailSink instanceof ConsumingDetailChannel) {
+            ((ConsumingDetailChannel) taskConsumingDetailSink).close();
+        }
+        return null;
+    }
+
+    /**
+     * 等待任务结束，并将任务的结果交给下游。
+     *
+     * <p>
+     * 该方法只能在合并结果的线程中调用。
+     *
+     * @param importErrorInfos 下游的导入错误信息列表。
+     * @throws Exception 任务执行过程中发生的任何异常，以 {@link ExecutionException} 的形式抛出。
+     */
+    public void merge(List<ImportErrorInfo> importErrorInfos) throws Exception {
+        // 尚未被执行器领取的任务直接在当前线程中执行，已开始或已结束的任务调用此方法没有任何效果。
+        // 批量导入时，文件任务会在执行器中再次提交工作簿任务，这样可以避免线程池耗尽时的相互等待。
+        futureTask.run();
+        if (taskConsumingDetailSink instanceof ConsumingDetailChannel) {
+            ((ConsumingDetailChannel) taskConsumingDetailSink).drainTo(downstream, futureTask);
+        }
+        futureTask.get();
+        if (taskConsumingDetailSink instanceof ConsumingDetailBuffer) {
+            ((ConsumingDetailBuffer) taskConsumingDetailSink).getConsumingDetails().forEach(downstream::accept);
+        }
+        importErrorInfos.addAll(taskImportErrorInfos);
+    }
+}
@@ -0,0 +1,45 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.xssf.model.SharedStrings;
+
+import java.util.BitSet;
+
+/**
+ * 记录被读取的条目的共享字符串表。
+ *
+ * <p>
+ * 增量导入时，用于确定工作簿引用的共享字符串，共享字符串的变化不会体现在工作簿自身的内容中。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class RecordingSharedStrings implements SharedStrings {
+
+    private final SharedStrings delegate;
+    private final BitSet sharedStringIndexes = new BitSet();
+
+    public RecordingSharedStrings(SharedStrings delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        sharedStringIndexes.set(idx);
+        return delegate.getItemAt(idx);
+    }
+
+    @Override
+    public int getCount() {
+        return delegate.getCount();
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return delegate.getUniqueCount();
+    }
+
+    public BitSet getSharedStringIndexes() {
+        return sharedStringIndexes;
+    }
+}
@@ -0,0 +1,86 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.structure.StringDictionary;
+
+import java.math.BigDecimal;
+
+/**
+ * 行缓冲区。
+ *
+ * <p>
+ * 数值字段使用 {@link Double#NaN} 表示缺失，只有在生成实体时才进行装箱。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class RowBuffer {
+
+    private final StringDictionary stringDictionary;
+    private final SerialDateDecoder serialDateDecoder = new SerialDateDecoder();
+
+    private String toolCutterType;
+    private String device;
+    private double consumingQuantity;
+    private double worth;
+    private String consumingPerson;
+    private double consumingDate;
+    private String remark;
+    private double returningQuantity;
+    private String returningUsageInfo;
+
+    public RowBuffer(StringDictionary stringDictionary) {
+        this.stringDictionary = stringDictionary;
+    }
+
+    public void setToolCutterType(String toolCutterType) {
+        this.toolCutterType = toolCutterType;
+    }
+
+    public void setDevice(String device) {
+        this.device = device;
+    }
+
+    public void setConsumingQuantity(double consumingQuantity) {
+        this.consumingQuantity = consumingQuantity;
+    }
+
+    public void setWorth(double worth) {
+        this.worth = worth;
+    }
+
+    public void setConsumingPerson(String consumingPerson) {
+        this.consumingPerson = consumingPerson;
+    }
+
+    public void setConsumingDate(double consumingDate) {
+        this.consumingDate = consumingDate;
+    }
+
+    public void setRemark(String remark) {
+        this.remark = remark;
+    }
+
+    public void setReturningQuantity(double returningQuantity) {
+        this.returningQuantity = returningQuantity;
+    }
+
+    public void setReturningUsageInfo(String returningUsageInfo) {
+        this.returningUsageInfo = returningUsageInfo;
+    }
+
+    public ConsumingDetail toConsumingDetail(String toolCutterCode) {
+        // 取值种类较少的字段经过字典，内容相同的值共享同一个实例；备注的取值几乎各不相同，不经过字典。
+        return new ConsumingDetail(
+                null, stringDictionary.intern(toolCutterType), stringDictionary.intern(device),
+                toInteger(consumingQuantity), Double.isNaN(worth) ? null : BigDecimal.valueOf(worth),
+                stringDictionary.intern(consumingPerson), serialDateDecoder.toDate(consumingDate), remark,
+                stringDictionary.intern(toolCutterCode), toInteger(returningQuantity),
+                stringDictionary.intern(returningUsageInfo), serialDateDecoder.toDay(consumingDate)
+        );
+    }
+
+    private static Integer toInteger(double value) {
+        return Double.isNaN(value) ? null : (int) value;
+    }
+}
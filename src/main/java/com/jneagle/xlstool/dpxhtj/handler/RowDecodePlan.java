@@ -0,0 +1,149 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * 数据行的解码计划。
+ *
+ * <p>
+ * 由数据工作簿的配置编译而成，记录各字段所在的列、第一条数据所在的行号以及停止读取的连续空白行数量。
+ * 读取每一行时只需依次执行列提取器，各解析方式（用户模型、事件模型以及 CSV 文件）共享同一个解码计划。
+ *
+ * <p>
+ * 解码计划创建之后不再变化，可以在多个线程之间共享。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+final class RowDecodePlan {
+
+    private final ColumnExtractor[] columnExtractors;
+    private final int[] columnIndexes;
+    private final int rowValueLength;
+    private final int firstDataRow;
+    private final int blankRowStopThreshold;
+
+    public RowDecodePlan(
+            int toolCutterTypeColumnIndex, int deviceColumnIndex, int consumingQuantityColumnIndex,
+            int worthColumnIndex, int consumingPersonColumnIndex, int consumingDateColumnIndex,
+            int remarkColumnIndex, int returningQuantityColumnIndex, int returningUsageInfoColumnIndex,
+            int firstDataRow, int blankRowStopThreshold
+    ) {
+        columnExtractors = new ColumnExtractor[]{
+                stringColumn(toolCutterTypeColumnIndex, RowBuffer::setToolCutterType),
+                stringColumn(deviceColumnIndex, RowBuffer::setDevice),
+                numberColumn(consumingQuantityColumnIndex, RowBuffer::setConsumingQuantity),
+                numberColumn(worthColumnIndex, RowBuffer::setWorth),
+                stringColumn(consumingPersonColumnIndex, RowBuffer::setConsumingPerson),
+                numberColumn(consumingDateColumnIndex, RowBuffer::setConsumingDate),
+                stringColumn(remarkColumnIndex, RowBuffer::setRemark),
+                numberColumn(returningQuantityColumnIndex, RowBuffer::setReturningQuantity),
+                stringColumn(returningUsageInfoColumnIndex, RowBuffer::setReturningUsageInfo)
+        };
+        columnIndexes = new int[]{
+                toolCutterTypeColumnIndex, deviceColumnIndex, consumingQuantityColumnIndex, worthColumnIndex,
+                consumingPersonColumnIndex, consumingDateColumnIndex, remarkColumnIndex,
+                returningQuantityColumnIndex, returningUsageInfoColumnIndex
+        };
+        rowValueLength = Arrays.stream(columnIndexes).max().orElse(0) + 1;
+        this.firstDataRow = firstDataRow;
+        this.blankRowStopThreshold = blankRowStopThreshold;
+    }
+
+    private static ColumnExtractor stringColumn(int columnIndex, BiConsumer<RowBuffer, String> setter) {
+        return (rowSource, rowBuffer) -> setter.accept(rowBuffer, rowSource.getString(columnIndex));
+    }
+
+    private static ColumnExtractor numberColumn(int columnIndex, ObjDoubleConsumer<RowBuffer> setter) {
+        return (rowSource, rowBuffer) -> setter.accept(rowBuffer, rowSource.getNumber(columnIndex));
+    }
+
+    /**
+     * 读取一行数据。
+     *
+     * <p>
+     * 成功读取的消耗明细交给接收器，出错的行只记录位置与原因，由错误聚合器合并后统一输出日志与错误信息。
+     *
+     * @param rowSource             行数据源。
+     * @param rowBuffer             行缓冲区。
+     * @param sheetName             错误信息中的工作簿名称。
+     * @param toolCutterCode        刀具编号。
+     * @param rowIndex              行索引。
+     * @param consumingDetailSink   消耗明细接收器。
+     * @param importErrorAggregator 导入错误聚合器。
+     */
+    public void loadRow(
+            RowSource rowSource, RowBuffer rowBuffer, String sheetName, String toolCutterCode, int rowIndex,
+            ConsumingDetailSink consumingDetailSink, ImportErrorAggregator importErrorAggregator
+    ) {
+        int extractorIndex = 0;
+        ConsumingDetail consumingDetail;
+        try {
+            for (; extractorIndex < columnExtractors.length; extractorIndex++) {
+                columnExtractors[extractorIndex].extract(rowSource, rowBuffer);
+            }
+            consumingDetail = rowBuffer.toConsumingDetail(toolCutterCode);
+        } catch (Exception e) {
+            int columnIndex = extractorIndex < columnExtractors.length ? columnIndexes[extractorIndex] : -1;
+            importErrorAggregator.rowFailed(sheetName, rowIndex, columnIndex, e);
+            return;
+        }
+        importErrorAggregator.rowLoaded();
+        // 接收器的异常不属于该行数据的错误，直接向外抛出，中止整个导入过程。
+        consumingDetailSink.accept(consumingDetail);
+    }
+
+    public boolean isBlankRow(CellRowValues rowValues) {
+        for (int columnIndex : columnIndexes) {
+            if (!rowValues.isBlank(columnIndex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isBlankRow(String[] rowValues) {
+        for (int columnIndex : columnIndexes) {
+            if (StringUtils.isNotBlank(rowValues[columnIndex])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 创建空白行计数器，每个工作簿的读取过程使用各自的计数器。
+     *
+     * @return 新的空白行计数器。
+     */
+    public BlankRowCounter newBlankRowCounter() {
+        return new BlankRowCounter(firstDataRow, blankRowStopThreshold);
+    }
+
+    /**
+     * 获取各字段所在的列索引。
+     *
+     * @return 各字段所在的列索引，调用者不应修改返回的数组。
+     */
+    public int[] getColumnIndexes() {
+        return columnIndexes;
+    }
+
+    /**
+     * 获取单元格取值的长度，即最大的列索引加一。
+     *
+     * @return 单元格取值的长度。
+     */
+    public int getRowValueLength() {
+        return rowValueLength;
+    }
+
+    public int getFirstDataRow() {
+        return firstDataRow;
+    }
+}
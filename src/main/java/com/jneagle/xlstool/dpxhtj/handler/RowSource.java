@@ -0,0 +1,17 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+/**
+ * 行数据源。
+ *
+ * <p>
+ * 为解码计划提供统一的按列读取的方式，数值缺失时返回 {@link Double#NaN}。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+interface RowSource {
+
+    String getString(int columnIndex);
+
+    double getNumber(int columnIndex);
+}
@@ -0,0 +1,94 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excel 日期序列号解码器。
+ *
+ * <p>
+ * 使用日序号运算代替 {@link java.util.Calendar}，并以直接映射的方式缓存每一天的日序号以及零点时刻。
+ * 数据表中的日期通常集中在几百天之内，绝大多数的解码都能够命中缓存，不需要创建任何中间对象。
+ *
+ * <p>
+ * 该类不是线程安全的，每个行缓冲区持有各自的解码器。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class SerialDateDecoder {
+
+    private static final int CACHE_SIZE = 1024;
+    private static final int CACHE_MASK = CACHE_SIZE - 1;
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * 1970-01-01 对应的 Excel 日期序列号。
+     */
+    private static final int SERIAL_OF_EPOCH = 25569;
+
+    /**
+     * 1900 日期系统将 1900 年视为闰年，此序列号之前的日期需要多补偿一天，与 POI 的处理方式保持一致。
+     */
+    private static final int FIRST_SERIAL_AFTER_LEAP_BUG = 61;
+
+    private final int[] cachedSerials = new int[CACHE_SIZE];
+    private final Integer[] cachedDays = new Integer[CACHE_SIZE];
+    private final long[] cachedMidnights = new long[CACHE_SIZE];
+
+    public SerialDateDecoder() {
+        // 合法的日期序列号均不小于 0，以 -1 标记空的缓存槽。
+        Arrays.fill(cachedSerials, -1);
+    }
+
+    public Date toDate(double serial) {
+        if (!DateUtil.isValidExcelDate(serial)) {
+            return null;
+        }
+        int wholeDays = (int) serial;
+        // 带有时间部分的日期序列号很少见，交由 POI 处理以保证结果完全一致。
+        if (serial != wholeDays) {
+            return DateUtil.getJavaDate(serial);
+        }
+        return new Date(cachedMidnights[slotOf(wholeDays)]);
+    }
+
+    public Integer toDay(double serial) {
+        if (!DateUtil.isValidExcelDate(serial)) {
+            return null;
+        }
+        int wholeDays = (int) serial;
+        // 与 POI 相同，时间部分四舍五入至毫秒，恰好进位为一整天时计入下一天。
+        if (Math.round((serial - wholeDays) * MILLIS_PER_DAY) >= MILLIS_PER_DAY) {
+            wholeDays++;
+        }
+        return cachedDays[slotOf(wholeDays)];
+    }
+
+    /**
+     * 获取日序号对应的日期序列号。
+     *
+     * @param epochDay 日序号。
+     * @return 日序号对应的日期序列号。
+     */
+    public static int serialOf(long epochDay) {
+        int serial = (int) (epochDay + SERIAL_OF_EPOCH);
+        return serial < FIRST_SERIAL_AFTER_LEAP_BUG ? serial - 1 : serial;
+    }
+
+    private int slotOf(int wholeDays) {
+        int slot = wholeDays & CACHE_MASK;
+        if (cachedSerials[slot] != wholeDays) {
+            int epochDay = wholeDays < FIRST_SERIAL_AFTER_LEAP_BUG ?
+                    wholeDays - SERIAL_OF_EPOCH + 1 : wholeDays - SERIAL_OF_EPOCH;
+            cachedSerials[slot] = wholeDays;
+            cachedDays[slot] = epochDay;
+            // 零点时刻只在缓存未命中时计算一次，交由 POI 处理以保证时区历史与夏令时的处理方式完全一致。
+            cachedMidnights[slot] = DateUtil.getJavaDate(wholeDays).getTime();
+        }
+        return slot;
+    }
+}
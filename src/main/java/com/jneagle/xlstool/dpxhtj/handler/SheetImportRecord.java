@@ -0,0 +1,88 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 工作簿导入记录。
+ *
+ * <p>
+ * 工作簿名称与指纹为 null 时，表示该记录对应整个文件。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class SheetImportRecord {
+
+    private final String sheetName;
+    private final byte[] fingerprint;
+
+    private BitSet sharedStringIndexes = new BitSet();
+    private byte[] sharedStringsFingerprint;
+
+    private int consumingDetailCount;
+    private int importErrorInfoCount;
+
+    private List<UuidKey> consumingDetailKeys;
+    private List<UuidKey> importErrorInfoKeys;
+
+    public SheetImportRecord(String sheetName, byte[] fingerprint) {
+        this.sheetName = sheetName;
+        this.fingerprint = fingerprint;
+    }
+
+    public void setImportedCount(int consumingDetailCount, int importErrorInfoCount) {
+        this.consumingDetailCount = consumingDetailCount;
+        this.importErrorInfoCount = importErrorInfoCount;
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public byte[] getFingerprint() {
+        return fingerprint;
+    }
+
+    public BitSet getSharedStringIndexes() {
+        return sharedStringIndexes;
+    }
+
+    public void setSharedStringIndexes(BitSet sharedStringIndexes) {
+        this.sharedStringIndexes = sharedStringIndexes;
+    }
+
+    public byte[] getSharedStringsFingerprint() {
+        return sharedStringsFingerprint;
+    }
+
+    public void setSharedStringsFingerprint(byte[] sharedStringsFingerprint) {
+        this.sharedStringsFingerprint = sharedStringsFingerprint;
+    }
+
+    public int getConsumingDetailCount() {
+        return consumingDetailCount;
+    }
+
+    public int getImportErrorInfoCount() {
+        return importErrorInfoCount;
+    }
+
+    public List<UuidKey> getConsumingDetailKeys() {
+        return consumingDetailKeys;
+    }
+
+    public void setConsumingDetailKeys(List<UuidKey> consumingDetailKeys) {
+        this.consumingDetailKeys = consumingDetailKeys;
+    }
+
+    public List<UuidKey> getImportErrorInfoKeys() {
+        return importErrorInfoKeys;
+    }
+
+    public void setImportErrorInfoKeys(List<UuidKey> importErrorInfoKeys) {
+        this.importErrorInfoKeys = importErrorInfoKeys;
+    }
+}
@@ -0,0 +1,70 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.dto.SheetImportMetrics;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 工作簿指标计数器。
+ *
+ * <p>
+ * 自创建起计时，只在导入工作簿的线程中使用，不是线程安全的。
+ * 经过的时间中扣除解密、读取以及公式计算的耗时，剩余的部分即为解析耗时。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class SheetMetricsCounter {
+
+    private final long beginNanos = System.nanoTime();
+
+    private int rowCount = 0;
+    private long byteCount = 0;
+    private long decryptNanos = 0;
+    private long readNanos = 0;
+    private long formulaNanos = 0;
+
+    public void recordDecrypt(long nanos) {
+        decryptNanos += nanos;
+    }
+
+    public void recordRead(long bytes, long nanos) {
+        byteCount += bytes;
+        readNanos += nanos;
+    }
+
+    public void recordFormula(long nanos) {
+        formulaNanos += nanos;
+    }
+
+    /**
+     * 统计导入的数据行数。
+     *
+     * <p>
+     * 成功读取的行数为结果实体的增量，出错的行数为新增的导入错误信息所聚合的行数之和。
+     */
+    public void countRows(
+            int consumingDetailCount, List<ImportErrorInfo> importErrorInfos, int importErrorInfoBeginIndex
+    ) {
+        rowCount += consumingDetailCount;
+        for (int i = importErrorInfoBeginIndex; i < importErrorInfos.size(); i++) {
+            Integer errorRowCount = importErrorInfos.get(i).getRowCount();
+            rowCount += Objects.isNull(errorRowCount) ? 1 : errorRowCount;
+        }
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - beginNanos;
+    }
+
+    public SheetImportMetrics finish(String fileName, String sheetName) {
+        long elapsedNanos = getElapsedNanos();
+        long parseNanos = Math.max(elapsedNanos - decryptNanos - readNanos - formulaNanos, 0);
+        return new SheetImportMetrics(
+                fileName, sheetName, rowCount, byteCount, elapsedNanos, decryptNanos, readNanos, parseNanos,
+                formulaNanos
+        );
+    }
+}
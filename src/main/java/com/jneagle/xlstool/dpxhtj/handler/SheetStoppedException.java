@@ -0,0 +1,19 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+/**
+ * 工作簿解析中止异常。
+ *
+ * <p>
+ * 用于在事件模型的解析过程中提前结束当前工作簿的解析，不记录调用栈。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class SheetStoppedException extends RuntimeException {
+
+    private static final long serialVersionUID = 5283640173329517836L;
+
+    public SheetStoppedException() {
+        super(null, null, false, false);
+    }
+}
@@ -5,18 +5,35 @@ import com.jneagle.xlstool.dpxhtj.bean.dto.StatisticResult;
 import com.jneagle.xlstool.dpxhtj.bean.dto.StatisticResult.DevicePerspective;
 import com.jneagle.xlstool.dpxhtj.bean.dto.StatisticResult.PersonPerspective;
 import com.jneagle.xlstool.dpxhtj.bean.dto.StatisticResult.ToolCutterPerspective;
-import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
 import com.jneagle.xlstool.dpxhtj.service.ConsumingDetailMaintainService;
+import com.jneagle.xlstool.dpxhtj.structure.ConsumingDetailCursor;
 import com.jneagle.xlstool.dpxhtj.structure.ProgressStatus;
+import com.jneagle.xlstool.dpxhtj.util.EpochDayUtil;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.*;
 
 @Component
 public class StatisticHandlerImpl extends AbstractProgressHandler implements StatisticHandler {
 
+    /**
+     * 统计过程中广播进度的次数上限，避免为每条数据广播一次进度。
+     */
+    private static final int PROGRESS_STEPS = 1000;
+
+    /**
+     * 没有领用日期时的年月序号。
+     */
+    private static final int NO_YEAR_MONTH = Integer.MIN_VALUE;
+
+    private static final int RETURNING_USAGE_NONE = 0;
+    private static final int RETURNING_USAGE_G01 = 1;
+    private static final int RETURNING_USAGE_G02 = 2;
+    private static final int RETURNING_USAGE_G03 = 3;
+
     private final ConsumingDetailMaintainService consumingDetailMaintainService;
 
     @Value("${statistics.regex.returning_usage.g01}")
@@ -38,30 +55,12 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
             // 广播进度变更事件。
             fireProgressChanged(ProgressStatus.UNCERTAIN);
 
-            // 获取所有的消耗明细数据。
-            List<ConsumingDetail> consumingDetails = consumingDetailMaintainService.lookupAsList();
-
-            // 定义统计结果中间变量。
-            Map<PersonPerspectiveKey, PersonPerspective> personPerspectiveMap = new LinkedHashMap<>();
-            Map<DevicePerspectiveKey, DevicePerspective> devicePerspectiveMap = new LinkedHashMap<>();
-            Map<ToolCutterPerspectiveKey, ToolCutterPerspective> toolCutterPerspectiveMap = new LinkedHashMap<>();
-
-            // 设置总体进度。
-            int progress = 0;
-            fireProgressChanged(progress, consumingDetails.size());
-
-            // 遍历所有消耗明细，处理单条数据。
-            for (ConsumingDetail consumingDetail : consumingDetails) {
-                execStatisticSingleData(consumingDetail, personPerspectiveMap, devicePerspectiveMap, toolCutterPerspectiveMap);
-                fireProgressChanged(++progress, consumingDetails.size());
-            }
+            // 扫描所有的消耗明细数据，逐条汇总到统计结果中，扫描期间不为每条数据创建对象。
+            StatisticCollector collector = new StatisticCollector();
+            consumingDetailMaintainService.scan(collector::collect);
 
             // 返回结果。
-            return new StatisticResult(
-                    new ArrayList<>(personPerspectiveMap.values()),
-                    new ArrayList<>(devicePerspectiveMap.values()),
-                    new ArrayList<>(toolCutterPerspectiveMap.values())
-            );
+            return collector.toStatisticResult();
         } catch (Exception e) {
             throw new HandlerException(e);
         } finally {
@@ -70,149 +69,250 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
         }
     }
 
-    private void execStatisticSingleData(
-            ConsumingDetail consumingDetail,
-            Map<PersonPerspectiveKey, PersonPerspective> personPerspectiveMap,
-            Map<DevicePerspectiveKey, DevicePerspective> devicePerspectiveMap,
-            Map<ToolCutterPerspectiveKey, ToolCutterPerspective> toolCutterPerspectiveMap
-    ) {
-        // 获取关键参数，构造不同 Perspective 的主键。
-        Date consumingDate = consumingDetail.getConsumingDate();
-        Calendar consumingCalendar = Optional.ofNullable(consumingDate).map((date) -> {
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(date);
-            return calendar;
-        }).orElse(null);
-        Integer year = Optional.ofNullable(consumingCalendar).map(calendar -> calendar.get(Calendar.YEAR))
-                .orElse(null);
-        Integer month = Optional.ofNullable(consumingCalendar).map(calendar -> calendar.get(Calendar.MONTH))
-                .orElse(null);
-        String name = consumingDetail.getConsumingPerson();
-        String toolCutterType = consumingDetail.getToolCutterType();
-        String device = consumingDetail.getDevice();
-        Integer consumingQuantity = Optional.ofNullable(consumingDetail.getConsumingQuantity()).orElse(0);
-        BigDecimal worth = Optional.ofNullable(consumingDetail.getWorth()).orElse(BigDecimal.ZERO);
-        String toolCutterCode = consumingDetail.getToolCutterCode();
-        Integer returningQuantity = Optional.ofNullable(consumingDetail.getReturningQuantity()).orElse(0);
-        PersonPerspectiveKey personPerspectiveKey = new PersonPerspectiveKey(
-                year, month, name, toolCutterType, device, toolCutterCode
-        );
-        DevicePerspectiveKey devicePerspectiveKey = new DevicePerspectiveKey(
-                year, month, toolCutterType, device, toolCutterCode
-        );
-        ToolCutterPerspectiveKey toolCutterPerspectiveKey = new ToolCutterPerspectiveKey(
-                year, month, toolCutterType, toolCutterCode
-        );
-
-        // 处理退回使用等级。
-        Integer returningUsageG01Quantity = 0;
-        Integer returningUsageG02Quantity = 0;
-        Integer returningUsageG03Quantity = 0;
-
-        String returningUsageInfo = consumingDetail.getReturningUsageInfo();
-        if (Objects.nonNull(returningUsageInfo)) {
-            if (returningUsageInfo.matches(returningUsageG01Regex)) {
-                returningUsageG01Quantity = returningQuantity;
-            } else if (returningUsageInfo.matches(returningUsageG02Regex)) {
-                returningUsageG02Quantity = returningQuantity;
-            } else if (returningUsageInfo.matches(returningUsageG03Regex)) {
-                returningUsageG03Quantity = returningQuantity;
+    /**
+     * 统计结果收集器。
+     *
+     * <p>
+     * 各个视角的统计结果以可变的累加器保存，查找累加器时复用同一个查找键，
+     * 只有新出现的键才会复制一份保存，因此汇总单条数据时通常不创建任何对象。
+     */
+    private class StatisticCollector {
+
+        private final Map<PersonPerspectiveKey, PerspectiveAccumulator> personAccumulatorMap =
+                new LinkedHashMap<>();
+        private final Map<DevicePerspectiveKey, PerspectiveAccumulator> deviceAccumulatorMap =
+                new LinkedHashMap<>();
+        private final Map<ToolCutterPerspectiveKey, PerspectiveAccumulator> toolCutterAccumulatorMap =
+                new LinkedHashMap<>();
+
+        private final PersonPerspectiveKey personPerspectiveKey = new PersonPerspectiveKey();
+        private final DevicePerspectiveKey devicePerspectiveKey = new DevicePerspectiveKey();
+        private final ToolCutterPerspectiveKey toolCutterPerspectiveKey = new ToolCutterPerspectiveKey();
+
+        /**
+         * 退回使用信息对应的等级，字符串字段的取值种类较少，缓存之后无需对每条数据进行正则匹配。
+         */
+        private final Map<String, Integer> returningUsageGradeMap = new HashMap<>();
+
+        private final Calendar calendar = Calendar.getInstance();
+
+        private int progressInterval = 1;
+
+        public void collect(ConsumingDetailCursor cursor) {
+            // 设置总体进度。
+            int progress = cursor.getIndex() + 1;
+            int total = cursor.getCount();
+            if (cursor.getIndex() == 0) {
+                progressInterval = Math.max(total / PROGRESS_STEPS, 1);
+                fireProgressChanged(0, total);
+            }
+
+            // 获取关键参数。
+            int yearMonth = yearMonthOf(cursor);
+            String name = cursor.getConsumingPerson();
+            String toolCutterType = cursor.getToolCutterType();
+            String device = cursor.getDevice();
+            String toolCutterCode = cursor.getToolCutterCode();
+            int consumingQuantity = cursor.getConsumingQuantity();
+            int returningQuantity = cursor.getReturningQuantity();
+            int returningUsageGrade = returningUsageGradeOf(cursor.getReturningUsageInfo());
+
+            // 处理 PersonPerspective。
+            personPerspectiveKey.set(yearMonth, name, toolCutterType, device, toolCutterCode);
+            PerspectiveAccumulator personAccumulator = personAccumulatorMap.get(personPerspectiveKey);
+            if (Objects.isNull(personAccumulator)) {
+                personAccumulator = new PerspectiveAccumulator();
+                personAccumulatorMap.put(personPerspectiveKey.copy(), personAccumulator);
+            }
+            personAccumulator.add(cursor, consumingQuantity, returningQuantity, returningUsageGrade);
+
+            // 处理 DevicePerspective。
+            devicePerspectiveKey.set(yearMonth, toolCutterType, device, toolCutterCode);
+            PerspectiveAccumulator deviceAccumulator = deviceAccumulatorMap.get(devicePerspectiveKey);
+            if (Objects.isNull(deviceAccumulator)) {
+                deviceAccumulator = new PerspectiveAccumulator();
+                deviceAccumulatorMap.put(devicePerspectiveKey.copy(), deviceAccumulator);
+            }
+            deviceAccumulator.add(cursor, consumingQuantity, returningQuantity, returningUsageGrade);
+
+            // 处理 ToolCutterPerspective。
+            toolCutterPerspectiveKey.set(yearMonth, toolCutterType, toolCutterCode);
+            PerspectiveAccumulator toolCutterAccumulator = toolCutterAccumulatorMap.get(toolCutterPerspectiveKey);
+            if (Objects.isNull(toolCutterAccumulator)) {
+                toolCutterAccumulator = new PerspectiveAccumulator();
+                toolCutterAccumulatorMap.put(toolCutterPerspectiveKey.copy(), toolCutterAccumulator);
+            }
+            toolCutterAccumulator.add(cursor, consumingQuantity, returningQuantity, returningUsageGrade);
+
+            // 按照间隔广播进度变更事件。
+            if (progress % progressInterval == 0 || progress == total) {
+                fireProgressChanged(progress, total);
             }
         }
 
-        // 处理 PersonPerspective。
-        PersonPerspective oldPersonPerspective = personPerspectiveMap.getOrDefault(
-                personPerspectiveKey, initPersonPerspective(personPerspectiveKey)
-        );
-        PersonPerspective neoPersonPerspective = new PersonPerspective(
-                oldPersonPerspective.getMonth(), oldPersonPerspective.getName(),
-                oldPersonPerspective.getToolCutterType(),
-                oldPersonPerspective.getConsumingQuantity() + consumingQuantity,
-                oldPersonPerspective.getWorth().add(worth),
-                oldPersonPerspective.getDevice(), oldPersonPerspective.getYear(),
-                oldPersonPerspective.getToolCutterCode(),
-                oldPersonPerspective.getReturningQuantity() + returningQuantity,
-                oldPersonPerspective.getReturningUsageG01Quantity() + returningUsageG01Quantity,
-                oldPersonPerspective.getReturningUsageG02Quantity() + returningUsageG02Quantity,
-                oldPersonPerspective.getReturningUsageG03Quantity() + returningUsageG03Quantity
-        );
-        personPerspectiveMap.put(personPerspectiveKey, neoPersonPerspective);
-
-        // 处理 DevicePerspective。
-        DevicePerspective oldDevicePerspective = devicePerspectiveMap.getOrDefault(
-                devicePerspectiveKey, initDevicePerspective(devicePerspectiveKey)
-        );
-        DevicePerspective neoDevicePerspective = new DevicePerspective(
-                oldDevicePerspective.getMonth(), oldDevicePerspective.getDevice(),
-                oldDevicePerspective.getToolCutterType(),
-                oldDevicePerspective.getConsumingQuantity() + consumingQuantity,
-                oldDevicePerspective.getWorth().add(worth),
-                oldDevicePerspective.getYear(),
-                oldDevicePerspective.getToolCutterCode()
-        );
-        devicePerspectiveMap.put(devicePerspectiveKey, neoDevicePerspective);
-
-        // 处理 ToolCutterPerspective。
-        ToolCutterPerspective oldToolCutterPerspective = toolCutterPerspectiveMap.getOrDefault(
-                toolCutterPerspectiveKey, initToolCutterPerspective(toolCutterPerspectiveKey)
-        );
-        ToolCutterPerspective neoToolCutterPerspective = new ToolCutterPerspective(
-                oldToolCutterPerspective.getMonth(),
-                oldToolCutterPerspective.getToolCutterType(),
-                oldToolCutterPerspective.getConsumingQuantity() + consumingQuantity,
-                oldToolCutterPerspective.getWorth().add(worth),
-                oldToolCutterPerspective.getYear(),
-                oldToolCutterPerspective.getToolCutterCode()
-        );
-        toolCutterPerspectiveMap.put(toolCutterPerspectiveKey, neoToolCutterPerspective);
-    }
+        public StatisticResult toStatisticResult() {
+            List<PersonPerspective> personPerspectives = new ArrayList<>(personAccumulatorMap.size());
+            personAccumulatorMap.forEach((key, accumulator) -> personPerspectives.add(new PersonPerspective(
+                    key.getMonth(), key.getName(), key.getToolCutterType(), accumulator.consumingQuantity,
+                    accumulator.getWorth(), key.getDevice(), key.getYear(), key.getToolCutterCode(),
+                    accumulator.returningQuantity, accumulator.returningUsageG01Quantity,
+                    accumulator.returningUsageG02Quantity, accumulator.returningUsageG03Quantity
+            )));
+            List<DevicePerspective> devicePerspectives = new ArrayList<>(deviceAccumulatorMap.size());
+            deviceAccumulatorMap.forEach((key, accumulator) -> devicePerspectives.add(new DevicePerspective(
+                    key.getMonth(), key.getDevice(), key.getToolCutterType(), accumulator.consumingQuantity,
+                    accumulator.getWorth(), key.getYear(), key.getToolCutterCode()
+            )));
+            List<ToolCutterPerspective> toolCutterPerspectives = new ArrayList<>(toolCutterAccumulatorMap.size());
+            toolCutterAccumulatorMap.forEach((key, accumulator) -> toolCutterPerspectives.add(
+                    new ToolCutterPerspective(
+                            key.getMonth(), key.getToolCutterType(), accumulator.consumingQuantity,
+                            accumulator.getWorth(), key.getYear(), key.getToolCutterCode()
+                    )
+            ));
+            return new StatisticResult(personPerspectives, devicePerspectives, toolCutterPerspectives);
+        }
 
-    private PersonPerspective initPersonPerspective(PersonPerspectiveKey key) {
-        return new PersonPerspective(
-                key.getMonth(), key.getName(), key.getToolCutterType(), 0, BigDecimal.ZERO, key.getDevice(),
-                key.getYear(), key.getToolCutterCode(), 0, 0, 0, 0
-        );
-    }
+        // 年月序号为年份乘以 12 再加上月份，月份与 Calendar.MONTH 保持一致，从 0 开始。
+        private int yearMonthOf(ConsumingDetailCursor cursor) {
+            // 优先使用日序号计算年月。
+            if (cursor.hasConsumingDay()) {
+                int consumingDay = cursor.getConsumingDay();
+                return EpochDayUtil.yearOf(consumingDay) * 12 + EpochDayUtil.monthOf(consumingDay) - 1;
+            }
+            if (cursor.hasConsumingDate()) {
+                calendar.setTimeInMillis(cursor.getConsumingDateMillis());
+                return calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+            }
+            return NO_YEAR_MONTH;
+        }
 
-    private DevicePerspective initDevicePerspective(DevicePerspectiveKey key) {
-        return new DevicePerspective(
-                key.getMonth(), key.getDevice(), key.getToolCutterType(), 0, BigDecimal.ZERO, key.getYear(),
-                key.getToolCutterCode()
-        );
+        private int returningUsageGradeOf(String returningUsageInfo) {
+            if (Objects.isNull(returningUsageInfo)) {
+                return RETURNING_USAGE_NONE;
+            }
+            Integer returningUsageGrade = returningUsageGradeMap.get(returningUsageInfo);
+            if (Objects.isNull(returningUsageGrade)) {
+                if (returningUsageInfo.matches(returningUsageG01Regex)) {
+                    returningUsageGrade = RETURNING_USAGE_G01;
+                } else if (returningUsageInfo.matches(returningUsageG02Regex)) {
+                    returningUsageGrade = RETURNING_USAGE_G02;
+                } else if (returningUsageInfo.matches(returningUsageG03Regex)) {
+                    returningUsageGrade = RETURNING_USAGE_G03;
+                } else {
+                    returningUsageGrade = RETURNING_USAGE_NONE;
+                }
+                returningUsageGradeMap.put(returningUsageInfo, returningUsageGrade);
+            }
+            return returningUsageGrade;
+        }
     }
 
-    private ToolCutterPerspective initToolCutterPerspective(ToolCutterPerspectiveKey key) {
-        return new ToolCutterPerspective(
-                key.getMonth(), key.getToolCutterType(), 0, BigDecimal.ZERO, key.getYear(), key.getToolCutterCode()
-        );
+    /**
+     * 视角累加器。
+     *
+     * <p>
+     * 价值优先以分为单位累加到 <code>long</code> 中，同时记录加数的最大小数位数；
+     * 无法以分表示的价值，以及累加溢出时的部分和，累加到 {@link BigDecimal} 中。
+     * 最终的价值与逐个相加 {@link BigDecimal} 的结果相同，包括小数位数。
+     */
+    private static class PerspectiveAccumulator {
+
+        private int consumingQuantity = 0;
+        private int returningQuantity = 0;
+        private int returningUsageG01Quantity = 0;
+        private int returningUsageG02Quantity = 0;
+        private int returningUsageG03Quantity = 0;
+
+        private long worthCents = 0;
+        private int worthScale = 0;
+        private BigDecimal worthRemainder = BigDecimal.ZERO;
+
+        public void add(
+                ConsumingDetailCursor cursor, int consumingQuantity, int returningQuantity, int returningUsageGrade
+        ) {
+            this.consumingQuantity += consumingQuantity;
+            this.returningQuantity += returningQuantity;
+            switch (returningUsageGrade) {
+                case RETURNING_USAGE_G01:
+                    returningUsageG01Quantity += returningQuantity;
+                    break;
+                case RETURNING_USAGE_G02:
+                    returningUsageG02Quantity += returningQuantity;
+                    break;
+                case RETURNING_USAGE_G03:
+                    returningUsageG03Quantity += returningQuantity;
+                    break;
+                default:
+                    break;
+            }
+            addWorth(cursor);
+        }
+
+        private void addWorth(ConsumingDetailCursor cursor) {
+            if (!cursor.hasWorth()) {
+                return;
+            }
+            if (!cursor.isWorthInCents()) {
+                worthRemainder = worthRemainder.add(cursor.getWorth());
+                return;
+            }
+            long cents = cursor.getWorthInCents();
+            long sum = worthCents + cents;
+            // 累加溢出时，将之前的部分和转移到 BigDecimal 中。
+            if (((worthCents ^ sum) & (cents ^ sum)) < 0) {
+                worthRemainder = worthRemainder.add(centsToBigDecimal());
+                sum = cents;
+            }
+            worthCents = sum;
+            worthScale = Math.max(worthScale, cursor.getWorthScale());
+        }
+
+        public BigDecimal getWorth() {
+            return centsToBigDecimal().add(worthRemainder);
+        }
+
+        // 所有加数的小数位数均不超过 worthScale，因此缩放时不会丢失精度。
+        private BigDecimal centsToBigDecimal() {
+            return BigDecimal.valueOf(worthCents, 2).setScale(worthScale, RoundingMode.UNNECESSARY);
+        }
     }
 
     private static class PersonPerspectiveKey {
 
-        private final Integer year;
-        private final Integer month;
-        private final String name;
-        private final String toolCutterType;
-        private final String device;
-        private final String toolCutterCode;
+        private int yearMonth;
+        private String name;
+        private String toolCutterType;
+        private String device;
+        private String toolCutterCode;
+
+        public PersonPerspectiveKey() {
+        }
 
         public PersonPerspectiveKey(
-                Integer year, Integer month, String name, String toolCutterType, String device, String toolCutterCode
+                int yearMonth, String name, String toolCutterType, String device, String toolCutterCode
         ) {
-            this.year = year;
-            this.month = month;
+            set(yearMonth, name, toolCutterType, device, toolCutterCode);
+        }
+
+        public void set(int yearMonth, String name, String toolCutterType, String device, String toolCutterCode) {
+            this.yearMonth = yearMonth;
             this.name = name;
             this.toolCutterType = toolCutterType;
             this.device = device;
             this.toolCutterCode = toolCutterCode;
         }
 
+        public PersonPerspectiveKey copy() {
+            return new PersonPerspectiveKey(yearMonth, name, toolCutterType, device, toolCutterCode);
+        }
+
         public Integer getYear() {
-            return year;
+            return yearMonth == NO_YEAR_MONTH ? null : Math.floorDiv(yearMonth, 12);
         }
 
         public Integer getMonth() {
-            return month;
+            return yearMonth == NO_YEAR_MONTH ? null : Math.floorMod(yearMonth, 12);
         }
 
         public String getName() {
@@ -238,8 +338,7 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
 
             PersonPerspectiveKey that = (PersonPerspectiveKey) o;
 
-            if (!Objects.equals(year, that.year)) return false;
-            if (!Objects.equals(month, that.month)) return false;
+            if (yearMonth != that.yearMonth) return false;
             if (!Objects.equals(name, that.name)) return false;
             if (!Objects.equals(toolCutterType, that.toolCutterType))
                 return false;
@@ -249,8 +348,7 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
 
         @Override
         public int hashCode() {
-            int result = year != null ? year.hashCode() : 0;
-            result = 31 * result + (month != null ? month.hashCode() : 0);
+            int result = yearMonth;
             result = 31 * result + (name != null ? name.hashCode() : 0);
             result = 31 * result + (toolCutterType != null ? toolCutterType.hashCode() : 0);
             result = 31 * result + (device != null ? device.hashCode() : 0);
@@ -261,8 +359,7 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
         @Override
         public String toString() {
             return "PersonPerspectiveKey{" +
-                    "year=" + year +
-                    ", month=" + month +
+                    "yearMonth=" + yearMonth +
                     ", name='" + name + '\'' +
                     ", toolCutterType='" + toolCutterType + '\'' +
                     ", device='" + device + '\'' +
@@ -273,28 +370,35 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
 
     private static class DevicePerspectiveKey {
 
-        private final Integer year;
-        private final Integer month;
-        private final String toolCutterType;
-        private final String device;
-        private final String toolCutterCode;
+        private int yearMonth;
+        private String toolCutterType;
+        private String device;
+        private String toolCutterCode;
 
-        public DevicePerspectiveKey(
-                Integer year, Integer month, String toolCutterType, String device, String toolCutterCode
-        ) {
-            this.year = year;
-            this.month = month;
+        public DevicePerspectiveKey() {
+        }
+
+        public DevicePerspectiveKey(int yearMonth, String toolCutterType, String device, String toolCutterCode) {
+            set(yearMonth, toolCutterType, device, toolCutterCode);
+        }
+
+        public void set(int yearMonth, String toolCutterType, String device, String toolCutterCode) {
+            this.yearMonth = yearMonth;
             this.toolCutterType = toolCutterType;
             this.device = device;
             this.toolCutterCode = toolCutterCode;
         }
 
+        public DevicePerspectiveKey copy() {
+            return new DevicePerspectiveKey(yearMonth, toolCutterType, device, toolCutterCode);
+        }
+
         public Integer getYear() {
-            return year;
+            return yearMonth == NO_YEAR_MONTH ? null : Math.floorDiv(yearMonth, 12);
         }
 
         public Integer getMonth() {
-            return month;
+            return yearMonth == NO_YEAR_MONTH ? null : Math.floorMod(yearMonth, 12);
         }
 
         public String getToolCutterType() {
@@ -316,8 +420,7 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
 
             DevicePerspectiveKey that = (DevicePerspectiveKey) o;
 
-            if (!Objects.equals(year, that.year)) return false;
-            if (!Objects.equals(month, that.month)) return false;
+            if (yearMonth != that.yearMonth) return false;
             if (!Objects.equals(toolCutterType, that.toolCutterType))
                 return false;
             if (!Objects.equals(device, that.device)) return false;
@@ -326,8 +429,7 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
 
         @Override
         public int hashCode() {
-            int result = year != null ? year.hashCode() : 0;
-            result = 31 * result + (month != null ? month.hashCode() : 0);
+            int result = yearMonth;
             result = 31 * result + (toolCutterType != null ? toolCutterType.hashCode() : 0);
             result = 31 * result + (device != null ? device.hashCode() : 0);
             result = 31 * result + (toolCutterCode != null ? toolCutterCode.hashCode() : 0);
@@ -337,8 +439,7 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
         @Override
         public String toString() {
             return "DevicePerspectiveKey{" +
-                    "year=" + year +
-                    ", month=" + month +
+                    "yearMonth=" + yearMonth +
                     ", toolCutterType='" + toolCutterType + '\'' +
                     ", device='" + device + '\'' +
                     ", toolCutterCode='" + toolCutterCode + '\'' +
@@ -348,24 +449,33 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
 
     private static class ToolCutterPerspectiveKey {
 
-        private final Integer year;
-        private final Integer month;
-        private final String toolCutterType;
-        private final String toolCutterCode;
+        private int yearMonth;
+        private String toolCutterType;
+        private String toolCutterCode;
+
+        public ToolCutterPerspectiveKey() {
+        }
 
-        public ToolCutterPerspectiveKey(Integer year, Integer month, String toolCutterType, String toolCutterCode) {
-            this.year = year;
-            this.month = month;
+        public ToolCutterPerspectiveKey(int yearMonth, String toolCutterType, String toolCutterCode) {
+            set(yearMonth, toolCutterType, toolCutterCode);
+        }
+
+        public void set(int yearMonth, String toolCutterType, String toolCutterCode) {
+            this.yearMonth = yearMonth;
             this.toolCutterType = toolCutterType;
             this.toolCutterCode = toolCutterCode;
         }
 
+        public ToolCutterPerspectiveKey copy() {
+            return new ToolCutterPerspectiveKey(yearMonth, toolCutterType, toolCutterCode);
+        }
+
         public Integer getYear() {
-            return year;
+            return yearMonth == NO_YEAR_MONTH ? null : Math.floorDiv(yearMonth, 12);
         }
 
         public Integer getMonth() {
-            return month;
+            return yearMonth == NO_YEAR_MONTH ? null : Math.floorMod(yearMonth, 12);
         }
 
         public String getToolCutterType() {
@@ -383,8 +493,7 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
 
             ToolCutterPerspectiveKey that = (ToolCutterPerspectiveKey) o;
 
-            if (!Objects.equals(year, that.year)) return false;
-            if (!Objects.equals(month, that.month)) return false;
+            if (yearMonth != that.yearMonth) return false;
             if (!Objects.equals(toolCutterType, that.toolCutterType))
                 return false;
             return Objects.equals(toolCutterCode, that.toolCutterCode);
@@ -392,8 +501,7 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
 
         @Override
         public int hashCode() {
-            int result = year != null ? year.hashCode() : 0;
-            result = 31 * result + (month != null ? month.hashCode() : 0);
+            int result = yearMonth;
             result = 31 * result + (toolCutterType != null ? toolCutterType.hashCode() : 0);
             result = 31 * result + (toolCutterCode != null ? toolCutterCode.hashCode() : 0);
             return result;
@@ -402,8 +510,7 @@ public class StatisticHandlerImpl extends AbstractProgressHandler implements Sta
         @Override
         public String toString() {
             return "ToolCutterPerspectiveKey{" +
-                    "year=" + year +
-                    ", month=" + month +
+                    "yearMonth=" + yearMonth +
                     ", toolCutterType='" + toolCutterType + '\'' +
                     ", toolCutterCode='" + toolCutterCode + '\'' +
                     '}';
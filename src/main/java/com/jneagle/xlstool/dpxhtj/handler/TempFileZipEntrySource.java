@@ -0,0 +1,135 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.util.TempFile;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Enumeration;
+import java.util.Objects;
+
+/**
+ * 以临时文件为存储的压缩包条目源。
+ *
+ * <p>
+ * 条目内容使用仅存在于内存中的临时密钥加密后写入临时文件，解密后的内容不会以明文的形式落盘。
+ *
+ * <p>
+ * 与 POI 自带的 <code>AesZipFileZipEntrySource</code> 不同，每个条目的输入流使用独立的密码器，
+ * 因此可以同时读取多个条目，满足多个工作簿并行导入的需要。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class TempFileZipEntrySource implements ZipEntrySource {
+
+    private static final String CIPHER_ALGORITHM = "AES";
+    private static final String CIPHER_TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final int CIPHER_KEY_LENGTH = 16;
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    public static TempFileZipEntrySource create(InputStream in) throws Exception {
+        SecureRandom secureRandom = new SecureRandom();
+        byte[] keyBytes = new byte[CIPHER_KEY_LENGTH];
+        byte[] ivBytes = new byte[CIPHER_KEY_LENGTH];
+        secureRandom.nextBytes(keyBytes);
+        secureRandom.nextBytes(ivBytes);
+        SecretKeySpec keySpec = new SecretKeySpec(keyBytes, CIPHER_ALGORITHM);
+        IvParameterSpec ivSpec = new IvParameterSpec(ivBytes);
+
+        File tempFile = TempFile.createTempFile("dpxhtj-import", ".zip");
+        try {
+            try (
+                    ZipArchiveInputStream zin = new ZipArchiveInputStream(in);
+                    ZipArchiveOutputStream zout = new ZipArchiveOutputStream(tempFile)
+            ) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                ZipArchiveEntry entry;
+                while (Objects.nonNull(entry = zin.getNextZipEntry())) {
+                    zout.putArchiveEntry(new ZipArchiveEntry(entry.getName()));
+                    Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+                    cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
+                    int length;
+                    while ((length = zin.read(buffer)) >= 0) {
+                        byte[] encrypted = cipher.update(buffer, 0, length);
+                        if (Objects.nonNull(encrypted)) {
+                            zout.write(encrypted);
+                        }
+                    }
+                    zout.write(cipher.doFinal());
+                    zout.closeArchiveEntry();
+                }
+            }
+            return new TempFileZipEntrySource(tempFile, new ZipFile(tempFile), keySpec, ivSpec);
+        } catch (Exception e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+    }
+
+    private final File tempFile;
+    private final ZipFile zipFile;
+    private final SecretKeySpec keySpec;
+    private final IvParameterSpec ivSpec;
+
+    private volatile boolean closed = false;
+
+    private TempFileZipEntrySource(File tempFile, ZipFile zipFile, SecretKeySpec keySpec, IvParameterSpec ivSpec) {
+        this.tempFile = tempFile;
+        this.zipFile = zipFile;
+        this.keySpec = keySpec;
+        this.ivSpec = ivSpec;
+    }
+
+    @Override
+    public Enumeration<? extends ZipArchiveEntry> getEntries() {
+        return zipFile.getEntries();
+    }
+
+    @Override
+    public ZipArchiveEntry getEntry(String path) {
+        return zipFile.getEntry(path);
+    }
+
+    @Override
+    public InputStream getInputStream(ZipArchiveEntry entry) throws IOException {
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
+            return new CipherInputStream(zipFile.getInputStream(entry), cipher);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            zipFile.close();
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
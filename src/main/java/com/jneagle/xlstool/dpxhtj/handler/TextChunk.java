@@ -0,0 +1,32 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+/**
+ * 文本文件的分块。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class TextChunk {
+
+    private final long beginPosition;
+    private final long endPosition;
+    private final int beginRowIndex;
+
+    public TextChunk(long beginPosition, long endPosition, int beginRowIndex) {
+        this.beginPosition = beginPosition;
+        this.endPosition = endPosition;
+        this.beginRowIndex = beginRowIndex;
+    }
+
+    public long getBeginPosition() {
+        return beginPosition;
+    }
+
+    public long getEndPosition() {
+        return endPosition;
+    }
+
+    public int getBeginRowIndex() {
+        return beginRowIndex;
+    }
+}
@@ -0,0 +1,128 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文本文件的分块切分器。
+ *
+ * <p>
+ * 顺序扫描一遍文件，在引号之外的换行符处切分，使每个分块只包含完整的行，同时统计每个分块起始行的行号。
+ * 扫描只比较字节，GBK 与 UTF-8 编码中多字节字符的各个字节均不会与换行符、分隔符、引号相同，因此无需解码。
+ *
+ * <p>
+ * 引号的识别方式与 {@link DelimitedTextChunkParser} 一致：只有位于字段开头的引号才开始引用，
+ * 引用内两个连续的引号表示转义的引号，字段中间的引号是普通的字符。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+final class TextChunkSplitter {
+
+    /**
+     * 每次映射到内存中进行扫描的区域大小（字节）。
+     */
+    private static final int SCAN_WINDOW_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * UTF-8 编码的 BOM。
+     */
+    private static final byte[] UTF8_BOM = new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private TextChunkSplitter() {
+        throw new IllegalStateException("禁止实例化");
+    }
+
+    /**
+     * 获取文件中正文的起始位置。
+     *
+     * <p>
+     * 文件以 UTF-8 的 BOM 开头时，正文从 BOM 之后开始，否则从文件的开头开始。
+     *
+     * @param channel 文件通道。
+     * @return 正文的起始位置。
+     * @throws IOException IO 异常。
+     */
+    public static long contentBeginPosition(FileChannel channel) throws IOException {
+        return hasUtf8Bom(channel) ? UTF8_BOM.length : 0;
+    }
+
+    private static boolean hasUtf8Bom(FileChannel channel) throws IOException {
+        if (channel.size() < UTF8_BOM.length) {
+            return false;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, UTF8_BOM.length);
+        for (int i = 0; i < UTF8_BOM.length; i++) {
+            if (buffer.get(i) != UTF8_BOM[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将文件切分为分块。
+     *
+     * @param channel       文件通道。
+     * @param beginPosition 正文的起始位置。
+     * @param csv           是否为 CSV 文件，否则为制表符分隔的文本文件。
+     * @param chunkSize     每个分块的最小字节数，最后一个分块可能小于该值。
+     * @return 切分得到的分块。
+     * @throws IOException IO 异常。
+     */
+    public static List<TextChunk> split(FileChannel channel, long beginPosition, boolean csv, long chunkSize)
+            throws IOException {
+        long size = channel.size();
+        byte separator = csv ? (byte) ',' : (byte) '\t';
+        List<TextChunk> textChunks = new ArrayList<>();
+        long chunkBeginPosition = beginPosition;
+        int chunkBeginRowIndex = 0;
+        int rowIndex = 0;
+        boolean fieldBegin = true;
+        boolean quoted = false;
+        boolean quotePending = false;
+        for (long position = beginPosition; position < size; ) {
+            int mapSize = (int) Math.min(SCAN_WINDOW_SIZE, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, mapSize);
+            for (int i = 0; i < mapSize; i++) {
+                byte b = buffer.get(i);
+                if (quoted) {
+                    // 引用内的引号要么与下一个引号组成转义的引号，要么结束引用，需要根据下一个字节判断。
+                    if (quotePending) {
+                        quotePending = false;
+                        if (b == '"') {
+                            continue;
+                        }
+                        quoted = false;
+                    } else {
+                        quotePending = b == '"';
+                        continue;
+                    }
+                }
+                if (b == '\n') {
+                    fieldBegin = true;
+                    rowIndex++;
+                    long rowEndPosition = position + i + 1;
+                    if (rowEndPosition - chunkBeginPosition >= chunkSize) {
+                        textChunks.add(new TextChunk(chunkBeginPosition, rowEndPosition, chunkBeginRowIndex));
+                        chunkBeginPosition = rowEndPosition;
+                        chunkBeginRowIndex = rowIndex;
+                    }
+                } else if (b == separator) {
+                    fieldBegin = true;
+                } else {
+                    quoted = csv && fieldBegin && b == '"';
+                    fieldBegin = false;
+                }
+            }
+            position += mapSize;
+        }
+        if (chunkBeginPosition < size) {
+            textChunks.add(new TextChunk(chunkBeginPosition, size, chunkBeginRowIndex));
+        }
+        return textChunks;
+    }
+}
@@ -0,0 +1,54 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.util.Objects;
+
+/**
+ * 用户模型的工作簿以及该工作簿的公式计算器。
+ *
+ * <p>
+ * 公式计算器在首次使用时创建，并在该工作簿依次导入的各工作簿之间复用，
+ * 因此跨工作簿引用的单元格只需计算一次。该类不是线程安全的。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class UserModelWorkbook {
+
+    private final Workbook workbook;
+
+    private FormulaEvaluator evaluator;
+
+    public UserModelWorkbook(Workbook workbook) {
+        this.workbook = workbook;
+    }
+
+    public Workbook getWorkbook() {
+        return workbook;
+    }
+
+    public FormulaEvaluator getEvaluator() {
+        if (Objects.isNull(evaluator)) {
+            evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        }
+        return evaluator;
+    }
+
+    /**
+     * 释放工作簿，关闭底层的文件。
+     *
+     * @throws Exception 释放过程中发生的任何异常。
+     */
+    public void release() throws Exception {
+        // 以只读模式打开的文件包不能保存，回滚即可释放资源；直接关闭工作簿会尝试保存文件包。
+        if (workbook instanceof XSSFWorkbook) {
+            ((XSSFWorkbook) workbook).getPackage().revert();
+        } else {
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * 用户模型的工作簿池。
+ *
+ * <p>
+ * 同一个文件的工作簿不能在线程之间共享，并行导入时每个线程从池中取得一份空闲的工作簿，
+ * 没有空闲的工作簿时再以只读模式打开一份新的工作簿，使用完毕后归还到池中，供后续的任务复用。
+ * 因此同时打开的工作簿数量不超过同时执行的任务数量，依次导入时只使用最初打开的工作簿。
+ *
+ * <p>
+ * 关闭之后归还的工作簿直接释放，该类是线程安全的。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class UserModelWorkbookPool {
+
+    private final File file;
+    private final WorkbookParser workbookParser;
+    private final ImportMetricsRecorder importMetricsRecorder;
+
+    private final Deque<UserModelWorkbook> idleWorkbooks = new ArrayDeque<>();
+
+    private boolean closed = false;
+
+    /**
+     * 创建工作簿池。
+     *
+     * @param file                  工作簿所在的文件。
+     * @param workbookParser        打开新的工作簿的方式。
+     * @param workbook              最初打开的工作簿。
+     * @param importMetricsRecorder 导入指标记录器。
+     */
+    public UserModelWorkbookPool(
+            File file, WorkbookParser workbookParser, Workbook workbook, ImportMetricsRecorder importMetricsRecorder
+    ) {
+        this.file = file;
+        this.workbookParser = workbookParser;
+        this.importMetricsRecorder = importMetricsRecorder;
+        idleWorkbooks.push(new UserModelWorkbook(workbook));
+    }
+
+    public UserModelWorkbook acquire() throws Exception {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("工作簿池已经关闭");
+            }
+            if (!idleWorkbooks.isEmpty()) {
+                return idleWorkbooks.pop();
+            }
+        }
+        // 打开工作簿的开销较大，不在同步块中进行，与最初打开的工作簿一样记录为文件级别的指标。
+        SheetMetricsCounter fileMetricsCounter = new SheetMetricsCounter();
+        fileMetricsCounter.recordRead(file.length(), 0);
+        Workbook workbook = workbookParser.parse(fileMetricsCounter);
+        importMetricsRecorder.record(fileMetricsCounter.finish(file.getName(), null));
+        return new UserModelWorkbook(workbook);
+    }
+
+    public void release(UserModelWorkbook userModelWorkbook) throws Exception {
+        synchronized (this) {
+            if (!closed) {
+                idleWorkbooks.push(userModelWorkbook);
+                return;
+            }
+        }
+        userModelWorkbook.release();
+    }
+
+    public void close() throws Exception {
+        List<UserModelWorkbook> userModelWorkbooks;
+        synchronized (this) {
+            closed = true;
+            userModelWorkbooks = new ArrayList<>(idleWorkbooks);
+            idleWorkbooks.clear();
+        }
+        // 逐个释放工作簿，某个工作簿释放失败时仍然释放其余的工作簿。
+        Exception exception = null;
+        for (UserModelWorkbook userModelWorkbook : userModelWorkbooks) {
+            try {
+                userModelWorkbook.release();
+            } catch (Exception e) {
+                if (Objects.isNull(exception)) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (Objects.nonNull(exception)) {
+            throw exception;
+        }
+    }
+
+    /**
+     * 工作簿的打开方式。
+     */
+    @FunctionalInterface
+    interface WorkbookParser {
+
+        /**
+         * 以只读模式打开一份新的工作簿。
+         *
+         * @param fileMetricsCounter 记录打开工作簿的开销的计数器。
+         * @return 新的工作簿。
+         * @throws Exception 打开过程中发生的任何异常。
+         */
+        Workbook parse(SheetMetricsCounter fileMetricsCounter) throws Exception;
+    }
+}
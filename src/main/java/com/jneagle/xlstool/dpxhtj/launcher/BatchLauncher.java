@@ -0,0 +1,310 @@
+package com.jneagle.xlstool.dpxhtj.launcher;
+
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportFileInfo;
+import com.jneagle.xlstool.dpxhtj.bean.dto.StatisticResult;
+import com.jneagle.xlstool.dpxhtj.service.ClearService;
+import com.jneagle.xlstool.dpxhtj.service.DataExportService;
+import com.jneagle.xlstool.dpxhtj.service.DataImportService;
+import com.jneagle.xlstool.dpxhtj.service.ExportErrorInfoMaintainService;
+import com.jneagle.xlstool.dpxhtj.service.ImportErrorInfoMaintainService;
+import com.jneagle.xlstool.dpxhtj.service.StatisticService;
+import com.jneagle.xlstool.dpxhtj.util.Constants;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 批处理启动器。
+ *
+ * <p>
+ * 以无界面的方式依次执行数据导入、统计以及数据导出，不创建任何界面相关的 bean，执行完毕后以退出码结束程序。
+ * 适用于在没有显示设备的服务器上定时执行。
+ *
+ * <p>
+ * 指定监视目录时以监视模式运行，程序持续监视目录中的工作簿，工作簿发生变化时自动导入、统计并导出至输出目录，
+ * 直到程序被终止，详见 {@link FolderWatcher}。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public class BatchLauncher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchLauncher.class);
+
+    /**
+     * 退出码: 执行成功。
+     */
+    public static final int EXIT_CODE_SUCCESS = 0;
+    /**
+     * 退出码: 参数错误。
+     */
+    public static final int EXIT_CODE_ILLEGAL_ARGUMENT = 1;
+    /**
+     * 退出码: 执行失败。
+     */
+    public static final int EXIT_CODE_FAILED = 2;
+    /**
+     * 退出码: 执行完成，但是导入或者导出的过程中产生了错误信息。
+     */
+    public static final int EXIT_CODE_COMPLETED_WITH_ERRORS = 3;
+
+    /**
+     * 批处理模式的配置文件，不包含界面相关的配置。
+     */
+    private static final String[] CONFIG_LOCATIONS = new String[]{
+            "classpath:spring/application-context-placeholder.xml",
+            "classpath:spring/application-context-dozer.xml",
+            "classpath:spring/application-context-task.xml",
+            "classpath:spring/application-context-aop.xml",
+            "classpath:spring/batch-context-scan.xml"
+    };
+
+    /**
+     * 工作目录的系统属性。
+     *
+     * <p>
+     * 启动脚本需要切换到程序目录才能读取配置文件，切换之前的目录通过该属性传入，参数中的相对路径相对于该目录解析。
+     */
+    private static final String WORKING_DIR_PROPERTY = "batch.working_dir";
+
+    /**
+     * 监视模式下默认的防抖间隔（毫秒）。
+     */
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 2000L;
+
+    private static final String USAGE = "用法: xlstool-batch -i <输入文件> [-p <密码>] [-i <输入文件> [-p <密码>] ...] " +
+            "-o <输出文件> [-t xls|xlsx] [-P <输出文件的密码>]\n" +
+            "  或: xlstool-batch -w <监视目录> [-p <密码>] -o <输出目录> [-t xls|xlsx] [-P <输出文件的密码>] " +
+            "[--debounce <毫秒>]\n" +
+            "  -i, --input            输入文件，可以指定多次。\n" +
+            "  -w, --watch            监视目录，目录中的工作簿发生变化时自动导入、统计并导出，与 -i 不能同时使用。\n" +
+            "  -p, --password         前一个输入文件的密码；监视模式下为监视目录中所有工作簿的密码。\n" +
+            "  -o, --output           输出文件；监视模式下为输出目录，不存在时自动创建。\n" +
+            "  -t, --type             输出文件的类型，xls 或 xlsx，缺省时根据输出文件的扩展名确定，监视模式下缺省为 xlsx。\n" +
+            "  -P, --export-password  输出文件的密码。\n" +
+            "      --debounce         监视模式下的防抖间隔，单位为毫秒，缺省为 " + DEFAULT_DEBOUNCE_MILLIS + "。\n" +
+            "  -h, --help             显示帮助信息。\n" +
+            "退出码: 0 执行成功；1 参数错误；2 执行失败；3 执行完成，但是产生了导入或者导出错误信息。";
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    private static int run(String[] args) {
+        BatchArguments arguments;
+        try {
+            arguments = BatchArguments.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_CODE_ILLEGAL_ARGUMENT;
+        }
+        if (arguments.help) {
+            System.out.println(USAGE);
+            return EXIT_CODE_SUCCESS;
+        }
+
+        // 批处理模式不需要显示设备，以无头模式运行 AWT，避免加载图形环境。
+        System.setProperty("java.awt.headless", "true");
+        try (ClassPathXmlApplicationContext ctx = new ClassPathXmlApplicationContext(CONFIG_LOCATIONS)) {
+            if (Objects.nonNull(arguments.watchDirectory)) {
+                // 监视模式只能通过终止程序结束，注册关闭钩子以便终止时正常关闭上下文。
+                ctx.registerShutdownHook();
+                return execWatch(ctx, arguments);
+            }
+            return execBatch(ctx, arguments);
+        } catch (Exception e) {
+            LOGGER.error("批处理执行失败，异常信息为: ", e);
+            return EXIT_CODE_FAILED;
+        }
+    }
+
+    private static int execBatch(ClassPathXmlApplicationContext ctx, BatchArguments arguments) throws Exception {
+        DataImportService dataImportService = ctx.getBean(DataImportService.class);
+        StatisticService statisticService = ctx.getBean(StatisticService.class);
+        DataExportService dataExportService = ctx.getBean(DataExportService.class);
+        ImportErrorInfoMaintainService importErrorInfoMaintainService =
+                ctx.getBean(ImportErrorInfoMaintainService.class);
+        ExportErrorInfoMaintainService exportErrorInfoMaintainService =
+                ctx.getBean(ExportErrorInfoMaintainService.class);
+
+        LOGGER.info("开始导入 {} 个文件...", arguments.importFileInfos.size());
+        dataImportService.execBatchImport(arguments.importFileInfos);
+        int importErrorCount = importErrorInfoMaintainService.lookupAsList().size();
+        LOGGER.info("导入完成，产生 {} 条导入错误信息", importErrorCount);
+
+        LOGGER.info("开始统计...");
+        StatisticResult statisticResult = statisticService.execStatistic();
+        LOGGER.info("统计完成");
+
+        LOGGER.info("开始导出至 {} ...", arguments.exportFile);
+        dataExportService.execExport(
+                statisticResult, arguments.exportFile, arguments.exportFileType, arguments.exportPassword
+        );
+        int exportErrorCount = exportErrorInfoMaintainService.lookupAsList().size();
+        LOGGER.info("导出完成，产生 {} 条导出错误信息", exportErrorCount);
+
+        return importErrorCount + exportErrorCount > 0 ? EXIT_CODE_COMPLETED_WITH_ERRORS : EXIT_CODE_SUCCESS;
+    }
+
+    private static int execWatch(ClassPathXmlApplicationContext ctx, BatchArguments arguments) throws Exception {
+        boolean incrementalImport = Boolean.parseBoolean(
+                ctx.getBeanFactory().resolveEmbeddedValue("${data_import.incremental_import}")
+        );
+        FolderWatcher folderWatcher = new FolderWatcher(
+                ctx.getBean(DataImportService.class), ctx.getBean(StatisticService.class),
+                ctx.getBean(DataExportService.class), ctx.getBean(ClearService.class),
+                ctx.getBean(ImportErrorInfoMaintainService.class), ctx.getBean(ExportErrorInfoMaintainService.class),
+                arguments.watchDirectory.toPath(), arguments.watchPassword, arguments.exportFile.toPath(),
+                arguments.exportFileType, arguments.exportPassword, arguments.debounceMillis, incrementalImport
+        );
+        folderWatcher.watch();
+        return EXIT_CODE_SUCCESS;
+    }
+
+    private static final class BatchArguments {
+
+        private final List<ImportFileInfo> importFileInfos = new ArrayList<>();
+        private File watchDirectory;
+        private String watchPassword;
+        private long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+        private File exportFile;
+        private Integer exportFileType;
+        private String exportPassword;
+        private boolean help = false;
+
+        public static BatchArguments parse(String[] args) {
+            BatchArguments arguments = new BatchArguments();
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                switch (option) {
+                    case "-h":
+                    case "--help":
+                        arguments.help = true;
+                        return arguments;
+                    case "-i":
+                    case "--input":
+                        File importFile = resolveFile(valueOf(args, ++i, option));
+                        if (!importFile.isFile()) {
+                            throw new IllegalArgumentException("输入文件不存在: " + importFile);
+                        }
+                        arguments.importFileInfos.add(new ImportFileInfo(importFile, null));
+                        break;
+                    case "-w":
+                    case "--watch":
+                        File watchDirectory = resolveFile(valueOf(args, ++i, option));
+                        if (!watchDirectory.isDirectory()) {
+                            throw new IllegalArgumentException("监视目录不存在: " + watchDirectory);
+                        }
+                        arguments.watchDirectory = watchDirectory;
+                        break;
+                    case "-p":
+                    case "--password":
+                        String password = valueOf(args, ++i, option);
+                        if (!arguments.importFileInfos.isEmpty()) {
+                            arguments.importFileInfos.get(arguments.importFileInfos.size() - 1).setPassword(password);
+                        } else if (Objects.nonNull(arguments.watchDirectory)) {
+                            arguments.watchPassword = password;
+                        } else {
+                            throw new IllegalArgumentException("密码之前需要指定输入文件或者监视目录");
+                        }
+                        break;
+                    case "-o":
+                    case "--output":
+                        arguments.exportFile = resolveFile(valueOf(args, ++i, option));
+                        break;
+                    case "-t":
+                    case "--type":
+                        arguments.exportFileType = parseFileType(valueOf(args, ++i, option));
+                        break;
+                    case "-P":
+                    case "--export-password":
+                        arguments.exportPassword = valueOf(args, ++i, option);
+                        break;
+                    case "--debounce":
+                        arguments.debounceMillis = parseDebounceMillis(valueOf(args, ++i, option));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("无法识别的参数: " + option);
+                }
+            }
+            if (Objects.nonNull(arguments.watchDirectory)) {
+                return checkWatchArguments(arguments);
+            }
+            if (arguments.importFileInfos.isEmpty()) {
+                throw new IllegalArgumentException("至少需要指定一个输入文件");
+            }
+            if (Objects.isNull(arguments.exportFile)) {
+                throw new IllegalArgumentException("需要指定输出文件");
+            }
+            // 未指定输出文件的类型时，根据输出文件的扩展名确定。
+            if (Objects.isNull(arguments.exportFileType)) {
+                arguments.exportFileType = parseFileType(
+                        StringUtils.substringAfterLast(arguments.exportFile.getName(), ".")
+                );
+            }
+            return arguments;
+        }
+
+        private static BatchArguments checkWatchArguments(BatchArguments arguments) {
+            if (!arguments.importFileInfos.isEmpty()) {
+                throw new IllegalArgumentException("监视模式下不能指定输入文件");
+            }
+            if (Objects.isNull(arguments.exportFile)) {
+                throw new IllegalArgumentException("需要指定输出目录");
+            }
+            if (arguments.exportFile.isFile()) {
+                throw new IllegalArgumentException("输出目录不能是文件: " + arguments.exportFile);
+            }
+            if (Objects.isNull(arguments.exportFileType)) {
+                arguments.exportFileType = Constants.EXPORT_FILE_TYPE_XLSX;
+            }
+            return arguments;
+        }
+
+        private static String valueOf(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("参数 " + option + " 缺少值");
+            }
+            return args[index];
+        }
+
+        private static File resolveFile(String path) {
+            File file = new File(path);
+            if (file.isAbsolute()) {
+                return file;
+            }
+            String workingDir = System.getProperty(WORKING_DIR_PROPERTY);
+            return StringUtils.isEmpty(workingDir) ? file.getAbsoluteFile() : new File(workingDir, path);
+        }
+
+        private static int parseFileType(String fileType) {
+            if (StringUtils.equalsIgnoreCase(fileType, "xls")) {
+                return Constants.EXPORT_FILE_TYPE_XLS;
+            }
+            if (StringUtils.equalsIgnoreCase(fileType, "xlsx")) {
+                return Constants.EXPORT_FILE_TYPE_XLSX;
+            }
+            throw new IllegalArgumentException("无法识别的输出文件类型: " + fileType);
+        }
+
+        private static long parseDebounceMillis(String debounceMillis) {
+            long value;
+            try {
+                value = Long.parseLong(debounceMillis);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("无法识别的防抖间隔: " + debounceMillis);
+            }
+            if (value <= 0) {
+                throw new IllegalArgumentException("防抖间隔必须大于 0: " + debounceMillis);
+            }
+            return value;
+        }
+    }
+}
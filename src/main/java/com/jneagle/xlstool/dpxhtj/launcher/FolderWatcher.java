@@ -0,0 +1,216 @@
+package com.jneagle.xlstool.dpxhtj.launcher;
+
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportFileInfo;
+import com.jneagle.xlstool.dpxhtj.bean.dto.StatisticResult;
+import com.jneagle.xlstool.dpxhtj.service.ClearService;
+import com.jneagle.xlstool.dpxhtj.service.DataExportService;
+import com.jneagle.xlstool.dpxhtj.service.DataImportService;
+import com.jneagle.xlstool.dpxhtj.service.ExportErrorInfoMaintainService;
+import com.jneagle.xlstool.dpxhtj.service.ImportErrorInfoMaintainService;
+import com.jneagle.xlstool.dpxhtj.service.StatisticService;
+import com.jneagle.xlstool.dpxhtj.util.Constants;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 目录监视器。
+ *
+ * <p>
+ * 监视投放目录中的工作簿（包括 CSV 文件），工作簿新增、修改或者删除后，等待变更平息，重新导入受影响的工作簿，
+ * 然后执行统计，并将统计结果导出到输出目录。
+ *
+ * <p>
+ * 启用增量导入时，只重新导入发生变化的工作簿；工作簿被删除或者未启用增量导入时，清除数据后重新导入目录中所有的工作簿。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class FolderWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FolderWatcher.class);
+
+    private final DataImportService dataImportService;
+    private final StatisticService statisticService;
+    private final DataExportService dataExportService;
+    private final ClearService clearService;
+    private final ImportErrorInfoMaintainService importErrorInfoMaintainService;
+    private final ExportErrorInfoMaintainService exportErrorInfoMaintainService;
+
+    private final Path watchDirectory;
+    private final String password;
+    private final Path exportDirectory;
+    private final int exportFileType;
+    private final String exportPassword;
+    private final long debounceMillis;
+    private final boolean incrementalImport;
+
+    /**
+     * 已经导入的工作簿。
+     */
+    private final Set<Path> importedPaths = new HashSet<>();
+
+    /**
+     * 处理失败的工作簿，在下一次处理时一并重试。
+     */
+    private final Set<Path> failedPaths = new HashSet<>();
+
+    public FolderWatcher(
+            DataImportService dataImportService, StatisticService statisticService,
+            DataExportService dataExportService, ClearService clearService,
+            ImportErrorInfoMaintainService importErrorInfoMaintainService,
+            ExportErrorInfoMaintainService exportErrorInfoMaintainService, Path watchDirectory, String password,
+            Path exportDirectory, int exportFileType, String exportPassword, long debounceMillis,
+            boolean incrementalImport
+    ) {
+        this.dataImportService = dataImportService;
+        this.statisticService = statisticService;
+        this.dataExportService = dataExportService;
+        this.clearService = clearService;
+        this.importErrorInfoMaintainService = importErrorInfoMaintainService;
+        this.exportErrorInfoMaintainService = exportErrorInfoMaintainService;
+        this.watchDirectory = watchDirectory;
+        this.password = password;
+        this.exportDirectory = exportDirectory;
+        this.exportFileType = exportFileType;
+        this.exportPassword = exportPassword;
+        this.debounceMillis = debounceMillis;
+        this.incrementalImport = incrementalImport;
+    }
+
+    /**
+     * 监视投放目录，该方法只有在监视的目录不可访问或者线程被中断时才会返回。
+     *
+     * @throws Exception 监视过程中发生的异常。
+     */
+    public void watch() throws Exception {
+        Files.createDirectories(exportDirectory);
+        try (WatchService watchService = watchDirectory.getFileSystem().newWatchService()) {
+            watchDirectory.register(
+                    watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE
+            );
+            LOGGER.info("开始监视目录 {}，统计结果将导出至目录 {}", watchDirectory, exportDirectory);
+
+            // 先处理目录中已有的工作簿，注册监视之后再列出目录，避免遗漏两者之间发生的变更。
+            Set<Path> pendingPaths = new HashSet<>(listWorkbooks());
+            process(pendingPaths);
+            pendingPaths.clear();
+
+            while (true) {
+                // 有待处理的变更时，等待一个防抖间隔：间隔内没有新的事件才处理，否则继续累积。
+                WatchKey watchKey;
+                if (pendingPaths.isEmpty()) {
+                    watchKey = watchService.take();
+                } else {
+                    watchKey = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                if (Objects.isNull(watchKey)) {
+                    process(pendingPaths);
+                    pendingPaths.clear();
+                    continue;
+                }
+                for (WatchEvent<?> watchEvent : watchKey.pollEvents()) {
+                    // 事件溢出时无法得知具体的变更，重新检查目录中所有的工作簿。
+                    if (watchEvent.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        pendingPaths.addAll(listWorkbooks());
+                        pendingPaths.addAll(importedPaths);
+                        continue;
+                    }
+                    Path path = watchDirectory.resolve((Path) watchEvent.context());
+                    if (isWorkbook(path)) {
+                        pendingPaths.add(path);
+                    }
+                }
+                if (!watchKey.reset()) {
+                    throw new IllegalStateException("监视的目录已经不可访问: " + watchDirectory);
+                }
+            }
+        }
+    }
+
+    private void process(Set<Path> pendingPaths) {
+        Set<Path> changedPaths = new HashSet<>(pendingPaths);
+        changedPaths.addAll(failedPaths);
+        failedPaths.clear();
+
+        Set<Path> updatedPaths = changedPaths.stream().filter(Files::isRegularFile).collect(Collectors.toSet());
+        Set<Path> deletedPaths = changedPaths.stream().filter(path -> !Files.isRegularFile(path))
+                .filter(importedPaths::contains).collect(Collectors.toSet());
+        if (updatedPaths.isEmpty() && deletedPaths.isEmpty()) {
+            return;
+        }
+        LOGGER.info("检测到 {} 个工作簿发生变化，{} 个工作簿被删除", updatedPaths.size(), deletedPaths.size());
+
+        try {
+            importedPaths.removeAll(deletedPaths);
+            importedPaths.addAll(updatedPaths);
+            // 已经导入的数据无法按文件撤销，未启用增量导入时重复导入会产生重复的数据，
+            // 这两种情况下清除数据后重新导入所有的工作簿，导入缓存可以避免重新解析未变化的工作簿。
+            Set<Path> importPaths;
+            if (!deletedPaths.isEmpty() || !incrementalImport) {
+                clearService.clear();
+                importPaths = importedPaths;
+            } else {
+                importPaths = updatedPaths;
+            }
+            List<ImportFileInfo> importFileInfos = importPaths.stream()
+                    .map(path -> new ImportFileInfo(path.toFile(), password)).collect(Collectors.toList());
+            dataImportService.execBatchImport(importFileInfos);
+            LOGGER.info(
+                    "导入完成，导入 {} 个工作簿，共产生 {} 条导入错误信息",
+                    importFileInfos.size(), importErrorInfoMaintainService.lookupAsList().size()
+            );
+
+            StatisticResult statisticResult = statisticService.execStatistic();
+            Path exportFile = exportStatisticResult(statisticResult);
+            LOGGER.info(
+                    "统计结果已经导出至 {}，共产生 {} 条导出错误信息",
+                    exportFile, exportErrorInfoMaintainService.lookupAsList().size()
+            );
+        } catch (Exception e) {
+            // 工作簿可能仍在写入，等待下一次变更时重试。
+            failedPaths.addAll(updatedPaths);
+            LOGGER.warn("处理变化的工作簿时出现异常，将在下一次检测到变化时重试，异常信息为: ", e);
+        }
+    }
+
+    private Path exportStatisticResult(StatisticResult statisticResult) throws Exception {
+        String extension = exportFileType == Constants.EXPORT_FILE_TYPE_XLS ? ".xls" : ".xlsx";
+        String fileName = "report-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + extension;
+        // 先导出至临时文件，完成后再移动至最终的文件名，避免其他人读取到未写完的文件。
+        Path tempFile = exportDirectory.resolve("." + fileName + ".tmp");
+        Path exportFile = exportDirectory.resolve(fileName);
+        try {
+            dataExportService.execExport(statisticResult, tempFile.toFile(), exportFileType, exportPassword);
+            Files.move(tempFile, exportFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return exportFile;
+    }
+
+    private List<Path> listWorkbooks() throws IOException {
+        try (Stream<Path> stream = Files.list(watchDirectory)) {
+            return stream.filter(this::isWorkbook).filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    private boolean isWorkbook(Path path) {
+        String fileName = path.getFileName().toString();
+        // Excel 编辑文件时生成的锁文件以 ~$ 开头，保存文件时生成的临时文件没有扩展名，均不是工作簿。
+        if (fileName.startsWith("~$") || fileName.startsWith(".")) {
+            return false;
+        }
+        return StringUtils.endsWithIgnoreCase(fileName, ".xls") || StringUtils.endsWithIgnoreCase(fileName, ".xlsx") ||
+                StringUtils.endsWithIgnoreCase(fileName, ".csv") || StringUtils.endsWithIgnoreCase(fileName, ".tsv");
+    }
+}
@@ -1,9 +1,14 @@
 package com.jneagle.xlstool.dpxhtj.service;
 
 import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+import com.dwarfeng.subgrade.stack.exception.ServiceException;
 import com.dwarfeng.subgrade.stack.service.BatchCrudService;
 import com.dwarfeng.subgrade.stack.service.EntireLookupService;
 import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.structure.ConsumingDetailCursor;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 导出错误信息维护服务。
@@ -12,5 +17,85 @@ import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
  * @since 1.0.0
  */
 public interface ConsumingDetailMaintainService extends BatchCrudService<UuidKey, ConsumingDetail>,
-        EntireLookupService<ConsumingDetail>, ClearableMaintainService {
+        EntireLookupService<ConsumingDetail>, ClearableMaintainService, LockWaitMeasurableMaintainService {
+
+    /**
+     * 按照插入的顺序扫描所有的消耗详细信息。
+     *
+     * <p>
+     * 扫描时不为每条数据创建实体，适用于统计等需要遍历所有数据的场景。
+     * 扫描的是开始扫描时的数据，扫描期间的写入不会被扫描到，也不会被扫描阻塞。
+     *
+     * @param consumer 数据的消费者，游标依次指向每一条数据。
+     * @throws ServiceException 服务异常。
+     * @since 1.2.0
+     */
+    void scan(Consumer<? super ConsumingDetailCursor> consumer) throws ServiceException;
+
+    /**
+     * 查询指定刀具类型的消耗详细信息。
+     *
+     * <p>
+     * 查询通过二级索引进行，耗时与结果的数量成正比，适用于界面中的下钻查询。
+     *
+     * @param toolCutterType 指定的刀具类型，可以为 <code>null</code>。
+     * @return 指定刀具类型的消耗详细信息，按照插入的顺序排列。
+     * @throws ServiceException 服务异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByToolCutterType(String toolCutterType) throws ServiceException;
+
+    /**
+     * 查询指定设备的消耗详细信息。
+     *
+     * <p>
+     * 查询通过二级索引进行，耗时与结果的数量成正比，适用于界面中的下钻查询。
+     *
+     * @param device 指定的设备，可以为 <code>null</code>。
+     * @return 指定设备的消耗详细信息，按照插入的顺序排列。
+     * @throws ServiceException 服务异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByDevice(String device) throws ServiceException;
+
+    /**
+     * 查询指定领用人的消耗详细信息。
+     *
+     * <p>
+     * 查询通过二级索引进行，耗时与结果的数量成正比，适用于界面中的下钻查询。
+     *
+     * @param consumingPerson 指定的领用人，可以为 <code>null</code>。
+     * @return 指定领用人的消耗详细信息，按照插入的顺序排列。
+     * @throws ServiceException 服务异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByConsumingPerson(String consumingPerson) throws ServiceException;
+
+    /**
+     * 查询指定刀具编号的消耗详细信息。
+     *
+     * <p>
+     * 查询通过二级索引进行，耗时与结果的数量成正比，适用于界面中的下钻查询。
+     *
+     * @param toolCutterCode 指定的刀具编号，可以为 <code>null</code>。
+     * @return 指定刀具编号的消耗详细信息，按照插入的顺序排列。
+     * @throws ServiceException 服务异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByToolCutterCode(String toolCutterCode) throws ServiceException;
+
+    /**
+     * 查询指定年月领用的消耗详细信息。
+     *
+     * <p>
+     * 领用年月优先由日序号计算，日序号为 <code>null</code> 时由领用日期计算，与统计结果中的年月一致。
+     * 查询通过二级索引进行，耗时与结果的数量成正比，适用于界面中的下钻查询。
+     *
+     * @param year  年份。
+     * @param month 月份，从 0 开始，与统计结果中的月份一致。
+     * @return 指定年月领用的消耗详细信息，按照插入的顺序排列。
+     * @throws ServiceException 服务异常。
+     * @since 1.2.0
+     */
+    List<ConsumingDetail> lookupByYearMonth(int year, int month) throws ServiceException;
 }
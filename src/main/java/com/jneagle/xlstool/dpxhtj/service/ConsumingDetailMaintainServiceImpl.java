@@ -12,11 +12,14 @@ import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
 import com.dwarfeng.subgrade.stack.exception.ServiceException;
 import com.dwarfeng.subgrade.stack.exception.ServiceExceptionMapper;
 import com.dwarfeng.subgrade.stack.log.LogLevel;
+import com.jneagle.xlstool.dpxhtj.bean.dto.LockWaitMetrics;
 import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
 import com.jneagle.xlstool.dpxhtj.dao.ConsumingDetailDao;
+import com.jneagle.xlstool.dpxhtj.structure.ConsumingDetailCursor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class ConsumingDetailMaintainServiceImpl implements ConsumingDetailMaintainService {
@@ -25,6 +28,7 @@ public class ConsumingDetailMaintainServiceImpl implements ConsumingDetailMainta
     private final ServiceExceptionMapper sem;
     private final DaoOnlyBatchCrudService<UuidKey, ConsumingDetail> crudService;
     private final DaoOnlyEntireLookupService<ConsumingDetail> entireLookupService;
+    private final DaoOnlyBatchWriteService<UuidKey, ConsumingDetail> batchWriteService;
 
     public ConsumingDetailMaintainServiceImpl(
             ConsumingDetailDao dao, KeyFetcher<UuidKey> keyFetcher, ServiceExceptionMapper sem
@@ -33,6 +37,7 @@ public class ConsumingDetailMaintainServiceImpl implements ConsumingDetailMainta
         this.sem = sem;
         crudService = new DaoOnlyBatchCrudService<>(dao, keyFetcher, sem, LogLevel.WARN);
         entireLookupService = new DaoOnlyEntireLookupService<>(dao, sem, LogLevel.WARN);
+        batchWriteService = new DaoOnlyBatchWriteService<>(dao, keyFetcher, sem, LogLevel.WARN);
     }
 
     @Override
@@ -45,6 +50,81 @@ public class ConsumingDetailMaintainServiceImpl implements ConsumingDetailMainta
         }
     }
 
+    @Override
+    @BehaviorAnalyse
+    public LockWaitMetrics getLockWaitMetrics() throws ServiceException {
+        try {
+            return dao.getLockWaitMetrics();
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("获取锁等待指标时发生异常", LogLevel.WARN, sem, e);
+        }
+    }
+
+    @Override
+    @BehaviorAnalyse
+    public void scan(Consumer<? super ConsumingDetailCursor> consumer) throws ServiceException {
+        try {
+            dao.scan(consumer);
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("扫描消耗详细信息时发生异常", LogLevel.WARN, sem, e);
+        }
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByToolCutterType(String toolCutterType) throws ServiceException {
+        try {
+            return dao.lookupByToolCutterType(toolCutterType);
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("按照刀具类型查询消耗详细信息时发生异常", LogLevel.WARN, sem, e);
+        }
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByDevice(String device) throws ServiceException {
+        try {
+            return dao.lookupByDevice(device);
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("按照设备查询消耗详细信息时发生异常", LogLevel.WARN, sem, e);
+        }
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByConsumingPerson(String consumingPerson) throws ServiceException {
+        try {
+            return dao.lookupByConsumingPerson(consumingPerson);
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("按照领用人查询消耗详细信息时发生异常", LogLevel.WARN, sem, e);
+        }
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByToolCutterCode(String toolCutterCode) throws ServiceException {
+        try {
+            return dao.lookupByToolCutterCode(toolCutterCode);
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("按照刀具编号查询消耗详细信息时发生异常", LogLevel.WARN, sem, e);
+        }
+    }
+
+    @Override
+    @BehaviorAnalyse
+    @SkipRecord
+    public List<ConsumingDetail> lookupByYearMonth(int year, int month) throws ServiceException {
+        try {
+            return dao.lookupByYearMonth(year, month);
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("按照领用年月查询消耗详细信息时发生异常", LogLevel.WARN, sem, e);
+        }
+    }
+
     @Override
     @BehaviorAnalyse
     public boolean exists(UuidKey key) throws ServiceException {
@@ -154,26 +234,26 @@ public class ConsumingDetailMaintainServiceImpl implements ConsumingDetailMainta
     @BehaviorAnalyse
     @SkipRecord
     public List<UuidKey> batchInsertIfExists(@SkipRecord List<ConsumingDetail> elements) throws ServiceException {
-        return crudService.batchInsertIfExists(elements);
+        return batchWriteService.batchInsertIfNotExists(elements);
     }
 
     @Override
     @BehaviorAnalyse
     public void batchUpdateIfExists(@SkipRecord List<ConsumingDetail> elements) throws ServiceException {
-        crudService.batchUpdateIfExists(elements);
+        batchWriteService.batchUpdateIfExists(elements);
     }
 
     @Override
     @BehaviorAnalyse
     public void batchDeleteIfExists(@SkipRecord List<UuidKey> keys) throws ServiceException {
-        crudService.batchDeleteIfExists(keys);
+        batchWriteService.batchDeleteIfExists(keys);
     }
 
     @Override
     @BehaviorAnalyse
     @SkipRecord
     public List<UuidKey> batchInsertOrUpdate(@SkipRecord List<ConsumingDetail> elements) throws ServiceException {
-        return crudService.batchInsertOrUpdate(elements);
+        return batchWriteService.batchInsertOrUpdate(elements);
     }
 
     @Override
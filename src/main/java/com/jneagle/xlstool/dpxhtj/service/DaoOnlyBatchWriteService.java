@@ -0,0 +1,159 @@
+package com.jneagle.xlstool.dpxhtj.service;
+
+import com.dwarfeng.subgrade.sdk.exception.ServiceExceptionHelper;
+import com.dwarfeng.subgrade.stack.bean.entity.Entity;
+import com.dwarfeng.subgrade.stack.bean.key.Key;
+import com.dwarfeng.subgrade.stack.bean.key.KeyFetcher;
+import com.dwarfeng.subgrade.stack.dao.BatchBaseDao;
+import com.dwarfeng.subgrade.stack.exception.ServiceException;
+import com.dwarfeng.subgrade.stack.exception.ServiceExceptionMapper;
+import com.dwarfeng.subgrade.stack.log.LogLevel;
+
+import java.util.*;
+
+/**
+ * 只使用数据访问层的批量写入服务。
+ *
+ * <p>
+ * 通用的批量服务逐个判断主键是否存在，并逐个调用数据访问层的写入方法；
+ * 内存数据访问层的每次写入都要复制数据并发布新的版本，逐个写入时批量操作的耗时与数据总量的平方成正比。
+ * 该服务先在读取中筛选出需要写入的实体，再调用数据访问层的批量写入方法，每个批量操作只写入一次。
+ *
+ * @param <K> 主键的类型。
+ * @param <E> 实体的类型。
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+class DaoOnlyBatchWriteService<K extends Key, E extends Entity<K>> {
+
+    private final BatchBaseDao<K, E> dao;
+    private final KeyFetcher<K> keyFetcher;
+    private final ServiceExceptionMapper sem;
+    private final LogLevel exceptionLogLevel;
+
+    public DaoOnlyBatchWriteService(
+            BatchBaseDao<K, E> dao, KeyFetcher<K> keyFetcher, ServiceExceptionMapper sem, LogLevel exceptionLogLevel
+    ) {
+        this.dao = dao;
+        this.keyFetcher = keyFetcher;
+        this.sem = sem;
+        this.exceptionLogLevel = exceptionLogLevel;
+    }
+
+    /**
+     * 插入主键不存在的实体。
+     *
+     * @param elements 实体组成的列表，主键为 null 的实体将被分配新的主键。
+     * @return 实体的主键，顺序与实体的顺序一致，主键已经存在的实体对应 null。
+     * @throws ServiceException 服务异常。
+     */
+    public List<K> batchInsertIfNotExists(List<E> elements) throws ServiceException {
+        try {
+            List<K> result = new ArrayList<>(elements.size());
+            List<E> insertingElements = new ArrayList<>();
+            Set<K> insertingKeys = new HashSet<>();
+            for (E element : elements) {
+                if (Objects.isNull(element.getKey())) {
+                    element.setKey(keyFetcher.fetchKey());
+                } else if (insertingKeys.contains(element.getKey()) || dao.exists(element.getKey())) {
+                    result.add(null);
+                    continue;
+                }
+                insertingKeys.add(element.getKey());
+                insertingElements.add(element);
+                result.add(element.getKey());
+            }
+            if (!insertingElements.isEmpty()) {
+                dao.batchInsert(insertingElements);
+            }
+            return result;
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("插入实体时发生异常", exceptionLogLevel, sem, e);
+        }
+    }
+
+    /**
+     * 更新主键存在的实体，主键不存在的实体将被忽略。
+     *
+     * @param elements 实体组成的列表。
+     * @throws ServiceException 服务异常。
+     */
+    public void batchUpdateIfExists(List<E> elements) throws ServiceException {
+        try {
+            List<E> updatingElements = new ArrayList<>();
+            for (E element : elements) {
+                if (Objects.nonNull(element.getKey()) && dao.exists(element.getKey())) {
+                    updatingElements.add(element);
+                }
+            }
+            if (!updatingElements.isEmpty()) {
+                dao.batchUpdate(updatingElements);
+            }
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("更新实体时发生异常", exceptionLogLevel, sem, e);
+        }
+    }
+
+    /**
+     * 删除主键存在的实体，不存在的主键将被忽略。
+     *
+     * @param keys 主键组成的列表。
+     * @throws ServiceException 服务异常。
+     */
+    public void batchDeleteIfExists(List<K> keys) throws ServiceException {
+        try {
+            List<K> deletingKeys = new ArrayList<>();
+            for (K key : keys) {
+                if (dao.exists(key)) {
+                    deletingKeys.add(key);
+                }
+            }
+            if (!deletingKeys.isEmpty()) {
+                dao.batchDelete(deletingKeys);
+            }
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("删除实体时发生异常", exceptionLogLevel, sem, e);
+        }
+    }
+
+    /**
+     * 插入主键不存在的实体，并更新主键存在的实体。
+     *
+     * <p>
+     * 先插入所有需要插入的实体，再更新所有需要更新的实体；
+     * 同一主键在列表中出现多次时，第一次出现的实体被插入，之后出现的实体依次更新，与逐个写入的结果一致。
+     *
+     * @param elements 实体组成的列表，主键为 null 的实体将被分配新的主键。
+     * @return 实体的主键，顺序与实体的顺序一致。
+     * @throws ServiceException 服务异常。
+     */
+    public List<K> batchInsertOrUpdate(List<E> elements) throws ServiceException {
+        try {
+            List<K> result = new ArrayList<>(elements.size());
+            List<E> insertingElements = new ArrayList<>();
+            List<E> updatingElements = new ArrayList<>();
+            Set<K> insertingKeys = new HashSet<>();
+            for (E element : elements) {
+                if (Objects.isNull(element.getKey())) {
+                    element.setKey(keyFetcher.fetchKey());
+                } else if (insertingKeys.contains(element.getKey()) || dao.exists(element.getKey())) {
+                    updatingElements.add(element);
+                    result.add(element.getKey());
+                    continue;
+                }
+                insertingKeys.add(element.getKey());
+                insertingElements.add(element);
+                result.add(element.getKey());
+            }
+            if (!insertingElements.isEmpty()) {
+                dao.batchInsert(insertingElements);
+            }
+            if (!updatingElements.isEmpty()) {
+                dao.batchUpdate(updatingElements);
+            }
+            return result;
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("插入或更新实体时发生异常", exceptionLogLevel, sem, e);
+        }
+    }
+}
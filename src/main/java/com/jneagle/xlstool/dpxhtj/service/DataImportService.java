@@ -1,8 +1,10 @@
 package com.jneagle.xlstool.dpxhtj.service;
 
 import com.dwarfeng.subgrade.stack.exception.ServiceException;
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportFileInfo;
 
 import java.io.File;
+import java.util.List;
 
 /**
  * 数据导入服务。
@@ -20,4 +22,16 @@ public interface DataImportService extends ProgressService {
      * @throws ServiceException 服务异常。
      */
     void execImport(File file, String password) throws ServiceException;
+
+    /**
+     * 执行批量导入动作。
+     *
+     * <p>
+     * 多个文件的解密与解析并行进行，所有文件的结果在全部文件导入完成后一次性添加。
+     *
+     * @param importFileInfos 导入文件信息组成的列表，每个文件可以使用各自的密码。
+     * @throws ServiceException 服务异常。
+     * @since 1.2.0
+     */
+    void execBatchImport(List<ImportFileInfo> importFileInfos) throws ServiceException;
 }
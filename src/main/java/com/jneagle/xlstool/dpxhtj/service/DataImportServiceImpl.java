@@ -4,11 +4,13 @@ import com.dwarfeng.subgrade.sdk.exception.ServiceExceptionHelper;
 import com.dwarfeng.subgrade.stack.exception.ServiceException;
 import com.dwarfeng.subgrade.stack.exception.ServiceExceptionMapper;
 import com.dwarfeng.subgrade.stack.log.LogLevel;
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportFileInfo;
 import com.jneagle.xlstool.dpxhtj.handler.DataImportHandler;
 import com.jneagle.xlstool.dpxhtj.structure.ProgressObserver;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.util.List;
 
 @Service
 public class DataImportServiceImpl implements DataImportService {
@@ -40,4 +42,13 @@ public class DataImportServiceImpl implements DataImportService {
             throw ServiceExceptionHelper.logAndThrow("发生异常", LogLevel.WARN, sem, e);
         }
     }
+
+    @Override
+    public void execBatchImport(List<ImportFileInfo> importFileInfos) throws ServiceException {
+        try {
+            handler.execBatchImport(importFileInfos);
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("发生异常", LogLevel.WARN, sem, e);
+        }
+    }
 }
@@ -12,5 +12,5 @@ import com.jneagle.xlstool.dpxhtj.bean.entity.ExportErrorInfo;
  * @since 1.0.0
  */
 public interface ExportErrorInfoMaintainService extends BatchCrudService<UuidKey, ExportErrorInfo>,
-        EntireLookupService<ExportErrorInfo>, ClearableMaintainService {
+        EntireLookupService<ExportErrorInfo>, ClearableMaintainService, LockWaitMeasurableMaintainService {
 }
@@ -12,5 +12,5 @@ import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
  * @since 1.0.0
  */
 public interface ImportErrorInfoMaintainService extends BatchCrudService<UuidKey, ImportErrorInfo>,
-        EntireLookupService<ImportErrorInfo>, ClearableMaintainService {
+        EntireLookupService<ImportErrorInfo>, ClearableMaintainService, LockWaitMeasurableMaintainService {
 }
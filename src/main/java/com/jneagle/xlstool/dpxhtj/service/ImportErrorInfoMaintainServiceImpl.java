@@ -12,6 +12,7 @@ import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
 import com.dwarfeng.subgrade.stack.exception.ServiceException;
 import com.dwarfeng.subgrade.stack.exception.ServiceExceptionMapper;
 import com.dwarfeng.subgrade.stack.log.LogLevel;
+import com.jneagle.xlstool.dpxhtj.bean.dto.LockWaitMetrics;
 import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
 import com.jneagle.xlstool.dpxhtj.dao.ImportErrorInfoDao;
 import org.springframework.stereotype.Service;
@@ -25,6 +26,7 @@ public class ImportErrorInfoMaintainServiceImpl implements ImportErrorInfoMainta
     private final ServiceExceptionMapper sem;
     private final DaoOnlyBatchCrudService<UuidKey, ImportErrorInfo> crudService;
     private final DaoOnlyEntireLookupService<ImportErrorInfo> entireLookupService;
+    private final DaoOnlyBatchWriteService<UuidKey, ImportErrorInfo> batchWriteService;
 
     public ImportErrorInfoMaintainServiceImpl(
             ImportErrorInfoDao dao, KeyFetcher<UuidKey> keyFetcher, ServiceExceptionMapper sem
@@ -33,6 +35,7 @@ public class ImportErrorInfoMaintainServiceImpl implements ImportErrorInfoMainta
         this.sem = sem;
         crudService = new DaoOnlyBatchCrudService<>(dao, keyFetcher, sem, LogLevel.WARN);
         entireLookupService = new DaoOnlyEntireLookupService<>(dao, sem, LogLevel.WARN);
+        batchWriteService = new DaoOnlyBatchWriteService<>(dao, keyFetcher, sem, LogLevel.WARN);
     }
 
     @Override
@@ -45,6 +48,16 @@ public class ImportErrorInfoMaintainServiceImpl implements ImportErrorInfoMainta
         }
     }
 
+    @Override
+    @BehaviorAnalyse
+    public LockWaitMetrics getLockWaitMetrics() throws ServiceException {
+        try {
+            return dao.getLockWaitMetrics();
+        } catch (Exception e) {
+            throw ServiceExceptionHelper.logAndThrow("获取锁等待指标时发生异常", LogLevel.WARN, sem, e);
+        }
+    }
+
     @Override
     @BehaviorAnalyse
     public boolean exists(UuidKey key) throws ServiceException {
@@ -154,26 +167,26 @@ public class ImportErrorInfoMaintainServiceImpl implements ImportErrorInfoMainta
     @BehaviorAnalyse
     @SkipRecord
     public List<UuidKey> batchInsertIfExists(@SkipRecord List<ImportErrorInfo> elements) throws ServiceException {
-        return crudService.batchInsertIfExists(elements);
+        return batchWriteService.batchInsertIfNotExists(elements);
     }
 
     @Override
     @BehaviorAnalyse
     public void batchUpdateIfExists(@SkipRecord List<ImportErrorInfo> elements) throws ServiceException {
-        crudService.batchUpdateIfExists(elements);
+        batchWriteService.batchUpdateIfExists(elements);
     }
 
     @Override
     @BehaviorAnalyse
     public void batchDeleteIfExists(@SkipRecord List<UuidKey> keys) throws ServiceException {
-        crudService.batchDeleteIfExists(keys);
+        batchWriteService.batchDeleteIfExists(keys);
     }
 
     @Override
     @BehaviorAnalyse
     @SkipRecord
     public List<UuidKey> batchInsertOrUpdate(@SkipRecord List<ImportErrorInfo> elements) throws ServiceException {
-        return crudService.batchInsertOrUpdate(elements);
+        return batchWriteService.batchInsertOrUpdate(elements);
     }
 
     @Override
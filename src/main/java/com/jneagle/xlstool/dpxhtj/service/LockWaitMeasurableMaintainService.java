@@ -0,0 +1,22 @@
+package com.jneagle.xlstool.dpxhtj.service;
+
+import com.dwarfeng.subgrade.stack.exception.ServiceException;
+import com.dwarfeng.subgrade.stack.service.Service;
+import com.jneagle.xlstool.dpxhtj.bean.dto.LockWaitMetrics;
+
+/**
+ * 可测量锁等待的维护服务。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public interface LockWaitMeasurableMaintainService extends Service {
+
+    /**
+     * 获取锁等待指标。
+     *
+     * @return 自启动以来累计的锁等待指标。
+     * @throws ServiceException 服务异常。
+     */
+    LockWaitMetrics getLockWaitMetrics() throws ServiceException;
+}
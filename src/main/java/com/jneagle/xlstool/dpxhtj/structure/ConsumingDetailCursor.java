@@ -0,0 +1,143 @@
+package com.jneagle.xlstool.dpxhtj.structure;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+
+import java.math.BigDecimal;
+
+/**
+ * 消耗详细信息游标。
+ *
+ * <p>
+ * 扫描消耗详细信息时，游标依次指向每一条数据，通过游标可以直接读取当前数据的各个字段，无需为每条数据创建实体。
+ * 字符串字段返回字典中共享的实例，数值字段以基本类型返回，取值为 <code>null</code> 的数值字段通过对应的
+ * <code>hasXxx</code> 方法判断。
+ *
+ * <p>
+ * 游标只在扫描的回调中有效，回调返回后游标将指向下一条数据，因此不应保存游标的引用。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public interface ConsumingDetailCursor {
+
+    /**
+     * 获取当前数据在扫描中的序号。
+     *
+     * @return 当前数据在扫描中的序号，从 0 开始。
+     */
+    int getIndex();
+
+    /**
+     * 获取本次扫描的数据总数。
+     *
+     * @return 本次扫描的数据总数。
+     */
+    int getCount();
+
+    /**
+     * 获取当前数据的主键。
+     *
+     * <p>
+     * 每次调用均会创建新的主键对象。
+     *
+     * @return 当前数据的主键。
+     */
+    UuidKey getKey();
+
+    String getToolCutterType();
+
+    String getDevice();
+
+    boolean hasConsumingQuantity();
+
+    /**
+     * 获取领用数量。
+     *
+     * @return 领用数量，领用数量为 <code>null</code> 时返回 0。
+     */
+    int getConsumingQuantity();
+
+    boolean hasWorth();
+
+    /**
+     * 判断价值能否无损地表示为以分为单位的整数。
+     *
+     * <p>
+     * 价值的小数位数不超过 2 位，且以分为单位时不超出 <code>long</code> 的范围时，返回 <code>true</code>，
+     * 此时可以通过 {@link #getWorthInCents()} 与 {@link #getWorthScale()} 读取价值，而无需创建
+     * {@link BigDecimal}。
+     *
+     * @return 价值能否无损地表示为以分为单位的整数，价值为 <code>null</code> 时返回 <code>false</code>。
+     */
+    boolean isWorthInCents();
+
+    /**
+     * 获取以分为单位的价值。
+     *
+     * @return 以分为单位的价值，{@link #isWorthInCents()} 为 <code>false</code> 时返回 0。
+     */
+    long getWorthInCents();
+
+    /**
+     * 获取价值原本的小数位数。
+     *
+     * @return 价值原本的小数位数，介于 0 与 2 之间，{@link #isWorthInCents()} 为 <code>false</code> 时返回 0。
+     */
+    int getWorthScale();
+
+    /**
+     * 获取价值。
+     *
+     * <p>
+     * 价值可以表示为以分为单位的整数时，每次调用均会创建新的 {@link BigDecimal} 对象。
+     *
+     * @return 价值，可能为 <code>null</code>。
+     */
+    BigDecimal getWorth();
+
+    String getConsumingPerson();
+
+    boolean hasConsumingDate();
+
+    /**
+     * 获取领用日期的毫秒数。
+     *
+     * @return 领用日期自 1970-01-01T00:00:00Z 起的毫秒数，领用日期为 <code>null</code> 时返回 0。
+     */
+    long getConsumingDateMillis();
+
+    String getRemark();
+
+    String getToolCutterCode();
+
+    boolean hasReturningQuantity();
+
+    /**
+     * 获取退回数量。
+     *
+     * @return 退回数量，退回数量为 <code>null</code> 时返回 0。
+     */
+    int getReturningQuantity();
+
+    String getReturningUsageInfo();
+
+    boolean hasConsumingDay();
+
+    /**
+     * 获取领用日期对应的日序号。
+     *
+     * @return 领用日期对应的日序号，日序号为 <code>null</code> 时返回 0。
+     */
+    int getConsumingDay();
+
+    /**
+     * 将当前数据转换为消耗详细信息。
+     *
+     * <p>
+     * 每次调用均会创建新的实体，修改返回的实体不会影响保存的数据。
+     *
+     * @return 当前数据对应的消耗详细信息。
+     */
+    ConsumingDetail toConsumingDetail();
+}
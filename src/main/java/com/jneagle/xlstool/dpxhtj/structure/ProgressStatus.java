@@ -1,5 +1,7 @@
 package com.jneagle.xlstool.dpxhtj.structure;
 
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportMetrics;
+
 /**
  * 进度状态。
  *
@@ -13,10 +15,24 @@ public final class ProgressStatus {
 
     private final int current;
     private final int total;
+    private final ImportMetrics importMetrics;
 
     public ProgressStatus(int current, int total) {
+        this(current, total, null);
+    }
+
+    /**
+     * 构造带有导入指标的进度状态。
+     *
+     * @param current       当前进度。
+     * @param total         总进度。
+     * @param importMetrics 截至当前的导入指标。
+     * @since 1.2.0
+     */
+    public ProgressStatus(int current, int total, ImportMetrics importMetrics) {
         this.current = current;
         this.total = total;
+        this.importMetrics = importMetrics;
     }
 
     public int getCurrent() {
@@ -27,11 +43,22 @@ public final class ProgressStatus {
         return total;
     }
 
+    /**
+     * 获取导入指标。
+     *
+     * @return 导入指标，只有数据导入的进度状态带有导入指标，其余情况下为 <code>null</code>。
+     * @since 1.2.0
+     */
+    public ImportMetrics getImportMetrics() {
+        return importMetrics;
+    }
+
     @Override
     public String toString() {
         return "ProgressStatus{" +
                 "current=" + current +
                 ", total=" + total +
+                ", importMetrics=" + importMetrics +
                 '}';
     }
 }
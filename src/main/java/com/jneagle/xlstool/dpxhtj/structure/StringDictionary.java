@@ -0,0 +1,177 @@
+package com.jneagle.xlstool.dpxhtj.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 字符串字典。
+ *
+ * <p>
+ * 将内容相同的字符串映射为同一个实例，并为每个不同的字符串分配一个从 0 开始递增的整数编码。
+ *
+ * <p>
+ * 适用于取值种类较少的字段：内容相同的值共享同一个实例，可以减少内存占用；
+ * 字符串的散列值只需要计算一次，相等比较也可以通过引用直接判定。
+ *
+ * <p>
+ * 该类是线程安全的。新的字符串在写锁（即该对象的监视器）内加入字典，
+ * 编码与字符串的查询不加锁，只读取已经发布的字符串。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public class StringDictionary {
+
+    /**
+     * <code>null</code> 对应的编码。
+     */
+    public static final int NULL_CODE = -1;
+
+    /**
+     * 字典中不存在的字符串对应的编码。
+     */
+    public static final int ABSENT_CODE = -2;
+
+    private final Map<String, Item> itemMap = new ConcurrentHashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * 已经发布的字符串数组，下标即为编码。
+     *
+     * <p>
+     * 字符串只在写锁内追加到列表中，列表扩容时才重新生成该数组，因此追加的开销均摊为常数；
+     * 数组的长度可能大于字典的大小，未发布的位置不会被读取。
+     */
+    private volatile String[] publishedValues = new String[0];
+    private volatile int publishedSize = 0;
+
+    /**
+     * 获取与指定字符串内容相同的字典实例。
+     *
+     * <p>
+     * 如果字典中不存在与指定字符串内容相同的实例，则将指定的字符串加入字典。
+     *
+     * @param value 指定的字符串，可以为 <code>null</code>。
+     * @return 字典中与指定字符串内容相同的实例，指定的字符串为 <code>null</code> 时返回 <code>null</code>。
+     */
+    public String intern(String value) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        return getItem(value).value;
+    }
+
+    /**
+     * 获取指定字符串的编码。
+     *
+     * <p>
+     * 如果字典中不存在与指定字符串内容相同的实例，则将指定的字符串加入字典。
+     *
+     * @param value 指定的字符串，可以为 <code>null</code>。
+     * @return 指定字符串的编码，指定的字符串为 <code>null</code> 时返回 {@link #NULL_CODE}。
+     */
+    public int encode(String value) {
+        if (Objects.isNull(value)) {
+            return NULL_CODE;
+        }
+        return getItem(value).code;
+    }
+
+    /**
+     * 查询指定字符串的编码。
+     *
+     * <p>
+     * 与 {@link #encode(String)} 不同，该方法不会将字典中不存在的字符串加入字典。
+     *
+     * @param value 指定的字符串，可以为 <code>null</code>。
+     * @return 指定字符串的编码，指定的字符串为 <code>null</code> 时返回 {@link #NULL_CODE}，
+     * 字典中不存在与指定字符串内容相同的实例时返回 {@link #ABSENT_CODE}。
+     */
+    public int codeOf(String value) {
+        if (Objects.isNull(value)) {
+            return NULL_CODE;
+        }
+        Item item = itemMap.get(value);
+        return Objects.isNull(item) ? ABSENT_CODE : item.code;
+    }
+
+    /**
+     * 获取指定编码对应的字符串。
+     *
+     * @param code 指定的编码。
+     * @return 指定编码对应的字符串，编码为 {@link #NULL_CODE} 时返回 <code>null</code>。
+     * @throws IndexOutOfBoundsException 编码不是由该字典分配的。
+     */
+    public String decode(int code) {
+        if (code == NULL_CODE) {
+            return null;
+        }
+        // 先读取大小再读取数组，读到的数组一定包含大小以内的所有字符串。
+        int size = publishedSize;
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("Code: " + code + ", Size: " + size);
+        }
+        return publishedValues[code];
+    }
+
+    /**
+     * 获取字典中不同字符串的数量。
+     *
+     * @return 字典中不同字符串的数量。
+     */
+    public int size() {
+        return publishedSize;
+    }
+
+    private Item getItem(String value) {
+        // 绝大多数的值已经在字典中，无锁读取即可。
+        Item item = itemMap.get(value);
+        if (Objects.nonNull(item)) {
+            return item;
+        }
+        synchronized (this) {
+            item = itemMap.get(value);
+            if (Objects.isNull(item)) {
+                item = new Item(value, values.size());
+                values.add(value);
+                publish(value);
+                itemMap.put(value, item);
+            }
+            return item;
+        }
+    }
+
+    private void publish(String value) {
+        // 调用时持有写锁。数组已满时按倍数扩容，新数组在写入大小之前发布。
+        String[] array = publishedValues;
+        int size = publishedSize;
+        if (size == array.length) {
+            array = values.toArray(new String[Math.max(size * 2, 16)]);
+            publishedValues = array;
+        } else {
+            array[size] = value;
+        }
+        publishedSize = size + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "StringDictionary{" +
+                "size=" + publishedSize +
+                '}';
+    }
+
+    private static final class Item {
+
+        private final String value;
+        private final int code;
+
+        private Item(String value, int code) {
+            this.value = value;
+            this.code = code;
+        }
+    }
+}
@@ -17,6 +17,38 @@ public final class Constants {
      */
     public static final int EXPORT_FILE_TYPE_XLSX = 1;
 
+    /**
+     * 导入解析模式: 用户模型。
+     *
+     * @since 1.2.0
+     */
+    public static final String IMPORT_PARSE_MODE_USER_MODEL = "user_model";
+    /**
+     * 导入解析模式: 事件模型。
+     *
+     * @since 1.2.0
+     */
+    public static final String IMPORT_PARSE_MODE_EVENT_MODEL = "event_model";
+
+    /**
+     * 导入公式计算策略: 总是计算。
+     *
+     * @since 1.2.0
+     */
+    public static final String IMPORT_FORMULA_EVALUATION_POLICY_ALWAYS = "always";
+    /**
+     * 导入公式计算策略: 使用缓存结果。
+     *
+     * @since 1.2.0
+     */
+    public static final String IMPORT_FORMULA_EVALUATION_POLICY_CACHED = "cached";
+    /**
+     * 导入公式计算策略: 缓存结果缺失时计算。
+     *
+     * @since 1.2.0
+     */
+    public static final String IMPORT_FORMULA_EVALUATION_POLICY_MISSING = "missing";
+
     private Constants() {
         throw new IllegalStateException("禁止实例化");
     }
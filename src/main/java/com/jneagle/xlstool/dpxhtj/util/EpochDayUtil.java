@@ -0,0 +1,72 @@
+package com.jneagle.xlstool.dpxhtj.util;
+
+/**
+ * 日序号工具类。
+ *
+ * <p>
+ * 日序号是自 1970-01-01 起的天数，与 {@link java.time.LocalDate#toEpochDay()} 的含义相同。
+ * 该工具类只使用整数运算，不创建任何对象。
+ *
+ * @author DwArFeng
+ * @since 1.2.0
+ */
+public final class EpochDayUtil {
+
+    /**
+     * 0000-03-01 至 1970-01-01 之间的天数。
+     */
+    private static final int DAYS_0000_TO_1970 = 719468;
+
+    /**
+     * 400 年（一个格里高利历周期）的天数。
+     */
+    private static final int DAYS_PER_CYCLE = 146097;
+
+    /**
+     * 获取日序号对应的年份。
+     *
+     * @param epochDay 日序号。
+     * @return 日序号对应的年份。
+     */
+    public static int yearOf(int epochDay) {
+        int dayOfEra = dayOfEra(epochDay);
+        int yearOfEra = yearOfEra(dayOfEra);
+        int year = yearOfEra + eraOf(epochDay) * 400;
+        // 以 3 月为一年的开始进行计算，1 月与 2 月属于下一年。
+        return monthIndexOf(dayOfEra, yearOfEra) < 10 ? year : year + 1;
+    }
+
+    /**
+     * 获取日序号对应的月份。
+     *
+     * @param epochDay 日序号。
+     * @return 日序号对应的月份，取值范围为 1 - 12。
+     */
+    public static int monthOf(int epochDay) {
+        int dayOfEra = dayOfEra(epochDay);
+        int monthIndex = monthIndexOf(dayOfEra, yearOfEra(dayOfEra));
+        return monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+    }
+
+    // 以下算法将日期平移至以 0000-03-01 为起点，使闰日位于每一年的末尾，从而只需整数运算即可得到年月。
+    private static int eraOf(int epochDay) {
+        return Math.floorDiv(epochDay + DAYS_0000_TO_1970, DAYS_PER_CYCLE);
+    }
+
+    private static int dayOfEra(int epochDay) {
+        return Math.floorMod(epochDay + DAYS_0000_TO_1970, DAYS_PER_CYCLE);
+    }
+
+    private static int yearOfEra(int dayOfEra) {
+        return (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / (DAYS_PER_CYCLE - 1)) / 365;
+    }
+
+    private static int monthIndexOf(int dayOfEra, int yearOfEra) {
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        return (5 * dayOfYear + 2) / 153;
+    }
+
+    private EpochDayUtil() {
+        throw new IllegalStateException("禁止实例化");
+    }
+}
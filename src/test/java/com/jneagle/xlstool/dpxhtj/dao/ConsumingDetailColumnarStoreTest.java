@@ -0,0 +1,300 @@
+package com.jneagle.xlstool.dpxhtj.dao;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ConsumingDetailColumnarStoreTest {
+
+    private ConsumingDetailColumnarStore store;
+
+    @Before
+    public void setUp() {
+        store = new ConsumingDetailColumnarStore();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        List<ConsumingDetail> consumingDetails = Arrays.asList(
+                detail(regularKey(1), "张三", new BigDecimal("1.50"), 19000),
+                detail(new UuidKey("irregular-key"), "李四", new BigDecimal("0.001"), null),
+                detail(regularKey(2), null, new BigDecimal("123456789012345678901234.5"), 19100),
+                new ConsumingDetail(
+                        regularKey(3), null, null, null, null, null, null, null, null, null, null, null
+                )
+        );
+        store.putAll(consumingDetails);
+
+        ConsumingDetailColumnarStore.Version version = store.current();
+        assertEquals(4, version.size());
+        for (ConsumingDetail consumingDetail : consumingDetails) {
+            assertTrue(version.contains(consumingDetail.getKey()));
+            assertDetailEquals(consumingDetail, version.get(consumingDetail.getKey()));
+        }
+        assertFalse(version.contains(regularKey(4)));
+        assertFalse(version.contains(new UuidKey("irregular-key-2")));
+        assertNull(version.get(regularKey(4)));
+
+        // 覆盖已有的数据时保持其原有的位置。
+        ConsumingDetail overwritten = detail(regularKey(1), "王五", new BigDecimal("2"), 19200);
+        store.put(overwritten);
+        assertEquals(4, store.current().size());
+        assertDetailEquals(overwritten, store.current().toList().get(0));
+        assertTrue(store.current().lookupByConsumingPerson("张三").isEmpty());
+        assertEquals(1, store.current().lookupByConsumingPerson("王五").size());
+    }
+
+    @Test
+    public void testRemoveAllSkipsDeletedRows() {
+        List<ConsumingDetail> consumingDetails = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            consumingDetails.add(detail(regularKey(i), "P" + i % 2, BigDecimal.valueOf(i, 2), 19000 + i));
+        }
+        store.putAll(consumingDetails);
+
+        // 删除的行数未超过总行数的四分之一，不会压缩。
+        store.removeAll(Arrays.asList(regularKey(1), regularKey(4), regularKey(100)));
+        List<ConsumingDetail> expected = new ArrayList<>(consumingDetails);
+        expected.remove(4);
+        expected.remove(1);
+        assertVersionEquals(expected, store.current());
+        assertFalse(store.current().contains(regularKey(1)));
+        assertNull(store.current().get(regularKey(4)));
+
+        // 重新保存已删除的主键时追加到末尾。
+        ConsumingDetail reinserted = detail(regularKey(1), "P1", BigDecimal.ONE, 19001);
+        store.put(reinserted);
+        expected.add(reinserted);
+        assertVersionEquals(expected, store.current());
+    }
+
+    @Test
+    public void testRemoveAllCompactsPastThreshold() {
+        List<ConsumingDetail> consumingDetails = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            UuidKey key = i % 2 == 0 ? regularKey(i) : new UuidKey("irregular-" + i);
+            BigDecimal worth = i % 3 == 0 ? new BigDecimal(BigInteger.TEN.pow(30).add(BigInteger.valueOf(i)), 3) :
+                    BigDecimal.valueOf(i * 100 + 1, 2);
+            consumingDetails.add(detail(key, "P" + i % 3, worth, 19000 + i * 40));
+        }
+        store.putAll(consumingDetails);
+
+        // 删除的行数超过总行数的四分之一，压缩之后剩余的数据保持插入的顺序。
+        store.removeAll(Arrays.asList(
+                consumingDetails.get(0).getKey(), consumingDetails.get(3).getKey(), consumingDetails.get(5).getKey()
+        ));
+        List<ConsumingDetail> expected = new ArrayList<>(consumingDetails);
+        expected.remove(5);
+        expected.remove(3);
+        expected.remove(0);
+        assertVersionEquals(expected, store.current());
+
+        // 压缩之后继续写入。
+        ConsumingDetail appended = detail(new UuidKey("irregular-new"), "P0", new BigDecimal("1E+40"), 19500);
+        store.put(appended);
+        expected.add(appended);
+        ConsumingDetail overwritten = detail(consumingDetails.get(6).getKey(), "P9", null, null);
+        store.put(overwritten);
+        expected.set(expected.indexOf(consumingDetails.get(6)), overwritten);
+        assertVersionEquals(expected, store.current());
+    }
+
+    /**
+     * 存在未压缩的已删除的行时，分页查询的结果与插入的顺序一致。
+     */
+    @Test
+    public void testPagingWithDeletedRows() {
+        Random random = new Random(0);
+        List<ConsumingDetail> consumingDetails = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            consumingDetails.add(detail(regularKey(i), "P" + i % 7, BigDecimal.valueOf(i, 2), 19000 + i % 365));
+        }
+        store.putAll(consumingDetails);
+
+        // 分多次删除，每次删除之后已删除的行都不超过总行数的四分之一，不会压缩。
+        Set<UuidKey> deletedKeys = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            List<UuidKey> keys = new ArrayList<>();
+            for (int j = 0; j < 1000; j++) {
+                keys.add(regularKey(random.nextInt(consumingDetails.size())));
+            }
+            store.removeAll(keys);
+            deletedKeys.addAll(keys);
+        }
+        List<ConsumingDetail> expected = new ArrayList<>();
+        for (ConsumingDetail consumingDetail : consumingDetails) {
+            if (!deletedKeys.contains(consumingDetail.getKey())) {
+                expected.add(consumingDetail);
+            }
+        }
+
+        ConsumingDetailColumnarStore.Version version = store.current();
+        assertEquals(expected.size(), version.size());
+        for (int fromIndex = 0; fromIndex < expected.size(); fromIndex += 50) {
+            int toIndex = Math.min(fromIndex + 50, expected.size());
+            assertDetailsEquals(expected.subList(fromIndex, toIndex), version.toList(fromIndex, toIndex));
+        }
+        assertDetailsEquals(
+                expected.subList(expected.size() - 10, expected.size()),
+                version.toList(expected.size() - 10, expected.size() + 10)
+        );
+        assertTrue(version.toList(expected.size(), expected.size() + 10).isEmpty());
+    }
+
+    @Test
+    public void testPublishedVersionIsNotModified() {
+        List<ConsumingDetail> consumingDetails = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            consumingDetails.add(detail(regularKey(i), "P" + i % 3, BigDecimal.valueOf(i), 19000 + i));
+        }
+        store.putAll(consumingDetails);
+        ConsumingDetailColumnarStore.Version version = store.current();
+
+        store.putAll(Arrays.asList(
+                detail(regularKey(3), "P9", BigDecimal.TEN, 18000), detail(regularKey(30), "P9", null, null)
+        ));
+        store.removeAll(Collections.singletonList(regularKey(5)));
+        store.removeAll(Arrays.asList(regularKey(6), regularKey(7), regularKey(8), regularKey(9), regularKey(10)));
+        store.clear();
+
+        assertVersionEquals(consumingDetails, version);
+        assertEquals(0, store.current().size());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(0);
+        Map<UuidKey, ConsumingDetail> reference = new LinkedHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                List<ConsumingDetail> consumingDetails = new ArrayList<>();
+                for (int j = random.nextInt(20); j >= 0; j--) {
+                    consumingDetails.add(randomDetail(random));
+                }
+                store.putAll(consumingDetails);
+                consumingDetails.forEach(consumingDetail -> reference.put(consumingDetail.getKey(), consumingDetail));
+            } else if (operation < 9) {
+                List<UuidKey> keys = new ArrayList<>();
+                for (int j = random.nextInt(operation == 8 ? 200 : 10); j >= 0; j--) {
+                    keys.add(randomKey(random));
+                }
+                store.removeAll(keys);
+                keys.forEach(reference::remove);
+            } else {
+                store.clear();
+                reference.clear();
+            }
+
+            List<ConsumingDetail> expected = new ArrayList<>(reference.values());
+            ConsumingDetailColumnarStore.Version version = store.current();
+            assertVersionEquals(expected, version);
+            int fromIndex = random.nextInt(expected.size() + 5);
+            int toIndex = fromIndex + random.nextInt(30);
+            assertDetailsEquals(
+                    expected.subList(Math.min(fromIndex, expected.size()), Math.min(toIndex, expected.size())),
+                    version.toList(fromIndex, toIndex)
+            );
+        }
+    }
+
+    private static UuidKey regularKey(long value) {
+        return new UuidKey(new UUID(value, value * 31).toString());
+    }
+
+    private static UuidKey randomKey(Random random) {
+        int value = random.nextInt(400);
+        return value % 3 == 0 ? new UuidKey("irregular-" + value) : regularKey(value);
+    }
+
+    private static ConsumingDetail randomDetail(Random random) {
+        BigDecimal worth;
+        switch (random.nextInt(3)) {
+            case 0:
+                worth = new BigDecimal(new BigInteger(70, random), 5);
+                break;
+            case 1:
+                worth = BigDecimal.valueOf(random.nextInt(100000), 2);
+                break;
+            default:
+                worth = null;
+                break;
+        }
+        return new ConsumingDetail(
+                randomKey(random), "T" + random.nextInt(3), "D" + random.nextInt(3),
+                random.nextBoolean() ? null : random.nextInt(9), worth, "P" + random.nextInt(4),
+                random.nextBoolean() ? null : new Date(random.nextInt(100000) * 86400000L), "R" + random.nextInt(),
+                "C" + random.nextInt(3), random.nextBoolean() ? null : random.nextInt(9), "U" + random.nextInt(2),
+                random.nextBoolean() ? null : 18000 + random.nextInt(1000)
+        );
+    }
+
+    private static ConsumingDetail detail(UuidKey key, String consumingPerson, BigDecimal worth, Integer consumingDay) {
+        Date consumingDate = Objects.isNull(consumingDay) ? null : new Date(consumingDay * 86400000L);
+        return new ConsumingDetail(
+                key, "T", "D", 1, worth, consumingPerson, consumingDate, "备注", "C", 0, "U", consumingDay
+        );
+    }
+
+    private static void assertVersionEquals(
+            List<ConsumingDetail> expected, ConsumingDetailColumnarStore.Version version
+    ) {
+        assertEquals(expected.size(), version.size());
+        assertDetailsEquals(expected, version.toList());
+
+        List<ConsumingDetail> scanned = new ArrayList<>();
+        version.scan(cursor -> {
+            assertEquals(scanned.size(), cursor.getIndex());
+            assertEquals(expected.size(), cursor.getCount());
+            scanned.add(cursor.toConsumingDetail());
+        });
+        assertDetailsEquals(expected, scanned);
+
+        for (ConsumingDetail consumingDetail : expected) {
+            assertTrue(version.contains(consumingDetail.getKey()));
+            assertDetailEquals(consumingDetail, version.get(consumingDetail.getKey()));
+        }
+
+        Set<String> consumingPersons = new LinkedHashSet<>();
+        expected.forEach(consumingDetail -> consumingPersons.add(consumingDetail.getConsumingPerson()));
+        for (String consumingPerson : consumingPersons) {
+            List<ConsumingDetail> matched = new ArrayList<>();
+            for (ConsumingDetail consumingDetail : expected) {
+                if (Objects.equals(consumingPerson, consumingDetail.getConsumingPerson())) {
+                    matched.add(consumingDetail);
+                }
+            }
+            assertDetailsEquals(matched, version.lookupByConsumingPerson(consumingPerson));
+        }
+    }
+
+    private static void assertDetailsEquals(List<ConsumingDetail> expected, List<ConsumingDetail> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertDetailEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    private static void assertDetailEquals(ConsumingDetail expected, ConsumingDetail actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getKey().getUuid(), actual.getKey().getUuid());
+        assertEquals(expected.getToolCutterType(), actual.getToolCutterType());
+        assertEquals(expected.getDevice(), actual.getDevice());
+        assertEquals(expected.getConsumingQuantity(), actual.getConsumingQuantity());
+        assertEquals(expected.getWorth(), actual.getWorth());
+        assertEquals(expected.getConsumingPerson(), actual.getConsumingPerson());
+        assertEquals(expected.getConsumingDate(), actual.getConsumingDate());
+        assertEquals(expected.getRemark(), actual.getRemark());
+        assertEquals(expected.getToolCutterCode(), actual.getToolCutterCode());
+        assertEquals(expected.getReturningQuantity(), actual.getReturningQuantity());
+        assertEquals(expected.getReturningUsageInfo(), actual.getReturningUsageInfo());
+        assertEquals(expected.getConsumingDay(), actual.getConsumingDay());
+    }
+}
@@ -0,0 +1,87 @@
+package com.jneagle.xlstool.dpxhtj.dao;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DeletedRowSetTest {
+
+    @Test
+    public void testSelect() {
+        Random random = new Random(0);
+        int capacity = 5000;
+        DeletedRowSet deletedRowSet = new DeletedRowSet(capacity);
+        boolean[] deleted = new boolean[capacity];
+        for (int i = 0; i < 2000; i++) {
+            int row = random.nextInt(capacity);
+            assertEquals(!deleted[row], deletedRowSet.add(row));
+            deleted[row] = true;
+            if (i % 100 == 0) {
+                assertSelectEquals(deleted, deletedRowSet);
+            }
+        }
+        assertSelectEquals(deleted, deletedRowSet);
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        DeletedRowSet deletedRowSet = new DeletedRowSet(100);
+        deletedRowSet.add(0);
+        deletedRowSet.add(70);
+
+        DeletedRowSet copy = new DeletedRowSet(deletedRowSet, 1000);
+        copy.add(1);
+        copy.add(500);
+        assertFalse(deletedRowSet.contains(1));
+        assertEquals(1, deletedRowSet.select(0));
+        assertEquals(69, deletedRowSet.select(68));
+        assertEquals(71, deletedRowSet.select(69));
+
+        assertTrue(copy.contains(70));
+        assertEquals(2, copy.select(0));
+        assertEquals(502, copy.select(498));
+        assertEquals(999, copy.select(995));
+    }
+
+    /**
+     * 查询的开销与位置无关，只与容量的对数有关，删除的行分布在整个集合中时也是如此。
+     */
+    @Test
+    public void testSelectVisitsLogarithmicNodes() {
+        int capacity = 1 << 20;
+        DeletedRowSet deletedRowSet = new DeletedRowSet(capacity);
+        Random random = new Random(0);
+        int deletedCount = 0;
+        for (int i = 0; i < capacity / 5; i++) {
+            if (deletedRowSet.add(random.nextInt(capacity))) {
+                deletedCount++;
+            }
+        }
+        // 树状数组的每一层访问一个节点，另外访问目标行所在的字。
+        int maxVisits = Integer.numberOfTrailingZeros(capacity / 64) + 2;
+        int liveCount = capacity - deletedCount;
+        for (int index = 0; index < liveCount; index += 997) {
+            int[] visits = new int[1];
+            int row = deletedRowSet.select(index, visits);
+            assertFalse(deletedRowSet.contains(row));
+            assertTrue(visits[0] <= maxVisits);
+        }
+    }
+
+    private static void assertSelectEquals(boolean[] deleted, DeletedRowSet deletedRowSet) {
+        List<Integer> liveRows = new ArrayList<>();
+        for (int row = 0; row < deleted.length; row++) {
+            assertEquals(deleted[row], deletedRowSet.contains(row));
+            if (!deleted[row]) {
+                liveRows.add(row);
+            }
+        }
+        for (int index = 0; index < liveRows.size(); index++) {
+            assertEquals((int) liveRows.get(index), deletedRowSet.select(index));
+        }
+    }
+}
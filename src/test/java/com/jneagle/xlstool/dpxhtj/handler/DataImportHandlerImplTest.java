@@ -0,0 +1,663 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportFileInfo;
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportMetrics;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+import com.jneagle.xlstool.dpxhtj.configuration.ServiceConfiguration;
+import com.jneagle.xlstool.dpxhtj.configuration.ServiceExceptionMapperConfiguration;
+import com.jneagle.xlstool.dpxhtj.dao.ConsumingDetailDao;
+import com.jneagle.xlstool.dpxhtj.dao.ConsumingDetailDaoImpl;
+import com.jneagle.xlstool.dpxhtj.dao.ImportErrorInfoDao;
+import com.jneagle.xlstool.dpxhtj.dao.ImportErrorInfoDaoImpl;
+import com.jneagle.xlstool.dpxhtj.exception.WrongPasswordException;
+import com.jneagle.xlstool.dpxhtj.service.ConsumingDetailMaintainServiceImpl;
+import com.jneagle.xlstool.dpxhtj.service.ImportErrorInfoMaintainServiceImpl;
+import com.jneagle.xlstool.dpxhtj.structure.ProgressObserver;
+import com.jneagle.xlstool.dpxhtj.structure.ProgressStatus;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.crypt.EncryptionMode;
+import org.apache.poi.poifs.crypt.Encryptor;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class DataImportHandlerImplTest {
+
+    private static final Charset GBK = Charset.forName("GBK");
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testCsvFieldParsing() throws Exception {
+        String content = "型号,设备,数量,价值,人员,日期,备注,退回,信息\r\n" +
+                "TYPE-1,DEV1,2,5.0,人员1,2022-02-02,\"备注,含\"\"引号\"\"\n换行\",1,良\r\n" +
+                "TYPE-2,DEV2,1,2.5,人员2,2022-03-03,5\" 管,0,优\r\n" +
+                ",,,,,,,,\r\n" +
+                "\r\n" +
+                "TYPE-3,DEV3,abc,1.0,人员3,2022-04-04,,,\r\n" +
+                "TYPE-4,DEV4,3,,人员4,2022-05-05,,,";
+        File file = temporaryFolder.newFile("T001.csv");
+        Files.write(file.toPath(), content.getBytes(GBK));
+
+        ImportResult importResult = execImport(file, 16777216);
+
+        List<ConsumingDetail> consumingDetails = importResult.consumingDetails;
+        assertEquals(3, consumingDetails.size());
+
+        ConsumingDetail first = consumingDetails.get(0);
+        assertEquals("TYPE-1", first.getToolCutterType());
+        assertEquals("DEV1", first.getDevice());
+        assertEquals(Integer.valueOf(2), first.getConsumingQuantity());
+        assertEquals(0, new BigDecimal("5").compareTo(first.getWorth()));
+        assertEquals("人员1", first.getConsumingPerson());
+        assertEquals(Integer.valueOf(19025), first.getConsumingDay());
+        assertEquals("备注,含\"引号\"\n换行", first.getRemark());
+        assertEquals("T001", first.getToolCutterCode());
+        assertEquals(Integer.valueOf(1), first.getReturningQuantity());
+        assertEquals("良", first.getReturningUsageInfo());
+
+        // 字段中间的引号是普通的字符，不会影响之后的行。
+        ConsumingDetail second = consumingDetails.get(1);
+        assertEquals("5\" 管", second.getRemark());
+        assertEquals("优", second.getReturningUsageInfo());
+
+        // 没有换行符结尾的最后一行。
+        ConsumingDetail third = consumingDetails.get(2);
+        assertEquals("TYPE-4", third.getToolCutterType());
+        assertNull(third.getWorth());
+        assertNull(third.getRemark());
+
+        assertEquals(1, importResult.importErrorInfos.size());
+        assertEquals("T001.csv", importResult.importErrorInfos.get(0).getSheetName());
+    }
+
+    /**
+     * 分块的大小与文件的编码不应影响导入的结果，包括引号内的换行符与字段中间的引号。
+     */
+    @Test
+    public void testCsvChunkSizeDoesNotChangeResult() throws Exception {
+        String content = generateCsv();
+        File gbkFile = temporaryFolder.newFile("T002.csv");
+        Files.write(gbkFile.toPath(), content.getBytes(GBK));
+        File utf8File = new File(temporaryFolder.newFolder(), "T002.csv");
+        byte[] utf8Bytes = content.getBytes(StandardCharsets.UTF_8);
+        byte[] utf8BomBytes = Arrays.copyOf(UTF8_BOM, UTF8_BOM.length + utf8Bytes.length);
+        System.arraycopy(utf8Bytes, 0, utf8BomBytes, UTF8_BOM.length, utf8Bytes.length);
+        Files.write(utf8File.toPath(), utf8BomBytes);
+
+        ImportResult expected = execImport(gbkFile, 16777216);
+        assertEquals(2000, expected.consumingDetails.size());
+        assertEquals(2, expected.importErrorInfos.size());
+        for (int chunkSize : new int[]{1, 100, 333}) {
+            assertImportResultEquals(expected, execImport(gbkFile, chunkSize));
+        }
+        assertImportResultEquals(expected, execImport(utf8File, 100));
+    }
+
+    /**
+     * 启用流水线时，并行解析的各分块以及批量导入的各文件逐批交给插入线程，导入结果与缓冲区相同。
+     */
+    @Test
+    public void testPipelineKeepsOrder() throws Exception {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            File file = new File(temporaryFolder.newFolder(), "T00" + i + ".csv");
+            Files.write(file.toPath(), generateCsv().getBytes(GBK));
+            files.add(file);
+        }
+
+        Map<String, Object> bufferProperties = new HashMap<>();
+        bufferProperties.put("data_import.csv.chunk_size", "100");
+        ImportResult expected = execBatchImport(files, bufferProperties);
+        assertEquals(6000, expected.consumingDetails.size());
+
+        Map<String, Object> pipelineProperties = new HashMap<>(bufferProperties);
+        pipelineProperties.put("data_import.pipeline.enabled", "true");
+        pipelineProperties.put("data_import.pipeline.batch_size", "7");
+        pipelineProperties.put("data_import.pipeline.queue_capacity", "1");
+        assertImportResultEquals(expected, execBatchImport(files, pipelineProperties));
+        assertImportResultEquals(
+                execBatchImport(files.subList(0, 1), bufferProperties),
+                execBatchImport(files.subList(0, 1), pipelineProperties)
+        );
+    }
+
+    /**
+     * 增量导入时，内容相同的文件不再重复导入；内容变化而大小与修改时间均不变的文件同样会被重新导入。
+     */
+    @Test
+    public void testIncrementalImportComparesContent() throws Exception {
+        File file = temporaryFolder.newFile("T003.csv");
+        String header = "型号,设备,数量,价值,人员,日期,备注,退回,信息\r\n";
+        Files.write(file.toPath(), (header + "TYPE-1,DEV1,1,1.0,人员1,2022-01-01,,,\r\n").getBytes(GBK));
+        long lastModified = file.lastModified();
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("data_import.incremental_import", "true");
+        try (AnnotationConfigApplicationContext context = createContext(properties)) {
+            DataImportHandler dataImportHandler = context.getBean(DataImportHandler.class);
+            ConsumingDetailDao consumingDetailDao = context.getBean(ConsumingDetailDao.class);
+            dataImportHandler.execImport(file, null);
+            dataImportHandler.execImport(file, null);
+            assertEquals(1, consumingDetailDao.lookup().size());
+
+            Files.write(file.toPath(), (header + "TYPE-2,DEV2,2,2.0,人员2,2022-02-02,,,\r\n").getBytes(GBK));
+            assertTrue(file.setLastModified(lastModified));
+            dataImportHandler.execImport(file, null);
+            List<ConsumingDetail> consumingDetails = consumingDetailDao.lookup();
+            assertEquals(1, consumingDetails.size());
+            assertEquals("TYPE-2", consumingDetails.get(0).getToolCutterType());
+        }
+    }
+
+    /**
+     * 缓存结果缺失的公式单元格只有在 cached 策略以及事件模型下视为空白，其它策略下计算公式后再判断是否空白。
+     */
+    @Test
+    public void testFormulaWithoutCachedResultIsNotBlank() throws Exception {
+        File file = temporaryFolder.newFile("T004.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("T004");
+            sheet.createRow(0).createCell(0).setCellValue("型号");
+            Row row = sheet.createRow(1);
+            setFormulaWithoutCachedResult(row, 0, "\"TYPE-\"&\"1\"");
+            setFormulaWithoutCachedResult(row, 1, "\"DEV1\"");
+            setFormulaWithoutCachedResult(row, 2, "1+1");
+            setFormulaWithoutCachedResult(row, 3, "2.5*2");
+            setFormulaWithoutCachedResult(row, 4, "\"人员1\"");
+            setFormulaWithoutCachedResult(row, 5, "DATE(2022,2,2)");
+            // 计算结果为空白的行仍然是空白行。
+            setFormulaWithoutCachedResult(sheet.createRow(2), 0, "\"\"");
+            workbook.write(out);
+        }
+
+        for (String policy : new String[]{"missing", "always"}) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("data_import.formula_evaluation_policy", policy);
+            ImportResult importResult = execImport(file, properties);
+            assertEquals(1, importResult.consumingDetails.size());
+            assertTrue(importResult.importErrorInfos.isEmpty());
+            ConsumingDetail consumingDetail = importResult.consumingDetails.get(0);
+            assertEquals("TYPE-1", consumingDetail.getToolCutterType());
+            assertEquals("DEV1", consumingDetail.getDevice());
+            assertEquals(Integer.valueOf(2), consumingDetail.getConsumingQuantity());
+            assertEquals(0, new BigDecimal("5").compareTo(consumingDetail.getWorth()));
+            assertEquals("人员1", consumingDetail.getConsumingPerson());
+            assertEquals(Integer.valueOf(19025), consumingDetail.getConsumingDay());
+        }
+
+        Map<String, Object> cachedProperties = new HashMap<>();
+        cachedProperties.put("data_import.formula_evaluation_policy", "cached");
+        ImportResult cachedResult = execImport(file, cachedProperties);
+        assertTrue(cachedResult.consumingDetails.isEmpty());
+        assertTrue(cachedResult.importErrorInfos.isEmpty());
+
+        Map<String, Object> eventModelProperties = new HashMap<>();
+        eventModelProperties.put("data_import.parse_mode", "event_model");
+        ImportResult eventModelResult = execImport(file, eventModelProperties);
+        assertTrue(eventModelResult.consumingDetails.isEmpty());
+        assertTrue(eventModelResult.importErrorInfos.isEmpty());
+    }
+
+    /**
+     * 用户模型并行导入多个工作簿时，导入结果与依次导入相同，包括跨工作簿引用的公式。
+     */
+    @Test
+    public void testUserModelParallelSheetImport() throws Exception {
+        File file = temporaryFolder.newFile("T005.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = new FileOutputStream(file)) {
+            Sheet referencedSheet = workbook.createSheet("参数");
+            referencedSheet.createRow(0).createCell(0).setCellValue(2.5);
+            for (int sheetIndex = 0; sheetIndex < 6; sheetIndex++) {
+                Sheet sheet = workbook.createSheet("T" + sheetIndex);
+                sheet.createRow(0).createCell(0).setCellValue("型号");
+                for (int rowIndex = 1; rowIndex <= 200; rowIndex++) {
+                    Row row = sheet.createRow(rowIndex);
+                    row.createCell(0).setCellValue("TYPE-" + rowIndex % 7);
+                    row.createCell(1).setCellValue("DEV" + sheetIndex);
+                    row.createCell(2).setCellValue(rowIndex % 5 + 1);
+                    setFormulaWithoutCachedResult(row, 3, "C" + (rowIndex + 1) + "*'参数'!A1");
+                    row.createCell(4).setCellValue("人员" + rowIndex % 4);
+                    row.createCell(5).setCellValue(44562 + rowIndex);
+                }
+            }
+            workbook.write(out);
+        }
+
+        Map<String, Object> sequentialProperties = new HashMap<>();
+        sequentialProperties.put("data_import.parallel_sheet_import", "false");
+        List<ProgressStatus> sequentialProgressStatuses = new ArrayList<>();
+        ImportResult expected = execImport(file, sequentialProperties, sequentialProgressStatuses);
+        // 参数工作簿只有首行，不产生数据。
+        assertEquals(1200, expected.consumingDetails.size());
+        assertEquals(0, new BigDecimal("12.5").compareTo(expected.consumingDetails.get(3).getWorth()));
+        // 依次导入时只打开一份工作簿。
+        assertEquals(1, countOpenedWorkbooks(sequentialProgressStatuses));
+
+        Map<String, Object> parallelProperties = new HashMap<>();
+        parallelProperties.put("data_import.parallel_sheet_import", "true");
+        List<ProgressStatus> parallelProgressStatuses = new ArrayList<>();
+        ImportResult actual = execImport(file, parallelProperties, parallelProgressStatuses);
+        assertImportResultEquals(expected, actual);
+        int openedWorkbookCount = countOpenedWorkbooks(parallelProgressStatuses);
+        assertTrue(openedWorkbookCount >= 1 && openedWorkbookCount <= 7);
+    }
+
+    /**
+     * 事件模型与用户模型的导入结果相同，包括数值形式的文本、缓存的公式结果、出错的行以及缺失的行。
+     */
+    @Test
+    public void testParseModesProduceSameResult() throws Exception {
+        for (boolean xlsx : new boolean[]{true, false}) {
+            File file = writeWorkbook(xlsx, "T006", null, workbook -> {
+                Sheet sheet = createDataSheet(workbook, "T006");
+                for (int rowIndex = 1; rowIndex <= 300; rowIndex++) {
+                    // 每 50 行缺失一行，两种解析方式都不会读取到缺失的行。
+                    if (rowIndex % 50 == 0) {
+                        continue;
+                    }
+                    Row row = createDataRow(sheet, rowIndex, "TYPE-" + rowIndex % 7, rowIndex % 5 + 1);
+                    switch (rowIndex % 13) {
+                        case 1:
+                            row.createCell(1).setCellValue(1001);
+                            break;
+                        case 2:
+                            row.getCell(3).setCellFormula("C" + (rowIndex + 1) + "*1.5");
+                            break;
+                        case 3:
+                            row.getCell(0).setCellFormula("\"TYPE-\"&\"F\"");
+                            break;
+                        case 4:
+                            // 数值列中的文本按照 0 读取；XLSX 文件中无法解析的数值则是出错的行。
+                            row.getCell(2).setCellValue("abc");
+                            if (xlsx) {
+                                ((XSSFCell) row.getCell(3)).getCTCell().setV("abc");
+                            }
+                            break;
+                        case 5:
+                            row.getCell(5).setCellValue(44562.75);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            });
+
+            ImportResult importResult = execImportInBothParseModes(file, null);
+            // 文本字段只读取字符串单元格，数值形式的设备视为缺失。
+            assertNull(importResult.consumingDetails.get(0).getDevice());
+            assertEquals(0, new BigDecimal("4.5").compareTo(importResult.consumingDetails.get(1).getWorth()));
+            assertEquals("TYPE-F", importResult.consumingDetails.get(2).getToolCutterType());
+            if (xlsx) {
+                assertEquals(294 - 23, importResult.consumingDetails.size());
+                assertEquals(23, importResult.importErrorInfos.size());
+                assertEquals("T006", importResult.importErrorInfos.get(0).getSheetName());
+                assertEquals(Integer.valueOf(4), importResult.importErrorInfos.get(0).getRowIndex());
+            } else {
+                assertEquals(294, importResult.consumingDetails.size());
+                assertTrue(importResult.importErrorInfos.isEmpty());
+                assertEquals(Integer.valueOf(0), importResult.consumingDetails.get(3).getConsumingQuantity());
+            }
+        }
+    }
+
+    /**
+     * 两种解析方式都只读取名称有效的工作簿。
+     */
+    @Test
+    public void testSheetNameFiltering() throws Exception {
+        for (boolean xlsx : new boolean[]{true, false}) {
+            File file = writeWorkbook(xlsx, "T007", null, workbook -> {
+                for (String sheetName : new String[]{"T0", "综合", "T1", "库存使用明细", "T2"}) {
+                    Sheet sheet = createDataSheet(workbook, sheetName);
+                    for (int rowIndex = 1; rowIndex <= 10; rowIndex++) {
+                        createDataRow(sheet, rowIndex, "TYPE-" + rowIndex, rowIndex);
+                    }
+                }
+            });
+
+            ImportResult importResult = execImportInBothParseModes(file, null);
+            assertEquals(30, importResult.consumingDetails.size());
+            Set<String> toolCutterCodes = new LinkedHashSet<>();
+            for (ConsumingDetail consumingDetail : importResult.consumingDetails) {
+                toolCutterCodes.add(consumingDetail.getToolCutterCode());
+            }
+            assertEquals(Arrays.asList("T0", "T1", "T2"), new ArrayList<>(toolCutterCodes));
+        }
+    }
+
+    /**
+     * 连续的空白行达到阈值时不再读取当前工作簿后续的行，缺失的行与不含内容的行均计为空白行。
+     */
+    @Test
+    public void testBlankRowStopThreshold() throws Exception {
+        for (boolean xlsx : new boolean[]{true, false}) {
+            File file = writeWorkbook(xlsx, "T008", null, workbook -> {
+                Sheet sheet = createDataSheet(workbook, "T008");
+                createDataRow(sheet, 1, "TYPE-1", 1);
+                // 第 2 至 100 行共 99 行空白，其中一部分是只含空白文本的行，未达到阈值。
+                for (int rowIndex = 2; rowIndex <= 100; rowIndex += 3) {
+                    sheet.createRow(rowIndex).createCell(0).setCellValue(" ");
+                }
+                createDataRow(sheet, 101, "TYPE-2", 2);
+                // 第 102 至 201 行共 100 行空白，达到阈值，之后的行不再读取。
+                createDataRow(sheet, 202, "TYPE-3", 3);
+                createDataRow(createDataSheet(workbook, "T009"), 1, "TYPE-4", 4);
+            });
+
+            ImportResult importResult = execImportInBothParseModes(file, null);
+            assertEquals(3, importResult.consumingDetails.size());
+            assertEquals("TYPE-1", importResult.consumingDetails.get(0).getToolCutterType());
+            assertEquals("TYPE-2", importResult.consumingDetails.get(1).getToolCutterType());
+            // 后续的工作簿不受影响。
+            assertEquals("TYPE-4", importResult.consumingDetails.get(2).getToolCutterType());
+            assertTrue(importResult.importErrorInfos.isEmpty());
+        }
+    }
+
+    /**
+     * 加密的工作簿使用正确的密码导入时，结果与未加密的工作簿相同；密码错误时抛出密码错误异常。
+     */
+    @Test
+    public void testPasswordProtectedWorkbook() throws Exception {
+        for (boolean xlsx : new boolean[]{true, false}) {
+            WorkbookWriter workbookWriter = workbook -> {
+                Sheet sheet = createDataSheet(workbook, "T010");
+                for (int rowIndex = 1; rowIndex <= 100; rowIndex++) {
+                    createDataRow(sheet, rowIndex, "TYPE-" + rowIndex % 7, rowIndex % 5 + 1);
+                }
+            };
+            File plainFile = writeWorkbook(xlsx, "T010", null, workbookWriter);
+            File encryptedFile = writeWorkbook(xlsx, "T010", "pass", workbookWriter);
+
+            ImportResult expected = execImport(plainFile, Collections.emptyMap());
+            assertEquals(100, expected.consumingDetails.size());
+            assertImportResultEquals(expected, execImportInBothParseModes(encryptedFile, "pass"));
+
+            for (String parseMode : new String[]{"user_model", "event_model"}) {
+                Map<String, Object> properties = new HashMap<>();
+                properties.put("data_import.parse_mode", parseMode);
+                try {
+                    execImport(encryptedFile, "wrong", properties, new ArrayList<>());
+                    fail();
+                } catch (WrongPasswordException e) {
+                    // 预期的异常。
+                }
+            }
+        }
+    }
+
+    private static int countOpenedWorkbooks(List<ProgressStatus> progressStatuses) {
+        ImportMetrics importMetrics = null;
+        for (ProgressStatus progressStatus : progressStatuses) {
+            if (Objects.nonNull(progressStatus.getImportMetrics())) {
+                importMetrics = progressStatus.getImportMetrics();
+            }
+        }
+        assertNotNull(importMetrics);
+        return (int) importMetrics.getSheetImportMetrics().stream()
+                .filter(sheetImportMetrics -> Objects.isNull(sheetImportMetrics.getSheetName()))
+                .count();
+    }
+
+    private static void setFormulaWithoutCachedResult(Row row, int columnIndex, String formula) {
+        // 新建的公式单元格带有值为 0 的缓存结果，需要删除后才能模拟缓存结果缺失的文件。
+        XSSFCell cell = (XSSFCell) row.createCell(columnIndex);
+        cell.setCellFormula(formula);
+        cell.getCTCell().unsetV();
+    }
+
+    private File writeWorkbook(boolean xlsx, String name, String password, WorkbookWriter workbookWriter)
+            throws Exception {
+        File file = new File(temporaryFolder.newFolder(), name + (xlsx ? ".xlsx" : ".xls"));
+        try (Workbook workbook = xlsx ? new XSSFWorkbook() : new HSSFWorkbook()) {
+            workbookWriter.write(workbook);
+            if (Objects.isNull(password)) {
+                try (OutputStream out = new FileOutputStream(file)) {
+                    workbook.write(out);
+                }
+            } else if (xlsx) {
+                // XLSX 文件加密后存放在 OLE2 容器中。
+                try (POIFSFileSystem fs = new POIFSFileSystem()) {
+                    Encryptor encryptor = new EncryptionInfo(EncryptionMode.agile).getEncryptor();
+                    encryptor.confirmPassword(password);
+                    try (OutputStream out = encryptor.getDataStream(fs)) {
+                        workbook.write(out);
+                    }
+                    try (OutputStream out = new FileOutputStream(file)) {
+                        fs.writeFilesystem(out);
+                    }
+                }
+            } else {
+                // XLS 文件在写入时按照当前线程设置的密码加密。
+                Biff8EncryptionKey.setCurrentUserPassword(password);
+                try (OutputStream out = new FileOutputStream(file)) {
+                    workbook.write(out);
+                } finally {
+                    Biff8EncryptionKey.setCurrentUserPassword(null);
+                }
+            }
+        }
+        return file;
+    }
+
+    private static Sheet createDataSheet(Workbook workbook, String sheetName) {
+        Sheet sheet = workbook.createSheet(sheetName);
+        sheet.createRow(0).createCell(0).setCellValue("型号");
+        return sheet;
+    }
+
+    private static Row createDataRow(Sheet sheet, int rowIndex, String toolCutterType, int consumingQuantity) {
+        Row row = sheet.createRow(rowIndex);
+        row.createCell(0).setCellValue(toolCutterType);
+        row.createCell(1).setCellValue("DEV" + rowIndex % 3);
+        row.createCell(2).setCellValue(consumingQuantity);
+        row.createCell(3).setCellValue(2.5 * consumingQuantity);
+        row.createCell(4).setCellValue("人员" + rowIndex % 4);
+        row.createCell(5).setCellValue(44562 + rowIndex % 300);
+        row.createCell(6).setCellValue(rowIndex % 2 == 0 ? "备注" + rowIndex : "");
+        row.createCell(7).setCellValue(rowIndex % 2);
+        row.createCell(8).setCellValue(rowIndex % 3 == 0 ? "优" : "良");
+        return row;
+    }
+
+    /**
+     * 以用户模型与事件模型分别导入文件，断言两者的结果相同，并返回用户模型的导入结果。
+     */
+    private ImportResult execImportInBothParseModes(File file, String password) throws Exception {
+        Map<String, Object> userModelProperties = new HashMap<>();
+        userModelProperties.put("data_import.parse_mode", "user_model");
+        ImportResult userModelResult = execImport(file, password, userModelProperties, new ArrayList<>());
+        Map<String, Object> eventModelProperties = new HashMap<>();
+        eventModelProperties.put("data_import.parse_mode", "event_model");
+        ImportResult eventModelResult = execImport(file, password, eventModelProperties, new ArrayList<>());
+        assertImportResultEquals(userModelResult, eventModelResult);
+        return userModelResult;
+    }
+
+    private ImportResult execImport(File file, int chunkSize) throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("data_import.parallel_sheet_import", "true");
+        properties.put("data_import.csv.chunk_size", Integer.toString(chunkSize));
+        return execImport(file, properties);
+    }
+
+    private ImportResult execImport(File file, Map<String, Object> properties) throws Exception {
+        return execImport(file, properties, new ArrayList<>());
+    }
+
+    private ImportResult execImport(File file, Map<String, Object> properties, List<ProgressStatus> progressStatuses)
+            throws Exception {
+        return execImport(file, null, properties, progressStatuses);
+    }
+
+    private ImportResult execImport(
+            File file, String password, Map<String, Object> properties, List<ProgressStatus> progressStatuses
+    ) throws Exception {
+        try (AnnotationConfigApplicationContext context = createContext(properties)) {
+            DataImportHandler dataImportHandler = context.getBean(DataImportHandler.class);
+            ProgressObserver progressObserver = progressStatuses::add;
+            dataImportHandler.addObserver(progressObserver);
+            dataImportHandler.execImport(file, password);
+            dataImportHandler.removeObserver(progressObserver);
+            return new ImportResult(
+                    context.getBean(ConsumingDetailDao.class).lookup(),
+                    context.getBean(ImportErrorInfoDao.class).lookup()
+            );
+        }
+    }
+
+    private ImportResult execBatchImport(List<File> files, Map<String, Object> properties) throws Exception {
+        try (AnnotationConfigApplicationContext context = createContext(properties)) {
+            List<ImportFileInfo> importFileInfos = new ArrayList<>();
+            for (File file : files) {
+                importFileInfos.add(new ImportFileInfo(file, null));
+            }
+            context.getBean(DataImportHandler.class).execBatchImport(importFileInfos);
+            return new ImportResult(
+                    context.getBean(ConsumingDetailDao.class).lookup(),
+                    context.getBean(ImportErrorInfoDao.class).lookup()
+            );
+        }
+    }
+
+    private static AnnotationConfigApplicationContext createContext(Map<String, Object> properties) {
+        Map<String, Object> actualProperties = new HashMap<>();
+        actualProperties.put("data_import.incremental_import", "false");
+        actualProperties.put("data_import.row_cache.enabled", "false");
+        actualProperties.putAll(properties);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", actualProperties));
+        context.register(
+                TestConfiguration.class, ServiceConfiguration.class, ServiceExceptionMapperConfiguration.class,
+                ConsumingDetailDaoImpl.class, ImportErrorInfoDaoImpl.class,
+                ConsumingDetailMaintainServiceImpl.class, ImportErrorInfoMaintainServiceImpl.class,
+                ImportCacheHandlerImpl.class, DataImportHandlerImpl.class
+        );
+        context.refresh();
+        return context;
+    }
+
+    private static String generateCsv() {
+        StringBuilder sb = new StringBuilder("型号,设备,数量,价值,人员,日期,备注,退回,信息\r\n");
+        for (int i = 1; i <= 2000; i++) {
+            String date = i % 2 == 0 ? String.format("2022-%02d-%02d", 1 + i % 12, 1 + i % 28) :
+                    Integer.toString(44562 + i % 300);
+            String remark;
+            switch (i % 10) {
+                case 3:
+                    remark = "5\" 管" + i;
+                    break;
+                case 7:
+                    remark = "\"备注,含\"\"逗号\"\"\n换行" + i + "\"";
+                    break;
+                default:
+                    remark = "";
+                    break;
+            }
+            sb.append("TYPE-").append(i % 7).append(",DEV").append(i % 3).append(',').append(i % 5 + 1)
+                    .append(',').append(2.5 * (i % 5 + 1)).append(",人员").append(i % 4).append(',').append(date)
+                    .append(',').append(remark).append(',').append(i % 2).append(',').append(i % 3 == 0 ? "优" : "良")
+                    .append("\r\n");
+            if (i % 500 == 0) {
+                sb.append(",,,,,,,,\r\n\r\n");
+            }
+        }
+        sb.append("TYPE-8,DEV8,abc,1.0,人员8,2022-01-01,,,\r\n");
+        sb.append("TYPE-9,DEV9,1,xyz,人员9,2022-01-01,,,");
+        return sb.toString();
+    }
+
+    private static void assertImportResultEquals(ImportResult expected, ImportResult actual) {
+        assertEquals(expected.consumingDetails.size(), actual.consumingDetails.size());
+        for (int i = 0; i < expected.consumingDetails.size(); i++) {
+            ConsumingDetail expectedDetail = expected.consumingDetails.get(i);
+            ConsumingDetail actualDetail = actual.consumingDetails.get(i);
+            assertEquals(expectedDetail.getToolCutterType(), actualDetail.getToolCutterType());
+            assertEquals(expectedDetail.getDevice(), actualDetail.getDevice());
+            assertEquals(expectedDetail.getConsumingQuantity(), actualDetail.getConsumingQuantity());
+            assertEquals(expectedDetail.getWorth(), actualDetail.getWorth());
+            assertEquals(expectedDetail.getConsumingPerson(), actualDetail.getConsumingPerson());
+            assertEquals(expectedDetail.getConsumingDate(), actualDetail.getConsumingDate());
+            assertEquals(expectedDetail.getRemark(), actualDetail.getRemark());
+            assertEquals(expectedDetail.getToolCutterCode(), actualDetail.getToolCutterCode());
+            assertEquals(expectedDetail.getReturningQuantity(), actualDetail.getReturningQuantity());
+            assertEquals(expectedDetail.getReturningUsageInfo(), actualDetail.getReturningUsageInfo());
+            assertEquals(expectedDetail.getConsumingDay(), actualDetail.getConsumingDay());
+        }
+        assertEquals(expected.importErrorInfos.size(), actual.importErrorInfos.size());
+        for (int i = 0; i < expected.importErrorInfos.size(); i++) {
+            ImportErrorInfo expectedErrorInfo = expected.importErrorInfos.get(i);
+            ImportErrorInfo actualErrorInfo = actual.importErrorInfos.get(i);
+            assertEquals(expectedErrorInfo.getSheetName(), actualErrorInfo.getSheetName());
+            assertEquals(expectedErrorInfo.getRowIndex(), actualErrorInfo.getRowIndex());
+            assertEquals(expectedErrorInfo.getEndRowIndex(), actualErrorInfo.getEndRowIndex());
+            assertEquals(expectedErrorInfo.getRowCount(), actualErrorInfo.getRowCount());
+            assertEquals(expectedErrorInfo.getErrorMessage(), actualErrorInfo.getErrorMessage());
+        }
+    }
+
+    @Configuration
+    @PropertySource("classpath:data-import/config.properties")
+    static class TestConfiguration {
+
+        @Bean
+        public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        public ThreadPoolTaskExecutor executor() {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(4);
+            return executor;
+        }
+    }
+
+    @FunctionalInterface
+    private interface WorkbookWriter {
+
+        void write(Workbook workbook);
+    }
+
+    private static class ImportResult {
+
+        private final List<ConsumingDetail> consumingDetails;
+        private final List<ImportErrorInfo> importErrorInfos;
+
+        public ImportResult(List<ConsumingDetail> consumingDetails, List<ImportErrorInfo> importErrorInfos) {
+            this.consumingDetails = consumingDetails;
+            this.importErrorInfos = importErrorInfos;
+        }
+    }
+}
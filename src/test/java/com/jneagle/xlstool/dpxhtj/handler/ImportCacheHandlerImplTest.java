@@ -0,0 +1,184 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.jneagle.xlstool.dpxhtj.bean.dto.ImportCacheData;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ImportErrorInfo;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ImportCacheHandlerImplTest {
+
+    private static final String CACHE_KEY = "cache";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ImportCacheHandlerImpl importCacheHandler;
+    private Path cacheFile;
+
+    @Before
+    public void setUp() {
+        File directory = temporaryFolder.getRoot();
+        importCacheHandler = new ImportCacheHandlerImpl();
+        ReflectionTestUtils.setField(importCacheHandler, "directory", directory.getAbsolutePath());
+        ReflectionTestUtils.setField(importCacheHandler, "maxSize", Long.MAX_VALUE);
+        cacheFile = directory.toPath().resolve(CACHE_KEY + ".bin");
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ImportCacheData importCacheData = sampleData();
+        importCacheHandler.put(CACHE_KEY, importCacheData);
+        ImportCacheData result = importCacheHandler.get(CACHE_KEY);
+
+        assertNotNull(result);
+        List<ConsumingDetail> expectedDetails = importCacheData.getConsumingDetails();
+        List<ConsumingDetail> actualDetails = result.getConsumingDetails();
+        assertEquals(expectedDetails.size(), actualDetails.size());
+        for (int i = 0; i < expectedDetails.size(); i++) {
+            ConsumingDetail expected = expectedDetails.get(i);
+            ConsumingDetail actual = actualDetails.get(i);
+            assertNull(actual.getKey());
+            assertEquals(expected.getToolCutterType(), actual.getToolCutterType());
+            assertEquals(expected.getDevice(), actual.getDevice());
+            assertEquals(expected.getConsumingQuantity(), actual.getConsumingQuantity());
+            assertEquals(expected.getWorth(), actual.getWorth());
+            assertEquals(expected.getConsumingPerson(), actual.getConsumingPerson());
+            assertEquals(expected.getConsumingDate(), actual.getConsumingDate());
+            assertEquals(expected.getRemark(), actual.getRemark());
+            assertEquals(expected.getToolCutterCode(), actual.getToolCutterCode());
+            assertEquals(expected.getReturningQuantity(), actual.getReturningQuantity());
+            assertEquals(expected.getReturningUsageInfo(), actual.getReturningUsageInfo());
+            assertEquals(expected.getConsumingDay(), actual.getConsumingDay());
+        }
+        List<ImportErrorInfo> expectedErrors = importCacheData.getImportErrorInfos();
+        List<ImportErrorInfo> actualErrors = result.getImportErrorInfos();
+        assertEquals(expectedErrors.size(), actualErrors.size());
+        for (int i = 0; i < expectedErrors.size(); i++) {
+            ImportErrorInfo expected = expectedErrors.get(i);
+            ImportErrorInfo actual = actualErrors.get(i);
+            assertNull(actual.getKey());
+            assertEquals(expected.getSheetName(), actual.getSheetName());
+            assertEquals(expected.getRowIndex(), actual.getRowIndex());
+            assertEquals(expected.getEndRowIndex(), actual.getEndRowIndex());
+            assertEquals(expected.getRowCount(), actual.getRowCount());
+            assertEquals(expected.getErrorMessage(), actual.getErrorMessage());
+        }
+    }
+
+    @Test
+    public void testAbsentCache() throws Exception {
+        assertNull(importCacheHandler.get(CACHE_KEY));
+    }
+
+    @Test
+    public void testTruncatedCacheIsMiss() throws Exception {
+        importCacheHandler.put(CACHE_KEY, sampleData());
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        Files.write(cacheFile, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertCacheMiss();
+    }
+
+    @Test
+    public void testInvalidHeaderIsMiss() throws Exception {
+        writeCacheFile(0x12345678, version(), 0, 0);
+        assertCacheMiss();
+
+        writeCacheFile(magic(), version() - 1, 0, 0);
+        assertCacheMiss();
+    }
+
+    @Test
+    public void testInvalidLengthIsMiss() throws Exception {
+        // 记录数量超出文件的大小。
+        writeCacheFile(magic(), version(), Integer.MAX_VALUE);
+        assertCacheMiss();
+
+        writeCacheFile(magic(), version(), -1);
+        assertCacheMiss();
+
+        // 字符串的长度超出文件的大小。
+        writeCacheFile(magic(), version(), 1, Integer.MAX_VALUE - 8, 0, 0);
+        assertCacheMiss();
+
+        writeCacheFile(magic(), version(), 1, -2, 0, 0);
+        assertCacheMiss();
+    }
+
+    /**
+     * 随机修改缓存文件中的字节，读取时要么得到数据，要么视为缓存未命中，不应抛出异常。
+     */
+    @Test
+    public void testRandomCorruption() throws Exception {
+        importCacheHandler.put(CACHE_KEY, sampleData());
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        Random random = new Random(0);
+        for (int i = 0; i < 500; i++) {
+            byte[] corruptedBytes = bytes.clone();
+            for (int j = random.nextInt(4); j >= 0; j--) {
+                corruptedBytes[random.nextInt(corruptedBytes.length)] = (byte) random.nextInt();
+            }
+            Files.write(cacheFile, corruptedBytes);
+            if (Objects.isNull(importCacheHandler.get(CACHE_KEY))) {
+                assertFalse(Files.exists(cacheFile));
+            }
+        }
+    }
+
+    private void assertCacheMiss() throws Exception {
+        assertNull(importCacheHandler.get(CACHE_KEY));
+        assertFalse(Files.exists(cacheFile));
+    }
+
+    private void writeCacheFile(int... values) throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bout)) {
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        }
+        Files.write(cacheFile, bout.toByteArray());
+    }
+
+    private static int magic() {
+        return (int) Objects.requireNonNull(ReflectionTestUtils.getField(ImportCacheHandlerImpl.class, "MAGIC"));
+    }
+
+    private static int version() {
+        return (int) Objects.requireNonNull(ReflectionTestUtils.getField(ImportCacheHandlerImpl.class, "VERSION"));
+    }
+
+    private static ImportCacheData sampleData() {
+        List<ConsumingDetail> consumingDetails = new ArrayList<>();
+        consumingDetails.add(new ConsumingDetail(
+                null, "刀具-1", "设备A", 3, new BigDecimal("12.50"), "张三", new Date(1647302400000L),
+                "备注，含逗号\n换行", "T001", 1, "优", 19066
+        ));
+        consumingDetails.add(new ConsumingDetail(
+                null, null, null, null, null, null, null, null, null, null, null, null
+        ));
+        consumingDetails.add(new ConsumingDetail(
+                null, "", "D", -1, new BigDecimal("-123456789012345678901234567890.123456"), "P", new Date(-1L),
+                "", "C", Integer.MAX_VALUE, "U", Integer.MIN_VALUE
+        ));
+        List<ImportErrorInfo> importErrorInfos = new ArrayList<>();
+        importErrorInfos.add(new ImportErrorInfo(null, "工作表", 5, 9, 5, "领用数量格式不正确"));
+        importErrorInfos.add(new ImportErrorInfo(null, null, null, null, null, null));
+        return new ImportCacheData(consumingDetails, importErrorInfos);
+    }
+}
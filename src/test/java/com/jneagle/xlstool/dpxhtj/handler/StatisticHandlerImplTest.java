@@ -0,0 +1,138 @@
+package com.jneagle.xlstool.dpxhtj.handler;
+
+import com.dwarfeng.subgrade.stack.bean.key.UuidKey;
+import com.jneagle.xlstool.dpxhtj.bean.dto.StatisticResult;
+import com.jneagle.xlstool.dpxhtj.bean.dto.StatisticResult.PersonPerspective;
+import com.jneagle.xlstool.dpxhtj.bean.entity.ConsumingDetail;
+import com.jneagle.xlstool.dpxhtj.dao.ConsumingDetailDao;
+import com.jneagle.xlstool.dpxhtj.dao.ConsumingDetailDaoImpl;
+import com.jneagle.xlstool.dpxhtj.service.ConsumingDetailMaintainServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StatisticHandlerImplTest {
+
+    private ConsumingDetailDao consumingDetailDao;
+    private StatisticHandlerImpl statisticHandler;
+
+    @Before
+    public void setUp() {
+        consumingDetailDao = new ConsumingDetailDaoImpl();
+        statisticHandler = new StatisticHandlerImpl(new ConsumingDetailMaintainServiceImpl(
+                consumingDetailDao, () -> new UuidKey(UUID.randomUUID().toString()), null
+        ));
+        ReflectionTestUtils.setField(statisticHandler, "returningUsageG01Regex", "^.*优.*$");
+        ReflectionTestUtils.setField(statisticHandler, "returningUsageG02Regex", "^.*良.*$");
+        ReflectionTestUtils.setField(statisticHandler, "returningUsageG03Regex", "^.*差.*$");
+    }
+
+    /**
+     * 以分为单位累加的价值，应与逐个相加 {@link BigDecimal} 的结果相同，包括小数位数。
+     */
+    @Test
+    public void testWorthEqualsBigDecimalSum() throws Exception {
+        Random random = new Random(0);
+        List<ConsumingDetail> consumingDetails = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            consumingDetails.add(detail("P" + random.nextInt(8), randomWorth(random), 1, 0, null));
+        }
+        // 累加溢出 long 的价值。
+        BigDecimal largeWorth = BigDecimal.valueOf(Long.MAX_VALUE / 2, 2);
+        for (int i = 0; i < 5; i++) {
+            consumingDetails.add(detail("P-large", largeWorth, 1, 0, null));
+            consumingDetails.add(detail("P-large", new BigDecimal("-0.5"), 1, 0, null));
+        }
+        // 没有价值的分组。
+        consumingDetails.add(detail("P-none", null, 1, 0, null));
+        consumingDetailDao.batchInsert(consumingDetails);
+
+        Map<String, BigDecimal> expectedWorthMap = new LinkedHashMap<>();
+        for (ConsumingDetail consumingDetail : consumingDetails) {
+            BigDecimal worth = expectedWorthMap.getOrDefault(consumingDetail.getConsumingPerson(), BigDecimal.ZERO);
+            if (Objects.nonNull(consumingDetail.getWorth())) {
+                worth = worth.add(consumingDetail.getWorth());
+            }
+            expectedWorthMap.put(consumingDetail.getConsumingPerson(), worth);
+        }
+
+        StatisticResult statisticResult = statisticHandler.execStatistic();
+        List<PersonPerspective> personPerspectives = statisticResult.getPersonPerspectives();
+        assertEquals(expectedWorthMap.size(), personPerspectives.size());
+        int index = 0;
+        for (Map.Entry<String, BigDecimal> entry : expectedWorthMap.entrySet()) {
+            PersonPerspective personPerspective = personPerspectives.get(index++);
+            assertEquals(entry.getKey(), personPerspective.getName());
+            assertEquals(entry.getValue(), personPerspective.getWorth());
+        }
+    }
+
+    @Test
+    public void testQuantities() throws Exception {
+        consumingDetailDao.batchInsert(Arrays.asList(
+                detail("张三", new BigDecimal("1.5"), 3, 1, "优"),
+                detail("张三", new BigDecimal("2.25"), 2, 2, "良好"),
+                detail("张三", null, null, 4, "较差"),
+                detail("张三", new BigDecimal("0.001"), 1, null, null),
+                detail("李四", new BigDecimal("7"), 5, 5, "其它")
+        ));
+
+        StatisticResult statisticResult = statisticHandler.execStatistic();
+        List<PersonPerspective> personPerspectives = statisticResult.getPersonPerspectives();
+        assertEquals(2, personPerspectives.size());
+
+        PersonPerspective zhangSan = personPerspectives.get(0);
+        assertEquals("张三", zhangSan.getName());
+        assertEquals(Integer.valueOf(2022), zhangSan.getYear());
+        assertEquals(Integer.valueOf(2), zhangSan.getMonth());
+        assertEquals(Integer.valueOf(6), zhangSan.getConsumingQuantity());
+        assertEquals(new BigDecimal("3.751"), zhangSan.getWorth());
+        assertEquals(Integer.valueOf(7), zhangSan.getReturningQuantity());
+        assertEquals(Integer.valueOf(1), zhangSan.getReturningUsageG01Quantity());
+        assertEquals(Integer.valueOf(2), zhangSan.getReturningUsageG02Quantity());
+        assertEquals(Integer.valueOf(4), zhangSan.getReturningUsageG03Quantity());
+
+        PersonPerspective liSi = personPerspectives.get(1);
+        assertEquals("李四", liSi.getName());
+        assertEquals(new BigDecimal("7"), liSi.getWorth());
+        assertEquals(Integer.valueOf(0), liSi.getReturningUsageG01Quantity());
+
+        assertEquals(1, statisticResult.getDevicePerspectives().size());
+        assertEquals(new BigDecimal("10.751"), statisticResult.getDevicePerspectives().get(0).getWorth());
+        assertEquals(1, statisticResult.getToolCutterPerspectives().size());
+        assertEquals(Integer.valueOf(11), statisticResult.getToolCutterPerspectives().get(0).getConsumingQuantity());
+    }
+
+    private static BigDecimal randomWorth(Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return null;
+            case 1:
+                // 无法以分表示的价值。
+                return BigDecimal.valueOf(random.nextInt(1000000) - 500000, 3 + random.nextInt(3));
+            case 2:
+                // 超出 long 范围的价值。
+                return new BigDecimal(new BigInteger(80, random), 2);
+            default:
+                return BigDecimal.valueOf(random.nextInt(100000) - 50000, random.nextInt(3));
+        }
+    }
+
+    private static ConsumingDetail detail(
+            String consumingPerson, BigDecimal worth, Integer consumingQuantity, Integer returningQuantity,
+            String returningUsageInfo
+    ) {
+        // 2022-03-15。
+        int consumingDay = 19066;
+        return new ConsumingDetail(
+                new UuidKey(UUID.randomUUID().toString()), "T", "D", consumingQuantity, worth, consumingPerson,
+                new Date(consumingDay * 86400000L), null, "C", returningQuantity, returningUsageInfo, consumingDay
+        );
+    }
+}
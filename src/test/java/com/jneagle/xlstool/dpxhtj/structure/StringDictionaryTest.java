@@ -0,0 +1,81 @@
+package com.jneagle.xlstool.dpxhtj.structure;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class StringDictionaryTest {
+
+    @Test
+    public void testEncodeAndDecode() {
+        StringDictionary stringDictionary = new StringDictionary();
+        assertEquals(StringDictionary.NULL_CODE, stringDictionary.encode(null));
+        assertNull(stringDictionary.decode(StringDictionary.NULL_CODE));
+        assertEquals(StringDictionary.ABSENT_CODE, stringDictionary.codeOf("a"));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, stringDictionary.encode("value-" + i));
+        }
+        assertEquals(100, stringDictionary.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, stringDictionary.encode("value-" + i));
+            assertEquals(i, stringDictionary.codeOf("value-" + i));
+            assertEquals("value-" + i, stringDictionary.decode(i));
+        }
+        assertEquals(100, stringDictionary.size());
+    }
+
+    @Test
+    public void testIntern() {
+        StringDictionary stringDictionary = new StringDictionary();
+        String value = stringDictionary.intern(new String("value"));
+        assertSame(value, stringDictionary.intern(new String("value")));
+        assertSame(value, stringDictionary.decode(stringDictionary.codeOf("value")));
+        assertNull(stringDictionary.intern(null));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testDecodeUnknownCode() {
+        StringDictionary stringDictionary = new StringDictionary();
+        stringDictionary.encode("value");
+        stringDictionary.decode(1);
+    }
+
+    /**
+     * 多个线程同时编码时，同一字符串只分配一个编码，分配的编码均可以被解码。
+     */
+    @Test
+    public void testConcurrentEncode() throws Exception {
+        StringDictionary stringDictionary = new StringDictionary();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(() -> {
+                    int[] codes = new int[10000];
+                    for (int j = 0; j < codes.length; j++) {
+                        codes[j] = stringDictionary.encode("value-" + j);
+                        assertEquals("value-" + j, stringDictionary.decode(codes[j]));
+                    }
+                    return codes;
+                }));
+            }
+            int[] expectedCodes = futures.get(0).get();
+            for (Future<int[]> future : futures) {
+                int[] codes = future.get();
+                for (int j = 0; j < codes.length; j++) {
+                    assertEquals(expectedCodes[j], codes[j]);
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        assertEquals(10000, stringDictionary.size());
+    }
+}
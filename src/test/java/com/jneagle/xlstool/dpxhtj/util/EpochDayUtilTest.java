@@ -0,0 +1,22 @@
+package com.jneagle.xlstool.dpxhtj.util;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+
+public class EpochDayUtilTest {
+
+    @Test
+    public void testYearAndMonthMatchLocalDate() {
+        // 覆盖 1900 年之前至 2100 年之后，包括各个闰年与非闰年的 2 月末。
+        int beginEpochDay = (int) LocalDate.of(1800, 1, 1).toEpochDay();
+        int endEpochDay = (int) LocalDate.of(2200, 12, 31).toEpochDay();
+        for (int epochDay = beginEpochDay; epochDay <= endEpochDay; epochDay++) {
+            LocalDate localDate = LocalDate.ofEpochDay(epochDay);
+            assertEquals(localDate.toString(), localDate.getYear(), EpochDayUtil.yearOf(epochDay));
+            assertEquals(localDate.toString(), localDate.getMonthValue(), EpochDayUtil.monthOf(epochDay));
+        }
+    }
+}